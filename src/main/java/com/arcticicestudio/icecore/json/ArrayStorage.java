@@ -0,0 +1,1251 @@
+/*
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+title      JSON Array Storage                              +
+project    icecore-json                                    +
+version    0.8.0-frost.1                                   +
+repository https://github.com/arcticicestudio/icecore-json +
+author     Arctic Ice Studio                               +
+email      development@arcticicestudio.com                 +
+copyright  Copyright (C) 2016                              +
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+*/
+package com.arcticicestudio.icecore.json;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Represents the storage of the elements of a JSON array.
+ * <p>
+ *   Arrays of numbers are stored as arrays of primitive {@code int}, {@code long} or {@code double} values instead of
+ *   one {@link JsonValue} per element.
+ *   A number is only stored as primitive value if its JSON representation can be restored exactly, hence the
+ *   storage never changes the output or the equality of an array.
+ * </p>
+ * <p>
+ *   All modifying methods return the storage to be used afterwards.
+ *   Storages which cannot hold a value, like a primitive storage that gets a string added, return a new storage of
+ *   a more general kind with all elements.
+ *   Otherwise the storage is modified in place and returns itself.
+ * </p>
+ * <p>
+ *   Arrays of arbitrary values with more than {@link #CHUNKED_THRESHOLD} elements are stored in fixed-size chunks
+ *   instead of a single contiguous array.
+ *   Growing them only allocates another chunk, so neither large copies nor huge allocations happen, which are
+ *   expensive for garbage collectors like G1.
+ * </p>
+ * <p>
+ *   The elements of persistent arrays are stored in an immutable {@link PersistentTree} which does not support any of
+ *   the modifying methods.
+ * </p>
+ * <p>
+ *   The indexes passed to the storage are not checked, this is the responsibility of the {@link JsonArray}.
+ * </p>
+ *
+ * @author Arctic Ice Studio &lt;development@arcticicestudio.com&gt;
+ * @since 0.8.0
+ */
+abstract class ArrayStorage implements Serializable {
+
+  /* Integral numbers with up to this many digits always fit into a long. */
+  private static final int MAX_LONG_DIGITS = 18;
+  /* Integral numbers with up to this many digits always fit into an int. */
+  private static final int MAX_INT_DIGITS = 9;
+  private static final JsonValue[] NO_VALUES = {};
+  private static final int CHUNK_SHIFT = 12;
+  /* The number of elements per chunk, small enough to never be a humongous allocation. */
+  static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+  private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+  /* The number of elements from which arbitrary values are stored in chunks. */
+  static final int CHUNKED_THRESHOLD = 1 << 16;
+
+  /**
+   * The storage of empty arrays, shared by all of them since it is never modified.
+   */
+  static final ArrayStorage EMPTY = new GenericStorage(NO_VALUES, 0);
+
+  abstract int size();
+
+  abstract JsonValue get(int index);
+
+  abstract ArrayStorage add(JsonValue value);
+
+  abstract ArrayStorage set(int index, JsonValue value);
+
+  abstract void remove(int index);
+
+  /**
+   * Returns a storage with the same elements that is independent of this storage.
+   *
+   * @return a copy of this storage
+   */
+  abstract ArrayStorage copy();
+
+  /**
+   * Shrinks the capacity of this storage to the number of elements.
+   */
+  abstract void trimToSize();
+
+  /**
+   * Returns the estimated number of bytes retained by this storage including its elements.
+   *
+   * @return the estimated retained size of this storage
+   * @see JsonValue#estimatedRetainedSize()
+   */
+  abstract long estimatedRetainedSize();
+
+  ArrayStorage addInt(int value) {
+    return add(Json.value(value));
+  }
+
+  ArrayStorage addLong(long value) {
+    return add(Json.value(value));
+  }
+
+  ArrayStorage addDouble(double value) {
+    return add(Json.value(value));
+  }
+
+  int getInt(int index) {
+    return get(index).asInt();
+  }
+
+  long getLong(int index) {
+    return get(index).asLong();
+  }
+
+  double getDouble(int index) {
+    return get(index).asDouble();
+  }
+
+  /**
+   * Returns the element at the given index as plain Java object.
+   *
+   * @param index the index of the element
+   * @return the element as it is represented in list views
+   * @see JsonArray#asList()
+   */
+  Object toJava(int index) {
+    return JavaValues.toJava(get(index));
+  }
+
+  int[] toIntArray() {
+    int[] array = new int[size()];
+    for (int i = 0; i < array.length; i++) {
+      array[i] = getInt(i);
+    }
+    return array;
+  }
+
+  long[] toLongArray() {
+    long[] array = new long[size()];
+    for (int i = 0; i < array.length; i++) {
+      array[i] = getLong(i);
+    }
+    return array;
+  }
+
+  double[] toDoubleArray() {
+    double[] array = new double[size()];
+    for (int i = 0; i < array.length; i++) {
+      array[i] = getDouble(i);
+    }
+    return array;
+  }
+
+  void write(int index, JsonWriter writer) throws IOException {
+    writer.writeValue(get(index));
+  }
+
+  /**
+   * Returns a spliterator over the elements of this storage that splits by index ranges.
+   *
+   * @return a spliterator over the elements
+   */
+  Spliterator<JsonValue> spliterator() {
+    return new ElementSpliterator(this, 0, size());
+  }
+
+  /**
+   * Returns the index at which the given range of elements is split into two halves for parallel processing.
+   *
+   * @param from the index of the first element of the range
+   * @param to the index after the last element of the range
+   * @return the index of the first element of the second half
+   */
+  int splitIndex(int from, int to) {
+    return (from + to) >>> 1;
+  }
+
+  /**
+   * Returns whether the elements are stored as primitive numbers which are written without creating any values.
+   *
+   * @return {@code true} if all elements are numbers that are written by {@link #write(int, JsonWriter)} directly
+   */
+  boolean isPrimitive() {
+    return false;
+  }
+
+  /**
+   * Indicates whether the given storage contains the same elements as this storage.
+   *
+   * @param other the storage to compare
+   * @return {@code true} if both storages contain equal elements in the same order
+   */
+  boolean contentEquals(ArrayStorage other) {
+    int size = size();
+    if (size != other.size()) {
+      return false;
+    }
+    for (int i = 0; i < size; i++) {
+      if (!JsonValue.equal(get(i), other.get(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the hash code of the elements, which is the same as the one of a list with the same elements.
+   *
+   * @return the hash code of the elements
+   */
+  int contentHashCode() {
+    int hashCode = 1;
+    for (int i = 0; i < size(); i++) {
+      hashCode = 31 * hashCode + get(i).hashCode();
+    }
+    return hashCode;
+  }
+
+  /**
+   * Returns whether all elements are immutable, so that the hash code of the array can be cached.
+   *
+   * @return {@code true} if no element can ever change
+   */
+  boolean isImmutable() {
+    for (int i = 0; i < size(); i++) {
+      if (!get(i).isImmutable()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns whether the elements can only be changed through the array, so that its hash code can be cached as long
+   * as its nested objects and arrays keep their hash codes.
+   *
+   * @return {@code true} if the storage does not reflect changes made elsewhere
+   */
+  boolean isOwned() {
+    return true;
+  }
+
+  /**
+   * Returns a storage of the exact size with the frozen elements of this storage.
+   *
+   * @return a storage for a frozen array which is never modified
+   */
+  ArrayStorage freeze() {
+    int size = size();
+    Object[] elements = new Object[size];
+    for (int i = 0; i < size; i++) {
+      elements[i] = get(i).freeze();
+    }
+    return of(elements, 0, size);
+  }
+
+  /**
+   * Returns a storage of arbitrary values with all elements of this storage.
+   *
+   * @param capacity the minimum capacity of the new storage
+   * @return a generic or chunked storage with the same elements
+   */
+  ArrayStorage toGeneric(int capacity) {
+    int size = size();
+    if (capacity > CHUNKED_THRESHOLD) {
+      ChunkedStorage storage = new ChunkedStorage();
+      for (int i = 0; i < size; i++) {
+        storage.add(get(i));
+      }
+      return storage;
+    }
+    JsonValue[] values = new JsonValue[Math.max(capacity, size)];
+    for (int i = 0; i < size; i++) {
+      values[i] = get(i);
+    }
+    return new GenericStorage(values, size);
+  }
+
+  /**
+   * Returns a storage of the exact size for the given elements.
+   * A primitive storage is chosen if all elements are numbers that can be stored as the same primitive type.
+   *
+   * @param elements the array of elements
+   * @param offset the index of the first element
+   * @param count the number of elements
+   * @return a storage with the given elements
+   */
+  static ArrayStorage of(Object[] elements, int offset, int count) {
+    if (count == 0) {
+      return EMPTY;
+    }
+    boolean integral = true;
+    boolean fitsInt = true;
+    for (int i = offset; i < offset + count; i++) {
+      if (!(elements[i] instanceof JsonNumber)) {
+        return genericOf(elements, offset, count);
+      }
+      if (integral) {
+        String text = elements[i].toString();
+        integral = isIntegral(text);
+        fitsInt = integral && fitsInt && fitsInt(text);
+      }
+    }
+    if (fitsInt) {
+      int[] values = new int[count];
+      for (int i = 0; i < count; i++) {
+        values[i] = Integer.parseInt(elements[offset + i].toString());
+      }
+      return new IntStorage(values, count);
+    }
+    if (integral) {
+      long[] values = new long[count];
+      for (int i = 0; i < count; i++) {
+        values[i] = Long.parseLong(elements[offset + i].toString());
+      }
+      return new LongStorage(values, count);
+    }
+    for (int i = offset; i < offset + count; i++) {
+      if (!isCanonicalDouble(elements[i].toString())) {
+        return genericOf(elements, offset, count);
+      }
+    }
+    double[] values = new double[count];
+    for (int i = 0; i < count; i++) {
+      values[i] = Double.parseDouble(elements[offset + i].toString());
+    }
+    return new DoubleStorage(values, count);
+  }
+
+  private static ArrayStorage genericOf(Object[] elements, int offset, int count) {
+    if (count > CHUNKED_THRESHOLD) {
+      ChunkedStorage storage = new ChunkedStorage();
+      for (int i = offset; i < offset + count; i++) {
+        storage.add((JsonValue)elements[i]);
+      }
+      return storage;
+    }
+    JsonValue[] values = new JsonValue[count];
+    System.arraycopy(elements, offset, values, 0, count);
+    return new GenericStorage(values, count);
+  }
+
+  /*
+   * Returns whether the given number is an integer in the representation of Long.toString() that fits into a long.
+   * JSON numbers never have leading zeros, so only a negative zero needs to be excluded.
+   */
+  static boolean isIntegral(String text) {
+    int start = text.startsWith("-") ? 1 : 0;
+    int digits = text.length() - start;
+    if (digits == 0 || digits > MAX_LONG_DIGITS || start == 1 && text.charAt(1) == '0') {
+      return false;
+    }
+    for (int i = start; i < text.length(); i++) {
+      char ch = text.charAt(i);
+      if (ch < '0' || ch > '9') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /*
+   * Returns the hash code of the text of the given number, the same as Long.toString(value).hashCode() without
+   * creating the string.
+   * The digits are taken from the negative value, since the negative range includes Long.MIN_VALUE.
+   */
+  static int textHashCode(long value) {
+    int hash = value < 0 ? '-' : 0;
+    long negative = value < 0 ? value : -value;
+    long divisor = 1;
+    while (negative / divisor <= -10) {
+      divisor *= 10;
+    }
+    for (; divisor > 0; divisor /= 10) {
+      hash = 31 * hash + '0' - (int)(negative / divisor % 10);
+    }
+    return hash;
+  }
+
+  /* Returns whether the given integral number fits into an int. */
+  static boolean fitsInt(String text) {
+    if (text.length() - (text.startsWith("-") ? 1 : 0) <= MAX_INT_DIGITS) {
+      return true;
+    }
+    long value = Long.parseLong(text);
+    return (int)value == value;
+  }
+
+  /* Returns whether the given number is the representation of its double value as created by Json.value(double). */
+  static boolean isCanonicalDouble(String text) {
+    double value = Double.parseDouble(text);
+    return !Double.isInfinite(value) && text.equals(Json.cutOffPointZero(Double.toString(value)));
+  }
+
+  private static int grow(int capacity) {
+    return capacity + Math.max(1, capacity >> 1);
+  }
+
+  /*
+   * Stores any kind of JSON values.
+   * A storage with a zero capacity is never modified, so that the empty storage can be shared.
+   */
+  static final class GenericStorage extends ArrayStorage {
+
+    private JsonValue[] values;
+    private int size;
+
+    GenericStorage(JsonValue[] values, int size) {
+      this.values = values;
+      this.size = size;
+    }
+
+    @Override
+    int size() {
+      return size;
+    }
+
+    @Override
+    JsonValue get(int index) {
+      return values[index];
+    }
+
+    @Override
+    ArrayStorage add(JsonValue value) {
+      if (values.length == 0) {
+        return new GenericStorage(new JsonValue[] {value}, 1);
+      }
+      if (size == values.length) {
+        if (grow(size) > CHUNKED_THRESHOLD) {
+          return toGeneric(grow(size)).add(value);
+        }
+        values = Arrays.copyOf(values, grow(size));
+      }
+      values[size++] = value;
+      return this;
+    }
+
+    @Override
+    ArrayStorage addInt(int value) {
+      return size == 0 ? new IntStorage(new int[] {value}, 1) : super.addInt(value);
+    }
+
+    @Override
+    ArrayStorage addLong(long value) {
+      return size == 0 ? new LongStorage(new long[] {value}, 1) : super.addLong(value);
+    }
+
+    @Override
+    ArrayStorage addDouble(double value) {
+      return size == 0 ? new DoubleStorage(new double[1], 0).addDouble(value) : super.addDouble(value);
+    }
+
+    @Override
+    ArrayStorage set(int index, JsonValue value) {
+      values[index] = value;
+      return this;
+    }
+
+    @Override
+    void remove(int index) {
+      System.arraycopy(values, index + 1, values, index, size - index - 1);
+      values[--size] = null;
+    }
+
+    @Override
+    ArrayStorage copy() {
+      return size == 0 ? EMPTY : new GenericStorage(Arrays.copyOf(values, size), size);
+    }
+
+    @Override
+    void trimToSize() {
+      if (values.length != size) {
+        values = size == 0 ? NO_VALUES : Arrays.copyOf(values, size);
+      }
+    }
+
+    @Override
+    long estimatedRetainedSize() {
+      if (this == EMPTY) {
+        return 0;
+      }
+      /* Empty storages share the same empty array. */
+      long retained = RetainedSize.instance(1, 4);
+      if (values.length != 0) {
+        retained += RetainedSize.referenceArray(values.length);
+      }
+      for (int i = 0; i < size; i++) {
+        retained += values[i].estimatedRetainedSize();
+      }
+      return retained;
+    }
+  }
+
+  /* Stores integral numbers that fit into an int. */
+  static final class IntStorage extends ArrayStorage {
+
+    private int[] values;
+    private int size;
+
+    IntStorage(int[] values, int size) {
+      this.values = values;
+      this.size = size;
+    }
+
+    @Override
+    int size() {
+      return size;
+    }
+
+    @Override
+    JsonValue get(int index) {
+      return Json.value(values[index]);
+    }
+
+    @Override
+    ArrayStorage add(JsonValue value) {
+      if (value instanceof JsonNumber && isIntegral(value.toString())) {
+        return addLong(Long.parseLong(value.toString()));
+      }
+      return toGeneric(grow(size)).add(value);
+    }
+
+    @Override
+    ArrayStorage addInt(int value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, grow(size));
+      }
+      values[size++] = value;
+      return this;
+    }
+
+    @Override
+    ArrayStorage addLong(long value) {
+      return (int)value == value ? addInt((int)value) : toLongStorage().addLong(value);
+    }
+
+    @Override
+    ArrayStorage set(int index, JsonValue value) {
+      if (value instanceof JsonNumber && isIntegral(value.toString())) {
+        long longValue = Long.parseLong(value.toString());
+        if ((int)longValue == longValue) {
+          values[index] = (int)longValue;
+          return this;
+        }
+        return toLongStorage().set(index, value);
+      }
+      return toGeneric(size).set(index, value);
+    }
+
+    @Override
+    void remove(int index) {
+      System.arraycopy(values, index + 1, values, index, size - index - 1);
+      size--;
+    }
+
+    @Override
+    ArrayStorage copy() {
+      return new IntStorage(Arrays.copyOf(values, size), size);
+    }
+
+    @Override
+    boolean isImmutable() {
+      return true;
+    }
+
+    @Override
+    ArrayStorage freeze() {
+      return copy();
+    }
+
+    @Override
+    void trimToSize() {
+      if (values.length != size) {
+        values = Arrays.copyOf(values, size);
+      }
+    }
+
+    @Override
+    long estimatedRetainedSize() {
+      return RetainedSize.instance(1, 4) + RetainedSize.intArray(values.length);
+    }
+
+    @Override
+    int getInt(int index) {
+      return values[index];
+    }
+
+    @Override
+    long getLong(int index) {
+      return values[index];
+    }
+
+    @Override
+    double getDouble(int index) {
+      return values[index];
+    }
+
+    @Override
+    Object toJava(int index) {
+      return values[index];
+    }
+
+    @Override
+    int contentHashCode() {
+      int hashCode = 1;
+      for (int i = 0; i < size; i++) {
+        hashCode = 31 * hashCode + textHashCode(values[i]);
+      }
+      return hashCode;
+    }
+
+    @Override
+    int[] toIntArray() {
+      return Arrays.copyOf(values, size);
+    }
+
+    @Override
+    boolean isPrimitive() {
+      return true;
+    }
+
+    @Override
+    void write(int index, JsonWriter writer) throws IOException {
+      writer.writeNumber(Integer.toString(values[index]));
+    }
+
+    @Override
+    boolean contentEquals(ArrayStorage other) {
+      if (other instanceof IntStorage) {
+        IntStorage storage = (IntStorage)other;
+        if (size != storage.size) {
+          return false;
+        }
+        for (int i = 0; i < size; i++) {
+          if (values[i] != storage.values[i]) {
+            return false;
+          }
+        }
+        return true;
+      }
+      return super.contentEquals(other);
+    }
+
+    private LongStorage toLongStorage() {
+      long[] longValues = new long[Math.max(values.length, size + 1)];
+      for (int i = 0; i < size; i++) {
+        longValues[i] = values[i];
+      }
+      return new LongStorage(longValues, size);
+    }
+  }
+
+  /* Stores integral numbers that fit into a long. */
+  static final class LongStorage extends ArrayStorage {
+
+    private long[] values;
+    private int size;
+
+    LongStorage(long[] values, int size) {
+      this.values = values;
+      this.size = size;
+    }
+
+    @Override
+    int size() {
+      return size;
+    }
+
+    @Override
+    JsonValue get(int index) {
+      return Json.value(values[index]);
+    }
+
+    @Override
+    ArrayStorage add(JsonValue value) {
+      if (value instanceof JsonNumber && isIntegral(value.toString())) {
+        return addLong(Long.parseLong(value.toString()));
+      }
+      return toGeneric(grow(size)).add(value);
+    }
+
+    @Override
+    ArrayStorage addInt(int value) {
+      return addLong(value);
+    }
+
+    @Override
+    ArrayStorage addLong(long value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, grow(size));
+      }
+      values[size++] = value;
+      return this;
+    }
+
+    @Override
+    ArrayStorage set(int index, JsonValue value) {
+      if (value instanceof JsonNumber && isIntegral(value.toString())) {
+        values[index] = Long.parseLong(value.toString());
+        return this;
+      }
+      return toGeneric(size).set(index, value);
+    }
+
+    @Override
+    void remove(int index) {
+      System.arraycopy(values, index + 1, values, index, size - index - 1);
+      size--;
+    }
+
+    @Override
+    ArrayStorage copy() {
+      return new LongStorage(Arrays.copyOf(values, size), size);
+    }
+
+    @Override
+    boolean isImmutable() {
+      return true;
+    }
+
+    @Override
+    ArrayStorage freeze() {
+      return copy();
+    }
+
+    @Override
+    void trimToSize() {
+      if (values.length != size) {
+        values = Arrays.copyOf(values, size);
+      }
+    }
+
+    @Override
+    long estimatedRetainedSize() {
+      return RetainedSize.instance(1, 4) + RetainedSize.longArray(values.length);
+    }
+
+    @Override
+    int getInt(int index) {
+      long value = values[index];
+      /* Fails like the parsing of the number. */
+      return (int)value == value ? (int)value : super.getInt(index);
+    }
+
+    @Override
+    long getLong(int index) {
+      return values[index];
+    }
+
+    @Override
+    double getDouble(int index) {
+      return values[index];
+    }
+
+    @Override
+    Object toJava(int index) {
+      long value = values[index];
+      return (int)value == value ? (Object)(int)value : (Object)value;
+    }
+
+    @Override
+    int contentHashCode() {
+      int hashCode = 1;
+      for (int i = 0; i < size; i++) {
+        hashCode = 31 * hashCode + textHashCode(values[i]);
+      }
+      return hashCode;
+    }
+
+    @Override
+    long[] toLongArray() {
+      return Arrays.copyOf(values, size);
+    }
+
+    @Override
+    boolean isPrimitive() {
+      return true;
+    }
+
+    @Override
+    void write(int index, JsonWriter writer) throws IOException {
+      writer.writeNumber(Long.toString(values[index]));
+    }
+
+    @Override
+    boolean contentEquals(ArrayStorage other) {
+      if (other instanceof LongStorage) {
+        LongStorage storage = (LongStorage)other;
+        if (size != storage.size) {
+          return false;
+        }
+        for (int i = 0; i < size; i++) {
+          if (values[i] != storage.values[i]) {
+            return false;
+          }
+        }
+        return true;
+      }
+      return super.contentEquals(other);
+    }
+  }
+
+  /* Stores numbers whose representation is the one created by Json.value(double). */
+  static final class DoubleStorage extends ArrayStorage {
+
+    private double[] values;
+    private int size;
+
+    DoubleStorage(double[] values, int size) {
+      this.values = values;
+      this.size = size;
+    }
+
+    @Override
+    int size() {
+      return size;
+    }
+
+    @Override
+    JsonValue get(int index) {
+      return Json.value(values[index]);
+    }
+
+    @Override
+    ArrayStorage add(JsonValue value) {
+      if (value instanceof JsonNumber && isCanonicalDouble(value.toString())) {
+        return addDouble(Double.parseDouble(value.toString()));
+      }
+      return toGeneric(grow(size)).add(value);
+    }
+
+    @Override
+    ArrayStorage addDouble(double value) {
+      if (Double.isInfinite(value) || Double.isNaN(value)) {
+        throw new IllegalArgumentException("Infinite and NaN values not permitted in JSON");
+      }
+      if (size == values.length) {
+        values = Arrays.copyOf(values, grow(size));
+      }
+      values[size++] = value;
+      return this;
+    }
+
+    @Override
+    ArrayStorage set(int index, JsonValue value) {
+      if (value instanceof JsonNumber && isCanonicalDouble(value.toString())) {
+        values[index] = Double.parseDouble(value.toString());
+        return this;
+      }
+      return toGeneric(size).set(index, value);
+    }
+
+    @Override
+    void remove(int index) {
+      System.arraycopy(values, index + 1, values, index, size - index - 1);
+      size--;
+    }
+
+    @Override
+    ArrayStorage copy() {
+      return new DoubleStorage(Arrays.copyOf(values, size), size);
+    }
+
+    @Override
+    boolean isImmutable() {
+      return true;
+    }
+
+    @Override
+    ArrayStorage freeze() {
+      return copy();
+    }
+
+    @Override
+    void trimToSize() {
+      if (values.length != size) {
+        values = Arrays.copyOf(values, size);
+      }
+    }
+
+    @Override
+    long estimatedRetainedSize() {
+      return RetainedSize.instance(1, 4) + RetainedSize.longArray(values.length);
+    }
+
+    @Override
+    double getDouble(int index) {
+      return values[index];
+    }
+
+    @Override
+    Object toJava(int index) {
+      double value = values[index];
+      /* Integral values are written without a fraction, so they are represented like integers. */
+      return value == Math.rint(value) ? super.toJava(index) : (Object)value;
+    }
+
+    @Override
+    double[] toDoubleArray() {
+      return Arrays.copyOf(values, size);
+    }
+
+    @Override
+    boolean isPrimitive() {
+      return true;
+    }
+
+    @Override
+    void write(int index, JsonWriter writer) throws IOException {
+      writer.writeNumber(Json.cutOffPointZero(Double.toString(values[index])));
+    }
+
+    @Override
+    boolean contentEquals(ArrayStorage other) {
+      if (other instanceof DoubleStorage) {
+        DoubleStorage storage = (DoubleStorage)other;
+        if (size != storage.size) {
+          return false;
+        }
+        for (int i = 0; i < size; i++) {
+          /* Equal representations have equal bits, including the sign of zero. */
+          if (Double.doubleToLongBits(values[i]) != Double.doubleToLongBits(storage.values[i])) {
+            return false;
+          }
+        }
+        return true;
+      }
+      return super.contentEquals(other);
+    }
+  }
+
+  /*
+   * Stores arbitrary values in chunks of CHUNK_SIZE elements.
+   * Only the small array of chunks is copied when it grows.
+   */
+  static final class ChunkedStorage extends ArrayStorage {
+
+    private JsonValue[][] chunks;
+    private int size;
+
+    ChunkedStorage() {
+      chunks = new JsonValue[CHUNKED_THRESHOLD >> CHUNK_SHIFT][];
+    }
+
+    private ChunkedStorage(JsonValue[][] chunks, int size) {
+      this.chunks = chunks;
+      this.size = size;
+    }
+
+    @Override
+    int size() {
+      return size;
+    }
+
+    @Override
+    JsonValue get(int index) {
+      return chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+    }
+
+    @Override
+    ArrayStorage add(JsonValue value) {
+      int chunk = size >>> CHUNK_SHIFT;
+      if (chunk == chunks.length) {
+        chunks = Arrays.copyOf(chunks, grow(chunks.length));
+      }
+      if (chunks[chunk] == null) {
+        chunks[chunk] = new JsonValue[CHUNK_SIZE];
+      }
+      chunks[chunk][size & CHUNK_MASK] = value;
+      size++;
+      return this;
+    }
+
+    @Override
+    ArrayStorage set(int index, JsonValue value) {
+      chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK] = value;
+      return this;
+    }
+
+    /*
+     * Shifts all subsequent elements within their chunks and moves the first element of each following chunk to the
+     * end of the preceding one.
+     */
+    @Override
+    void remove(int index) {
+      int last = size - 1;
+      int lastChunk = last >>> CHUNK_SHIFT;
+      int from = index & CHUNK_MASK;
+      for (int chunk = index >>> CHUNK_SHIFT; chunk < lastChunk; chunk++) {
+        System.arraycopy(chunks[chunk], from + 1, chunks[chunk], from, CHUNK_MASK - from);
+        chunks[chunk][CHUNK_MASK] = chunks[chunk + 1][0];
+        from = 0;
+      }
+      System.arraycopy(chunks[lastChunk], from + 1, chunks[lastChunk], from, (last & CHUNK_MASK) - from);
+      chunks[lastChunk][last & CHUNK_MASK] = null;
+      size--;
+      if ((size & CHUNK_MASK) == 0) {
+        chunks[lastChunk] = null;
+      }
+    }
+
+    @Override
+    ArrayStorage copy() {
+      JsonValue[][] copy = new JsonValue[chunks.length][];
+      for (int chunk = 0; chunk < chunks.length && chunks[chunk] != null; chunk++) {
+        copy[chunk] = chunks[chunk].clone();
+      }
+      return new ChunkedStorage(copy, size);
+    }
+
+    /* Splits at chunk boundaries so that each half reads whole chunks. */
+    @Override
+    int splitIndex(int from, int to) {
+      int index = ((from + to) >>> 1) & ~CHUNK_MASK;
+      return index > from ? index : super.splitIndex(from, to);
+    }
+
+    @Override
+    void trimToSize() {
+      int count = (size + CHUNK_MASK) >>> CHUNK_SHIFT;
+      if (chunks.length != count) {
+        chunks = Arrays.copyOf(chunks, count);
+      }
+    }
+
+    @Override
+    long estimatedRetainedSize() {
+      long retained = RetainedSize.instance(1, 4) + RetainedSize.referenceArray(chunks.length);
+      for (JsonValue[] chunk : chunks) {
+        if (chunk != null) {
+          retained += RetainedSize.referenceArray(chunk.length);
+        }
+      }
+      for (int i = 0; i < size; i++) {
+        retained += chunks[i >>> CHUNK_SHIFT][i & CHUNK_MASK].estimatedRetainedSize();
+      }
+      return retained;
+    }
+  }
+
+  /*
+   * Stores the elements of a persistent array.
+   * The storage is immutable, modified versions are created from the tree by the persistent array itself.
+   */
+  static final class TreeStorage extends ArrayStorage {
+
+    final PersistentTree tree;
+
+    TreeStorage(PersistentTree tree) {
+      this.tree = tree;
+    }
+
+    @Override
+    int size() {
+      return tree.size();
+    }
+
+    @Override
+    JsonValue get(int index) {
+      return (JsonValue)tree.get(index);
+    }
+
+    @Override
+    ArrayStorage add(JsonValue value) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    ArrayStorage set(int index, JsonValue value) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    void remove(int index) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    ArrayStorage copy() {
+      return toGeneric(size());
+    }
+
+    @Override
+    void trimToSize() {}
+
+    @Override
+    long estimatedRetainedSize() {
+      long retained = RetainedSize.instance(1, 0) + tree.estimatedRetainedSize();
+      for (Object element : tree) {
+        retained += ((JsonValue)element).estimatedRetainedSize();
+      }
+      return retained;
+    }
+
+    @Override
+    boolean isImmutable() {
+      return true;
+    }
+
+    @Override
+    int contentHashCode() {
+      int hashCode = 1;
+      for (Object element : tree) {
+        hashCode = 31 * hashCode + element.hashCode();
+      }
+      return hashCode;
+    }
+  }
+
+  /*
+   * Adapts a list of plain Java objects whose elements are converted when they are accessed.
+   * The storage is read-only, but reflects all changes of the list.
+   */
+  static final class ListStorage extends ArrayStorage {
+
+    private final List<?> list;
+
+    ListStorage(List<?> list) {
+      this.list = list;
+    }
+
+    @Override
+    int size() {
+      return list.size();
+    }
+
+    @Override
+    JsonValue get(int index) {
+      return JavaValues.toJson(list.get(index));
+    }
+
+    @Override
+    ArrayStorage add(JsonValue value) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    ArrayStorage set(int index, JsonValue value) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    void remove(int index) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    ArrayStorage copy() {
+      return toGeneric(size());
+    }
+
+    @Override
+    void trimToSize() {}
+
+    /* The list is not owned by the storage. */
+    @Override
+    long estimatedRetainedSize() {
+      return RetainedSize.instance(1, 0);
+    }
+
+    @Override
+    boolean isImmutable() {
+      return false;
+    }
+
+    @Override
+    boolean isOwned() {
+      return false;
+    }
+  }
+
+  /*
+   * Splits the elements of a storage by index ranges.
+   * The size of the storage is checked after traversing all elements, like the modification count of collections.
+   */
+  static final class ElementSpliterator implements Spliterator<JsonValue> {
+
+    private final ArrayStorage storage;
+    private final int expectedSize;
+    private int index;
+    private final int fence;
+
+    ElementSpliterator(ArrayStorage storage, int index, int fence) {
+      this.storage = storage;
+      this.expectedSize = storage.size();
+      this.index = index;
+      this.fence = fence;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super JsonValue> action) {
+      if (action == null) {
+        throw new NullPointerException("action is null");
+      }
+      if (index >= fence) {
+        return false;
+      }
+      action.accept(storage.get(index++));
+      checkSize();
+      return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super JsonValue> action) {
+      if (action == null) {
+        throw new NullPointerException("action is null");
+      }
+      ArrayStorage storage = this.storage;
+      int fence = this.fence;
+      for (int i = index; i < fence; i++) {
+        action.accept(storage.get(i));
+      }
+      index = fence;
+      checkSize();
+    }
+
+    @Override
+    public Spliterator<JsonValue> trySplit() {
+      int from = index;
+      int split = storage.splitIndex(from, fence);
+      if (split <= from || split >= fence) {
+        return null;
+      }
+      index = split;
+      return new ElementSpliterator(storage, from, split);
+    }
+
+    @Override
+    public long estimateSize() {
+      return fence - index;
+    }
+
+    @Override
+    public int characteristics() {
+      return ORDERED | SIZED | SUBSIZED | NONNULL;
+    }
+
+    private void checkSize() {
+      if (storage.size() != expectedSize) {
+        throw new ConcurrentModificationException();
+      }
+    }
+  }
+}
@@ -0,0 +1,297 @@
+/*
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+title      JSON Hash Trie                                  +
+project    icecore-json                                    +
+version    0.8.0-frost.1                                   +
+repository https://github.com/arcticicestudio/icecore-json +
+author     Arctic Ice Studio                               +
+email      development@arcticicestudio.com                 +
+copyright  Copyright (C) 2016                              +
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+*/
+package com.arcticicestudio.icecore.json;
+
+import java.io.Serializable;
+
+/**
+ * An immutable map from names to values that is stored as a hash array mapped trie.
+ * <p>
+ *   Each level of the trie uses five bits of the hash of a name to select one of up to 32 children, and only stores
+ *   the children that exist together with a bitmap of them.
+ *   All modifying methods return a new trie which shares all unchanged nodes with this trie, so looking up, putting
+ *   and removing a name only takes {@code O(log n)} time and space with a very flat trie.
+ * </p>
+ * <p>
+ *   Tries are never modified after their creation and can be used by multiple threads.
+ * </p>
+ *
+ * @author Arctic Ice Studio &lt;development@arcticicestudio.com&gt;
+ * @since 0.8.0
+ */
+final class HashTrie implements Serializable {
+
+  private static final int BITS = 5;
+  private static final int MASK = (1 << BITS) - 1;
+
+  /**
+   * The trie without names.
+   */
+  static final HashTrie EMPTY = new HashTrie(BitmapNode.EMPTY, 0);
+
+  private final Node root;
+  private final int size;
+
+  private HashTrie(Node root, int size) {
+    this.root = root;
+    this.size = size;
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * Returns the value of the given name.
+   *
+   * @param name the name to look up
+   * @return the value of the name, {@code null} if this trie does not contain the name
+   */
+  Object get(String name) {
+    return root.get(name, hash(name), 0);
+  }
+
+  /**
+   * Returns a trie which maps the given name to the given value.
+   *
+   * @param name the name
+   * @param value the value which must not be {@code null}
+   * @return the trie with the name mapped to the value
+   */
+  HashTrie put(String name, Object value) {
+    int hash = hash(name);
+    int size = root.get(name, hash, 0) == null ? this.size + 1 : this.size;
+    return new HashTrie(root.put(name, hash, value, 0), size);
+  }
+
+  /**
+   * Returns a trie without the given name.
+   *
+   * @param name the name to remove
+   * @return the trie without the name, this trie itself if it does not contain the name
+   */
+  HashTrie remove(String name) {
+    int hash = hash(name);
+    if (root.get(name, hash, 0) == null) {
+      return this;
+    }
+    Node root = this.root.remove(name, hash, 0);
+    return new HashTrie(root != null ? root : BitmapNode.EMPTY, size - 1);
+  }
+
+  /*
+   * Returns the estimated number of bytes retained by the nodes of this trie, excluding the names and values.
+   */
+  long estimatedRetainedSize() {
+    return size == 0 ? 0 : RetainedSize.instance(1, 4) + root.estimatedRetainedSize();
+  }
+
+  private static int hash(String name) {
+    int hash = name.hashCode();
+    return hash ^ hash >>> 16;
+  }
+
+  private static int bit(int hash, int shift) {
+    return 1 << (hash >>> shift & MASK);
+  }
+
+  private abstract static class Node implements Serializable {
+
+    abstract Object get(String name, int hash, int shift);
+
+    abstract Node put(String name, int hash, Object value, int shift);
+
+    /* Returns null if the node has no names left. */
+    abstract Node remove(String name, int hash, int shift);
+
+    abstract long estimatedRetainedSize();
+  }
+
+  /*
+   * Stores a name and its value or null and a child node for each bit that is set in the bitmap.
+   */
+  private static final class BitmapNode extends Node {
+
+    static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+    private final int bitmap;
+    private final Object[] entries;
+
+    BitmapNode(int bitmap, Object[] entries) {
+      this.bitmap = bitmap;
+      this.entries = entries;
+    }
+
+    @Override
+    Object get(String name, int hash, int shift) {
+      int bit = bit(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return null;
+      }
+      int index = index(bit);
+      Object key = entries[index];
+      if (key == null) {
+        return ((Node)entries[index + 1]).get(name, hash, shift + BITS);
+      }
+      return name.equals(key) ? entries[index + 1] : null;
+    }
+
+    @Override
+    Node put(String name, int hash, Object value, int shift) {
+      int bit = bit(hash, shift);
+      int index = index(bit);
+      if ((bitmap & bit) == 0) {
+        Object[] entries = new Object[this.entries.length + 2];
+        System.arraycopy(this.entries, 0, entries, 0, index);
+        entries[index] = name;
+        entries[index + 1] = value;
+        System.arraycopy(this.entries, index, entries, index + 2, this.entries.length - index);
+        return new BitmapNode(bitmap | bit, entries);
+      }
+      Object key = entries[index];
+      Object child;
+      if (key == null) {
+        child = ((Node)entries[index + 1]).put(name, hash, value, shift + BITS);
+      } else if (name.equals(key)) {
+        return replace(index, key, value);
+      } else {
+        child = createNode((String)key, entries[index + 1], name, hash, value, shift + BITS);
+      }
+      return replace(index, null, child);
+    }
+
+    @Override
+    Node remove(String name, int hash, int shift) {
+      int bit = bit(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return this;
+      }
+      int index = index(bit);
+      Object key = entries[index];
+      if (key == null) {
+        Node child = ((Node)entries[index + 1]).remove(name, hash, shift + BITS);
+        if (child != null) {
+          return replace(index, null, child);
+        }
+      } else if (!name.equals(key)) {
+        return this;
+      }
+      if (bitmap == bit) {
+        return null;
+      }
+      Object[] entries = new Object[this.entries.length - 2];
+      System.arraycopy(this.entries, 0, entries, 0, index);
+      System.arraycopy(this.entries, index + 2, entries, index, entries.length - index);
+      return new BitmapNode(bitmap & ~bit, entries);
+    }
+
+    @Override
+    long estimatedRetainedSize() {
+      long size = RetainedSize.instance(1, 4) + RetainedSize.referenceArray(entries.length);
+      for (int i = 0; i < entries.length; i += 2) {
+        if (entries[i] == null) {
+          size += ((Node)entries[i + 1]).estimatedRetainedSize();
+        }
+      }
+      return size;
+    }
+
+    private int index(int bit) {
+      return Integer.bitCount(bitmap & bit - 1) << 1;
+    }
+
+    private BitmapNode replace(int index, Object key, Object value) {
+      Object[] entries = this.entries.clone();
+      entries[index] = key;
+      entries[index + 1] = value;
+      return new BitmapNode(bitmap, entries);
+    }
+
+    private static Node createNode(String name1, Object value1, String name2, int hash2, Object value2, int shift) {
+      int hash1 = hash(name1);
+      if (hash1 == hash2) {
+        return new CollisionNode(hash1, new Object[] {name1, value1, name2, value2});
+      }
+      return EMPTY.put(name1, hash1, value1, shift).put(name2, hash2, value2, shift);
+    }
+  }
+
+  /*
+   * Stores the names and values of different names with the same hash.
+   */
+  private static final class CollisionNode extends Node {
+
+    private final int hash;
+    private final Object[] entries;
+
+    CollisionNode(int hash, Object[] entries) {
+      this.hash = hash;
+      this.entries = entries;
+    }
+
+    @Override
+    Object get(String name, int hash, int shift) {
+      int index = indexOf(name, hash);
+      return index != -1 ? entries[index + 1] : null;
+    }
+
+    @Override
+    Node put(String name, int hash, Object value, int shift) {
+      if (hash != this.hash) {
+        return new BitmapNode(bit(this.hash, shift), new Object[] {null, this}).put(name, hash, value, shift);
+      }
+      int index = indexOf(name, hash);
+      Object[] entries;
+      if (index != -1) {
+        entries = this.entries.clone();
+      } else {
+        index = this.entries.length;
+        entries = new Object[index + 2];
+        System.arraycopy(this.entries, 0, entries, 0, index);
+        entries[index] = name;
+      }
+      entries[index + 1] = value;
+      return new CollisionNode(hash, entries);
+    }
+
+    @Override
+    Node remove(String name, int hash, int shift) {
+      int index = indexOf(name, hash);
+      if (index == -1) {
+        return this;
+      }
+      if (entries.length == 2) {
+        return null;
+      }
+      Object[] entries = new Object[this.entries.length - 2];
+      System.arraycopy(this.entries, 0, entries, 0, index);
+      System.arraycopy(this.entries, index + 2, entries, index, entries.length - index);
+      return new CollisionNode(hash, entries);
+    }
+
+    @Override
+    long estimatedRetainedSize() {
+      return RetainedSize.instance(1, 4) + RetainedSize.referenceArray(entries.length);
+    }
+
+    private int indexOf(String name, int hash) {
+      if (hash == this.hash) {
+        for (int i = 0; i < entries.length; i += 2) {
+          if (name.equals(entries[i])) {
+            return i;
+          }
+        }
+      }
+      return -1;
+    }
+  }
+}
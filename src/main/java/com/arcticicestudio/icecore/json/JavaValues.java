@@ -0,0 +1,136 @@
+/*
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+title      Java Values                                     +
+project    icecore-json                                    +
+version    0.8.0-frost.1                                   +
+repository https://github.com/arcticicestudio/icecore-json +
+author     Arctic Ice Studio                               +
+email      development@arcticicestudio.com                 +
+copyright  Copyright (C) 2016                              +
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+*/
+package com.arcticicestudio.icecore.json;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts between JSON values and the plain Java objects of the {@link JsonObject#asMap() map} and
+ * {@link JsonArray#asList() list} views.
+ * <p>
+ *   Objects and arrays are never copied but adapted in both directions, so only leaf values are converted when they
+ *   are accessed.
+ * </p>
+ *
+ * @author Arctic Ice Studio &lt;development@arcticicestudio.com&gt;
+ * @see Json#wrap(Map)
+ * @see Json#wrap(List)
+ * @since 0.8.0
+ */
+final class JavaValues {
+
+  private JavaValues() {}
+
+  /**
+   * Returns the Java representation of the given value.
+   * <p>
+   *   Objects are represented by their map view, arrays by their list view, strings as {@link String}, booleans as
+   *   {@link Boolean} and {@code null} as {@code null}.
+   *   Numbers are represented as {@link Integer} or {@link Long} if they are integers that fit into these types,
+   *   as {@link Double} if converting them back yields the same text and as {@link BigInteger} or {@link BigDecimal}
+   *   otherwise, so that no precision is lost.
+   * </p>
+   *
+   * @param value the value to convert
+   * @return the Java representation of the value
+   */
+  static Object toJava(JsonValue value) {
+    switch (value.getType()) {
+      case OBJECT:
+        return value.asObject().asMap();
+      case ARRAY:
+        return value.asArray().asList();
+      case STRING:
+        return value.asString();
+      case NUMBER:
+        return number(value.toString());
+      case BOOLEAN:
+        return value.asBoolean();
+      default:
+        return null;
+    }
+  }
+
+  static Object number(String text) {
+    if (ArrayStorage.isIntegral(text)) {
+      long value = Long.parseLong(text);
+      return (int)value == value ? (Object)(int)value : (Object)value;
+    }
+    if (ArrayStorage.isCanonicalDouble(text)) {
+      return Double.parseDouble(text);
+    }
+    if (text.indexOf('.') == -1 && text.indexOf('e') == -1 && text.indexOf('E') == -1) {
+      return new BigInteger(text);
+    }
+    return new BigDecimal(text);
+  }
+
+  /**
+   * Returns the JSON value that represents the given Java object.
+   * <p>
+   *   Maps and lists are wrapped without copying them, unless they are views of JSON objects and arrays in which case
+   *   the viewed object or array is returned.
+   * </p>
+   *
+   * @param object the object to convert, may be {@code null}
+   * @return the JSON representation of the object
+   * @throws IllegalArgumentException if the object is of a type that has no JSON representation
+   */
+  static JsonValue toJson(Object object) {
+    if (object == null) {
+      return Json.NULL;
+    }
+    if (object instanceof JsonValue) {
+      return (JsonValue)object;
+    }
+    if (object instanceof String) {
+      return Json.value((String)object);
+    }
+    if (object instanceof Boolean) {
+      return Json.value(((Boolean)object).booleanValue());
+    }
+    if (object instanceof Integer || object instanceof Short || object instanceof Byte) {
+      return Json.value(((Number)object).intValue());
+    }
+    if (object instanceof Long) {
+      return Json.value(((Long)object).longValue());
+    }
+    if (object instanceof Float) {
+      return Json.value(((Float)object).floatValue());
+    }
+    if (object instanceof BigInteger || object instanceof BigDecimal) {
+      return new JsonNumber(object.toString());
+    }
+    if (object instanceof Number) {
+      return Json.value(((Number)object).doubleValue());
+    }
+    if (object instanceof Character) {
+      return Json.value(object.toString());
+    }
+    if (object instanceof JsonObject.MapView) {
+      return ((JsonObject.MapView)object).object();
+    }
+    if (object instanceof Map) {
+      return JsonObject.wrap((Map<?, ?>)object);
+    }
+    if (object instanceof JsonArray.ListView) {
+      return ((JsonArray.ListView)object).array();
+    }
+    if (object instanceof List) {
+      return JsonArray.wrap((List<?>)object);
+    }
+    throw new IllegalArgumentException("Unsupported value type: " + object.getClass().getName());
+  }
+}
@@ -13,6 +13,10 @@ package com.arcticicestudio.icecore.json;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.ToIntBiFunction;
 
 /**
  * This class serves as the entry point to the
@@ -70,6 +74,12 @@ public final class Json {
    */
   public static final String VERSION = "0.8.0-frost.1";
 
+  private static final ToIntBiFunction<Object, JsonValue> WEIGHER = new ToIntBiFunction<Object, JsonValue>() {
+    public int applyAsInt(Object key, JsonValue value) {
+      return (int)Math.min(value.estimatedRetainedSize(), Integer.MAX_VALUE);
+    }
+  };
+
   /**
    * Returns a {@link JsonValue} instance that represents the given {@code int} value.
    *
@@ -158,11 +168,10 @@ public final class Json {
     if (values == null) {
       throw new NullPointerException("values is null");
     }
-    JsonArray array = new JsonArray();
-    for (int value : values) {
-      array.add(value);
+    if (values.length == 0) {
+      return new JsonArray();
     }
-    return array;
+    return JsonArray.withStorage(new ArrayStorage.IntStorage(values.clone(), values.length));
   }
 
   /**
@@ -175,11 +184,10 @@ public final class Json {
     if (values == null) {
       throw new NullPointerException("values is null");
     }
-    JsonArray array = new JsonArray();
-    for (long value : values) {
-      array.add(value);
+    if (values.length == 0) {
+      return new JsonArray();
     }
-    return array;
+    return JsonArray.withStorage(new ArrayStorage.LongStorage(values.clone(), values.length));
   }
 
   /**
@@ -209,11 +217,15 @@ public final class Json {
     if (values == null) {
       throw new NullPointerException("values is null");
     }
-    JsonArray array = new JsonArray();
     for (double value : values) {
-      array.add(value);
+      if (Double.isInfinite(value) || Double.isNaN(value)) {
+        throw new IllegalArgumentException("Infinite and NaN values not permitted in JSON");
+      }
     }
-    return array;
+    if (values.length == 0) {
+      return new JsonArray();
+    }
+    return JsonArray.withStorage(new ArrayStorage.DoubleStorage(values.clone(), values.length));
   }
 
   /**
@@ -262,6 +274,64 @@ public final class Json {
     return new JsonObject();
   }
 
+  /**
+   * Returns a read-only {@link JsonObject} that adapts the given map without copying it.
+   * <p>
+   *   The members of the returned object are the entries of the map in its iteration order, so that changes of the
+   *   map are reflected.
+   *   The values are converted when they are accessed: {@code null} is represented as {@link #NULL},
+   *   {@link JsonValue}s as themselves, strings, characters, booleans and numbers by their JSON representations,
+   *   and nested maps and lists are wrapped in the same way.
+   *   Map and list views of JSON objects and arrays are represented by the viewed object or array.
+   *   Other types of values are not supported.
+   * </p>
+   * <p>
+   *   This allows to write existing maps, e.g. with {@link JsonValue#toString()}, without creating a copy of all
+   *   nested values first.
+   *   Methods that access members by their index take linear time, since they create a snapshot of the entries.
+   * </p>
+   *
+   * @param map the map to wrap, its keys must be strings
+   * @return a read-only JSON object backed by the given map
+   * @throws IllegalArgumentException when a member is accessed whose value has an unsupported type
+   * @since 0.8.0
+   */
+  public static JsonObject wrap(Map<String, ?> map) {
+    return JsonObject.wrap(map);
+  }
+
+  /**
+   * Returns a read-only {@link JsonArray} that adapts the given list without copying it.
+   * <p>
+   *   The elements of the returned array are the elements of the list, so that changes of the list are reflected.
+   *   The elements are converted when they are accessed in the same way as the values of {@link #wrap(Map)}.
+   * </p>
+   *
+   * @param list the list to wrap
+   * @return a read-only JSON array backed by the given list
+   * @throws IllegalArgumentException when an element is accessed that has an unsupported type
+   * @since 0.8.0
+   */
+  public static JsonArray wrap(List<?> list) {
+    return JsonArray.wrap(list);
+  }
+
+  /**
+   * Returns a function that weighs cached JSON values by their {@link JsonValue#estimatedRetainedSize() estimated
+   * retained size}.
+   * <p>
+   *   The function ignores the key and saturates at {@link Integer#MAX_VALUE}, it matches the weighers of common
+   *   cache libraries through a method reference, e.g. {@code .weigher(Json.weigher()::applyAsInt)}, so that a cache
+   *   can be bounded by bytes instead of by the number of entries.
+   * </p>
+   *
+   * @return a function that returns the estimated retained size of a value in bytes
+   * @since 0.8.0
+   */
+  public static ToIntBiFunction<Object, JsonValue> weigher() {
+    return WEIGHER;
+  }
+
   /**
    * Parses the given input string as JSON.
    * <p>
@@ -276,9 +346,7 @@ public final class Json {
     if (string == null) {
       throw new NullPointerException("string is null");
     }
-    DefaultHandler handler = new DefaultHandler();
-    new JsonParser(handler).parse(string);
-    return handler.getValue();
+    return new JsonParser().parseValue(string);
   }
 
   /**
@@ -301,9 +369,213 @@ public final class Json {
     if (reader == null) {
       throw new NullPointerException("reader is null");
     }
-    DefaultHandler handler = new DefaultHandler();
-    new JsonParser(handler).parse(reader);
-    return handler.getValue();
+    return new JsonParser().parseValue(reader, JsonParser.DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * Parses the given input string as JSON and aborts when the given cancellation check reports to do so.
+   * <p>
+   *   The input must contain a valid JSON value, optionally padded with whitespace.
+   *   The cancellation check is consulted cooperatively while parsing as described in
+   *   {@link JsonParser#setCancellation(BooleanSupplier)}.
+   *   Use {@link JsonParser#timeout(long, java.util.concurrent.TimeUnit)} to enforce a time budget.
+   * </p>
+   *
+   * @param string the input string, must be valid JSON
+   * @param cancellation the check that returns {@code true} if parsing should be aborted
+   * @return a value that represents the parsed JSON
+   * @throws ParseException if the input is not valid JSON
+   * @throws ParseCancelledException if parsing has been aborted by the cancellation check
+   * @since 0.8.0
+   */
+  public static JsonValue parse(String string, BooleanSupplier cancellation) {
+    if (string == null) {
+      throw new NullPointerException("string is null");
+    }
+    if (cancellation == null) {
+      throw new NullPointerException("cancellation is null");
+    }
+    JsonParser parser = new JsonParser();
+    parser.setCancellation(cancellation);
+    return parser.parseValue(string);
+  }
+
+  /**
+   * Reads the entire input from the given reader and parses it as JSON and aborts when the given cancellation check
+   * reports to do so.
+   * <p>
+   *   The input must contain a valid JSON value, optionally padded with whitespace.
+   *   The cancellation check is consulted cooperatively while parsing as described in
+   *   {@link JsonParser#setCancellation(BooleanSupplier)}.
+   *   Use {@link JsonParser#timeout(long, java.util.concurrent.TimeUnit)} to enforce a time budget.
+   * </p>
+   *
+   * @param reader the reader to read the JSON value from
+   * @param cancellation the check that returns {@code true} if parsing should be aborted
+   * @return a value that represents the parsed JSON
+   * @throws IOException if an I/O error occurs in the reader
+   * @throws ParseException if the input is not valid JSON
+   * @throws ParseCancelledException if parsing has been aborted by the cancellation check
+   * @since 0.8.0
+   */
+  public static JsonValue parse(Reader reader, BooleanSupplier cancellation) throws IOException {
+    if (reader == null) {
+      throw new NullPointerException("reader is null");
+    }
+    if (cancellation == null) {
+      throw new NullPointerException("cancellation is null");
+    }
+    JsonParser parser = new JsonParser();
+    parser.setCancellation(cancellation);
+    return parser.parseValue(reader, JsonParser.DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * Parses the given input string as JSON and reuses the cached values of repeated strings.
+   * <p>
+   *   The input must contain a valid JSON value, optionally padded with whitespace.
+   *   String values are looked up in the given cache before they are created as described for {@link StringCache},
+   *   which reduces both the allocations while parsing and the memory retained by the parsed values.
+   *   The cache can be shared between multiple calls and threads.
+   * </p>
+   *
+   * @param string the input string, must be valid JSON
+   * @param stringCache the cache to look up string values in
+   * @return a value that represents the parsed JSON
+   * @throws ParseException if the input is not valid JSON
+   * @since 0.8.0
+   */
+  public static JsonValue parse(String string, StringCache stringCache) {
+    if (string == null) {
+      throw new NullPointerException("string is null");
+    }
+    if (stringCache == null) {
+      throw new NullPointerException("stringCache is null");
+    }
+    JsonParser parser = new JsonParser();
+    parser.setStringCache(stringCache);
+    return parser.parseValue(string);
+  }
+
+  /**
+   * Reads the entire input from the given reader, parses it as JSON and reuses the cached values of repeated strings.
+   * <p>
+   *   String values are looked up in the given cache as described for {@link #parse(String, StringCache)}.
+   * </p>
+   *
+   * @param reader the reader to read the JSON value from
+   * @param stringCache the cache to look up string values in
+   * @return a value that represents the parsed JSON
+   * @throws IOException if an I/O error occurs in the reader
+   * @throws ParseException if the input is not valid JSON
+   * @since 0.8.0
+   */
+  public static JsonValue parse(Reader reader, StringCache stringCache) throws IOException {
+    if (reader == null) {
+      throw new NullPointerException("reader is null");
+    }
+    if (stringCache == null) {
+      throw new NullPointerException("stringCache is null");
+    }
+    JsonParser parser = new JsonParser();
+    parser.setStringCache(stringCache);
+    return parser.parseValue(reader, JsonParser.DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * Parses the given input string as JSON and shares a single instance between repeated values.
+   * <p>
+   *   Equal strings and numbers in the document are represented by the same instance.
+   *   Equal objects and arrays with up to 16 members or elements that only contain strings, numbers, literals and
+   *   other such objects and arrays are represented by the same instance as well.
+   *   These small subtrees are frozen (see {@link JsonValue#freeze()}) since a modification through one occurrence
+   *   would affect all others, larger objects and arrays are modifiable as usual.
+   * </p>
+   * <p>
+   *   This considerably reduces the memory of documents with many repeated values, like the addresses, tags and
+   *   enumeration values of a catalog.
+   *   The values are deduplicated through a table of a fixed size, so repetitions that are far apart in a large
+   *   document may still create separate instances.
+   * </p>
+   *
+   * @param string the input string, must be valid JSON
+   * @return a value that represents the parsed JSON
+   * @throws ParseException if the input is not valid JSON
+   * @since 0.8.0
+   */
+  public static JsonValue parseDeduplicated(String string) {
+    if (string == null) {
+      throw new NullPointerException("string is null");
+    }
+    JsonParser parser = new JsonParser();
+    parser.setDeduplicator(new ValueDeduplicator());
+    return parser.parseValue(string);
+  }
+
+  /**
+   * Reads the entire input from the given reader, parses it as JSON and shares a single instance between repeated
+   * values.
+   * <p>
+   *   The values are shared as described for {@link #parseDeduplicated(String)}.
+   * </p>
+   *
+   * @param reader the reader to read the JSON value from
+   * @return a value that represents the parsed JSON
+   * @throws IOException if an I/O error occurs in the reader
+   * @throws ParseException if the input is not valid JSON
+   * @since 0.8.0
+   */
+  public static JsonValue parseDeduplicated(Reader reader) throws IOException {
+    if (reader == null) {
+      throw new NullPointerException("reader is null");
+    }
+    JsonParser parser = new JsonParser();
+    parser.setDeduplicator(new ValueDeduplicator());
+    return parser.parseValue(reader, JsonParser.DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * Validates the given input string as JSON without creating any values.
+   * <p>
+   *   The input must contain a valid JSON value, optionally padded with whitespace.
+   *   This applies the same checks as {@link #parse(String)}, but skips strings and numbers instead of capturing them,
+   *   which makes it considerably faster when the input only needs to be checked for well-formedness.
+   * </p>
+   *
+   * @param string the input string to validate
+   * @throws ParseException if the input is not valid JSON
+   * @since 0.8.0
+   */
+  public static void validate(String string) {
+    if (string == null) {
+      throw new NullPointerException("string is null");
+    }
+    new JsonParser().validate(string);
+  }
+
+  /**
+   * Reads the entire input from the given reader and validates it as JSON without creating any values.
+   * <p>
+   *   The input must contain a valid JSON value, optionally padded with whitespace.
+   *   This applies the same checks as {@link #parse(Reader)}, but skips strings and numbers instead of capturing them,
+   *   which makes it considerably faster when the input only needs to be checked for well-formedness.
+   * </p>
+   * <p>
+   *   Characters are read in chunks into an input buffer.
+   *   Hence, wrapping a reader in an additional {@link java.io.BufferedReader} likely won't improve reading
+   *   performance.
+   * </p>
+   *
+   * @param reader the reader to read the JSON input from
+   * @throws IOException if an I/O error occurs in the reader
+   * @throws ParseException if the input is not valid JSON
+   * @since 0.8.0
+   */
+  public static void validate(Reader reader) throws IOException {
+    if (reader == null) {
+      throw new NullPointerException("reader is null");
+    }
+    new JsonParser().validate(reader, JsonParser.DEFAULT_BUFFER_SIZE);
   }
 
   /**
@@ -312,7 +584,7 @@ public final class Json {
    * @param string the string which contains the section that is to be cut
    * @return the cut off string
    */
-  private static String cutOffPointZero(String string) {
+  static String cutOffPointZero(String string) {
     if (string.endsWith(".0")) {
       return string.substring(0, string.length() - 2);
     }
@@ -357,11 +629,13 @@ public final class Json {
 
     @Override
     public void endArray(JsonArray array) {
+      array.trimToSize();
       value = array;
     }
 
     @Override
     public void endObject(JsonObject object) {
+      object.trimToSize();
       value = object;
     }
 
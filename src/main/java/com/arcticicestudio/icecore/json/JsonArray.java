@@ -12,10 +12,16 @@ copyright  Copyright (C) 2016                              +
 package com.arcticicestudio.icecore.json;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Represents a JSON array, an ordered collection of JSON values.
@@ -37,6 +43,19 @@ import java.util.List;
  *   An equivalent {@link List} can be obtained from the method {@link #values()}.
  * </p>
  * <p>
+ *   Arrays that only contain numbers, like those created by {@link Json#array(int...)} or parsed from a document,
+ *   store their elements as primitive values.
+ *   The methods {@link #getInt(int)}, {@link #getLong(int)}, {@link #getDouble(int)} and the {@code to...Array()}
+ *   methods access them without creating a {@link JsonValue} for each element.
+ *   Adding any other kind of value transparently switches the array to the storage of arbitrary values.
+ * </p>
+ * <p>
+ *   Persistent arrays created by {@link #persistentArray(JsonArray)} are immutable.
+ *   Their {@link #with(int, JsonValue)}, {@link #withAdded(JsonValue)} and {@link #without(int)} methods return new
+ *   versions which share most of their structure with the original array.
+ *   Frozen arrays created by {@link #freeze()} are immutable as well and optimized for reading.
+ * </p>
+ * <p>
  *   Note that this class is <strong>not thread-safe!</strong><br>
  * </p>
  * <p>
@@ -53,13 +72,25 @@ import java.util.List;
  */
 public class JsonArray extends JsonValue implements Iterable<JsonValue> {
 
-  private final List<JsonValue> values;
+  private ArrayStorage storage;
+  /*
+   * The cached hash code, 0 if it is unknown.
+   * It is reset by all modifications, but since this array is not notified of modifications of nested objects and
+   * arrays, it is only valid while all of them still have the hash codes in nestedHashCodes.
+   */
+  private transient int hash;
+  /*
+   * Pairs of the index and hash code of each mutable element the cached hash code was computed with, null if there
+   * are none.
+   */
+  private transient int[] nestedHashCodes;
 
   /**
    * Creates a new empty JsonArray.
    */
   public JsonArray() {
-    values = new ArrayList<JsonValue>();
+    super(JsonType.ARRAY);
+    storage = ArrayStorage.EMPTY;
   }
 
   /**
@@ -68,25 +99,30 @@ public class JsonArray extends JsonValue implements Iterable<JsonValue> {
    * @param array the JsonArray to get the initial contents from which <strong>MUST NOT</strong> be {@code null}.
    */
   public JsonArray(JsonArray array) {
-    this(array, false);
-  }
-
-  /**
-   * Initializes the contents of the specified JSON array with a modifiability state based on the boolean value of the
-   * {@code unmodifiable} parameter.
-   *
-   * @param array the JsonArray to get the initial contents from which <strong>MUST NOT</strong> be {@code null}.
-   * @param unmodifiable the state of the modifiability
-   */
-  private JsonArray(JsonArray array, boolean unmodifiable) {
+    super(JsonType.ARRAY);
     if (array == null) {
       throw new NullPointerException("array is null");
     }
-    if (unmodifiable) {
-      values = Collections.unmodifiableList(array.values);
-    } else {
-      values = new ArrayList<JsonValue>(array.values);
+    storage = array.storage().copy();
+  }
+
+  /*
+   * Creates a JsonArray that takes ownership of the given storage.
+   */
+  static JsonArray withStorage(ArrayStorage storage) {
+    JsonArray array = new JsonArray();
+    array.storage = storage;
+    return array;
+  }
+
+  /*
+   * Creates a read-only JsonArray whose elements are the converted elements of the given list.
+   */
+  static JsonArray wrap(List<?> list) {
+    if (list == null) {
+      throw new NullPointerException("list is null");
     }
+    return withStorage(new ArrayStorage.ListStorage(list));
   }
 
   /**
@@ -103,7 +139,46 @@ public class JsonArray extends JsonValue implements Iterable<JsonValue> {
    * @return an unmodifiable view of the specified JsonArray
    */
   public static JsonArray unmodifiableArray(JsonArray array) {
-    return new JsonArray(array, true);
+    if (array == null) {
+      throw new NullPointerException("array is null");
+    }
+    return new UnmodifiableArray(array);
+  }
+
+  /**
+   * Returns a persistent JsonArray with the elements of the specified one.
+   * <p>
+   *   The returned JsonArray is immutable and does not reflect changes of the given array.
+   *   Attempts to modify it result in an {@link UnsupportedOperationException}.
+   *   Nested objects and arrays are converted into persistent ones as well, hence the returned array can be shared
+   *   between threads without any synchronization.
+   * </p>
+   * <p>
+   *   Modified versions are created by the methods {@link #with(int, JsonValue)}, {@link #withAdded(JsonValue)} and
+   *   {@link #without(int)}.
+   *   They share all unchanged parts with the original array and only take {@code O(log n)} time, while the same
+   *   methods of a modifiable array copy all elements.
+   *   Accessing an element by its index also takes {@code O(log n)} time.
+   * </p>
+   *
+   * @param array the JsonArray for which a persistent JsonArray is to be returned
+   * @return a persistent JsonArray with the elements of the specified array, the array itself if it is persistent
+   *         already
+   * @since 0.8.0
+   */
+  public static JsonArray persistentArray(JsonArray array) {
+    if (array == null) {
+      throw new NullPointerException("array is null");
+    }
+    if (array instanceof PersistentArray) {
+      return array;
+    }
+    ArrayStorage storage = array.storage();
+    PersistentTree elements = PersistentTree.EMPTY;
+    for (int i = 0; i < storage.size(); i++) {
+      elements = elements.add(0, storage.get(i).toPersistent());
+    }
+    return new PersistentArray(new ArrayStorage.TreeStorage(elements));
   }
 
   /**
@@ -113,7 +188,8 @@ public class JsonArray extends JsonValue implements Iterable<JsonValue> {
    * @return the array itself, to enable method chaining
    */
   public JsonArray add(int value) {
-    values.add(Json.value(value));
+    storage = storage.addInt(value);
+    hash = 0;
     return this;
   }
 
@@ -124,7 +200,8 @@ public class JsonArray extends JsonValue implements Iterable<JsonValue> {
    * @return the array itself, to enable method chaining
    */
   public JsonArray add(long value) {
-    values.add(Json.value(value));
+    storage = storage.addLong(value);
+    hash = 0;
     return this;
   }
 
@@ -135,7 +212,7 @@ public class JsonArray extends JsonValue implements Iterable<JsonValue> {
    * @return the array itself, to enable method chaining
    */
   public JsonArray add(float value) {
-    values.add(Json.value(value));
+    add(Json.value(value));
     return this;
   }
 
@@ -146,7 +223,8 @@ public class JsonArray extends JsonValue implements Iterable<JsonValue> {
    * @return the array itself, to enable method chaining
    */
   public JsonArray add(double value) {
-    values.add(Json.value(value));
+    storage = storage.addDouble(value);
+    hash = 0;
     return this;
   }
 
@@ -157,7 +235,7 @@ public class JsonArray extends JsonValue implements Iterable<JsonValue> {
    * @return the array itself, to enable method chaining
    */
   public JsonArray add(boolean value) {
-    values.add(Json.value(value));
+    add(Json.value(value));
     return this;
   }
 
@@ -168,7 +246,7 @@ public class JsonArray extends JsonValue implements Iterable<JsonValue> {
    * @return the array itself, to enable method chaining
    */
   public JsonArray add(String value) {
-    values.add(Json.value(value));
+    add(Json.value(value));
     return this;
   }
 
@@ -182,7 +260,8 @@ public class JsonArray extends JsonValue implements Iterable<JsonValue> {
     if (value == null) {
       throw new NullPointerException("value is null");
     }
-    values.add(value);
+    storage = storage.add(value);
+    hash = 0;
     return this;
   }
 
@@ -196,7 +275,7 @@ public class JsonArray extends JsonValue implements Iterable<JsonValue> {
    * @throws IndexOutOfBoundsException if the index is out of range ({@code index &lt; 0} or {@code index &gt;= size})
    */
   public JsonArray set(int index, int value) {
-    values.set(index, Json.value(value));
+    set(index, Json.value(value));
     return this;
   }
 
@@ -210,7 +289,7 @@ public class JsonArray extends JsonValue implements Iterable<JsonValue> {
    * @throws IndexOutOfBoundsException if the index is out of range ({@code index &lt; 0} or {@code index &gt;= size})
    */
   public JsonArray set(int index, long value) {
-    values.set(index, Json.value(value));
+    set(index, Json.value(value));
     return this;
   }
 
@@ -224,7 +303,7 @@ public class JsonArray extends JsonValue implements Iterable<JsonValue> {
    * @throws IndexOutOfBoundsException if the index is out of range ({@code index &lt; 0} or {@code index &gt;= size})
    */
   public JsonArray set(int index, float value) {
-    values.set(index, Json.value(value));
+    set(index, Json.value(value));
     return this;
   }
 
@@ -238,7 +317,7 @@ public class JsonArray extends JsonValue implements Iterable<JsonValue> {
    * @throws IndexOutOfBoundsException if the index is out of range ({@code index &lt; 0} or {@code index &gt;= size})
    */
   public JsonArray set(int index, double value) {
-    values.set(index, Json.value(value));
+    set(index, Json.value(value));
     return this;
   }
 
@@ -252,7 +331,7 @@ public class JsonArray extends JsonValue implements Iterable<JsonValue> {
    * @throws IndexOutOfBoundsException if the index is out of range ({@code index &lt; 0} or {@code index &gt;= size})
    */
   public JsonArray set(int index, boolean value) {
-    values.set(index, Json.value(value));
+    set(index, Json.value(value));
     return this;
   }
 
@@ -265,7 +344,7 @@ public class JsonArray extends JsonValue implements Iterable<JsonValue> {
    * @throws IndexOutOfBoundsException if the index is out of range ({@code index &lt; 0} or {@code index &gt;= size})
    */
   public JsonArray set(int index, String value) {
-    values.set(index, Json.value(value));
+    set(index, Json.value(value));
     return this;
   }
 
@@ -281,7 +360,9 @@ public class JsonArray extends JsonValue implements Iterable<JsonValue> {
     if (value == null) {
       throw new NullPointerException("value is null");
     }
-    values.set(index, value);
+    checkIndex(index);
+    storage = storage.set(index, value);
+    hash = 0;
     return this;
   }
 
@@ -293,17 +374,75 @@ public class JsonArray extends JsonValue implements Iterable<JsonValue> {
    * @throws IndexOutOfBoundsException if the index is out of range ({@code index &lt; 0} or {@code index &gt;= size})
    */
   public JsonArray remove(int index) {
-    values.remove(index);
+    checkIndex(index);
+    storage.remove(index);
+    hash = 0;
     return this;
   }
 
+  /**
+   * Returns a new array with the elements of this array and the specified value at the specified position.
+   * <p>
+   *   This array itself is not modified.
+   *   A persistent array returns another persistent array in {@code O(log n)} time, the given value is converted
+   *   into a persistent one if necessary.
+   *   Any other array returns a modifiable copy.
+   * </p>
+   *
+   * @param index the index of the array element to replace
+   * @param value the value to be stored at the specified array position, must not be {@code null}
+   * @return a new array with the replaced element
+   * @throws IndexOutOfBoundsException if the index is out of range ({@code index &lt; 0} or {@code index &gt;= size})
+   * @see #persistentArray(JsonArray)
+   * @since 0.8.0
+   */
+  public JsonArray with(int index, JsonValue value) {
+    return new JsonArray(this).set(index, value);
+  }
+
+  /**
+   * Returns a new array with the elements of this array and the specified value appended to the end.
+   * <p>
+   *   This array itself is not modified.
+   *   A persistent array returns another persistent array in {@code O(log n)} time, the given value is converted
+   *   into a persistent one if necessary.
+   *   Any other array returns a modifiable copy.
+   * </p>
+   *
+   * @param value the value to append, must not be {@code null}
+   * @return a new array with the appended element
+   * @see #persistentArray(JsonArray)
+   * @since 0.8.0
+   */
+  public JsonArray withAdded(JsonValue value) {
+    return new JsonArray(this).add(value);
+  }
+
+  /**
+   * Returns a new array with the elements of this array except the one at the specified position.
+   * <p>
+   *   This array itself is not modified.
+   *   A persistent array returns another persistent array in {@code O(log n)} time, any other array returns a
+   *   modifiable copy.
+   * </p>
+   *
+   * @param index the index of the element to remove
+   * @return a new array without the element
+   * @throws IndexOutOfBoundsException if the index is out of range ({@code index &lt; 0} or {@code index &gt;= size})
+   * @see #persistentArray(JsonArray)
+   * @since 0.8.0
+   */
+  public JsonArray without(int index) {
+    return new JsonArray(this).remove(index);
+  }
+
   /**
    * Returns the number of elements in this array.
    *
    * @return the number of elements in this array
    */
   public int size() {
-    return values.size();
+    return storage().size();
   }
 
   /**
@@ -312,18 +451,125 @@ public class JsonArray extends JsonValue implements Iterable<JsonValue> {
    * @return {@code true} if this array contains no elements
    */
   public boolean isEmpty() {
-    return values.isEmpty();
+    return storage().size() == 0;
   }
 
   /**
    * Returns the value of the element at the specified position in this array.
+   * <p>
+   *   Arrays that only contain numbers, like parsed arrays of numbers or those created by
+   *   {@link Json#array(int...)}, store them as primitives.
+   *   For such arrays this method creates a new {@link JsonValue} for each call, so the returned values of two calls
+   *   are equal, but not the same instance.
+   *   Use {@link #getInt(int)}, {@link #getLong(int)} or {@link #getDouble(int)} to read numbers without creating
+   *   any values.
+   * </p>
    *
    * @param index the index of the array element to return
    * @return the value of the element at the specified position
    * @throws IndexOutOfBoundsException if the index is out of range ({@code index &lt; 0} or {@code index &gt;= size})
    */
   public JsonValue get(int index) {
-    return values.get(index);
+    ArrayStorage storage = storage();
+    checkIndex(index, storage);
+    return storage.get(index);
+  }
+
+  /**
+   * Returns the {@code int} value of the element at the specified position in this array.
+   * <p>
+   *   For arrays of numbers this does not create a {@link JsonValue} for the element.
+   *   If the element does not represent a JSON number or if it cannot be interpreted as Java {@code int}, an exception
+   *   is thrown.
+   * </p>
+   *
+   * @param index the index of the array element to return
+   * @return the {@code int} value of the element at the specified position
+   * @throws IndexOutOfBoundsException if the index is out of range ({@code index &lt; 0} or {@code index &gt;= size})
+   * @since 0.8.0
+   */
+  public int getInt(int index) {
+    ArrayStorage storage = storage();
+    checkIndex(index, storage);
+    return storage.getInt(index);
+  }
+
+  /**
+   * Returns the {@code long} value of the element at the specified position in this array.
+   * <p>
+   *   For arrays of numbers this does not create a {@link JsonValue} for the element.
+   *   If the element does not represent a JSON number or if it cannot be interpreted as Java {@code long}, an
+   *   exception is thrown.
+   * </p>
+   *
+   * @param index the index of the array element to return
+   * @return the {@code long} value of the element at the specified position
+   * @throws IndexOutOfBoundsException if the index is out of range ({@code index &lt; 0} or {@code index &gt;= size})
+   * @since 0.8.0
+   */
+  public long getLong(int index) {
+    ArrayStorage storage = storage();
+    checkIndex(index, storage);
+    return storage.getLong(index);
+  }
+
+  /**
+   * Returns the {@code double} value of the element at the specified position in this array.
+   * <p>
+   *   For arrays of numbers this does not create a {@link JsonValue} for the element.
+   *   If the element does not represent a JSON number, an exception is thrown.
+   * </p>
+   *
+   * @param index the index of the array element to return
+   * @return the {@code double} value of the element at the specified position
+   * @throws IndexOutOfBoundsException if the index is out of range ({@code index &lt; 0} or {@code index &gt;= size})
+   * @since 0.8.0
+   */
+  public double getDouble(int index) {
+    ArrayStorage storage = storage();
+    checkIndex(index, storage);
+    return storage.getDouble(index);
+  }
+
+  /**
+   * Returns the {@code int} values of all elements of this array.
+   * <p>
+   *   If any element does not represent a JSON number or if it cannot be interpreted as Java {@code int}, an exception
+   *   is thrown.
+   * </p>
+   *
+   * @return a new array with the {@code int} values of all elements
+   * @since 0.8.0
+   */
+  public int[] toIntArray() {
+    return storage().toIntArray();
+  }
+
+  /**
+   * Returns the {@code long} values of all elements of this array.
+   * <p>
+   *   If any element does not represent a JSON number or if it cannot be interpreted as Java {@code long}, an
+   *   exception is thrown.
+   * </p>
+   *
+   * @return a new array with the {@code long} values of all elements
+   * @since 0.8.0
+   */
+  public long[] toLongArray() {
+    return storage().toLongArray();
+  }
+
+  /**
+   * Returns the {@code double} values of all elements of this array.
+   * <p>
+   *   If any element does not represent a JSON number, an exception is thrown.
+   * </p>
+   *
+   * @return a new array with the {@code double} values of all elements
+   * @since 0.8.0
+   */
+  public double[] toDoubleArray() {
+    return storage().toDoubleArray();
   }
 
   /**
@@ -337,7 +583,30 @@ public class JsonArray extends JsonValue implements Iterable<JsonValue> {
    * @return a list of the values in this array
    */
   public List<JsonValue> values() {
-    return Collections.unmodifiableList(values);
+    return new Values();
+  }
+
+  /**
+   * Returns a list view of this array whose elements are plain Java objects.
+   * <p>
+   *   The returned list is backed by this array, so changes to either of them are reflected in the other one.
+   *   The elements are converted when they are accessed: objects are represented by their {@link JsonObject#asMap()
+   *   map view}, arrays by their list view, strings as {@link String}, booleans as {@link Boolean}, {@code null} as
+   *   {@code null} and numbers as {@link Integer}, {@link Long}, {@link Double}, {@link java.math.BigInteger} or
+   *   {@link java.math.BigDecimal}, whichever is the first to represent the number exactly.
+   *   The numbers of arrays that store primitive numbers are boxed without creating a {@link JsonValue}.
+   * </p>
+   * <p>
+   *   Elements can be replaced, removed and appended to the end of the list, but not inserted at other positions.
+   *   Added elements are converted in the same way as by {@link Json#wrap(List)}, so maps and lists are wrapped
+   *   instead of copied.
+   * </p>
+   *
+   * @return a list view of this array
+   * @since 0.8.0
+   */
+  public List<Object> asList() {
+    return new ListView();
   }
 
   /**
@@ -345,19 +614,36 @@ public class JsonArray extends JsonValue implements Iterable<JsonValue> {
    * <p>
    *   <strong>The returned iterator cannot be used to modify this array!</strong>
    * </p>
+   * <p>
+   *   Like {@link #get(int)}, the iterator creates a new {@link JsonValue} for each element of an array that stores
+   *   its numbers as primitives.
+   *   Numbers can be read without creating values by indexing with {@link #getInt(int)}, {@link #getLong(int)} or
+   *   {@link #getDouble(int)}, or all at once with {@link #toIntArray()}, {@link #toLongArray()} or
+   *   {@link #toDoubleArray()}.
+   * </p>
    *
    * @return an iterator over the values of this array
    */
   public Iterator<JsonValue> iterator() {
-    final Iterator<JsonValue> iterator = values.iterator();
     return new Iterator<JsonValue>() {
 
+      /* Any change of the size or a switch of the storage is considered a concurrent modification. */
+      private final ArrayStorage expectedStorage = storage();
+      private final int expectedSize = expectedStorage.size();
+      private int index;
+
       public boolean hasNext() {
-        return iterator.hasNext();
+        return index < expectedSize;
       }
 
       public JsonValue next() {
-        return iterator.next();
+        if (storage() != expectedStorage || expectedStorage.size() != expectedSize) {
+          throw new ConcurrentModificationException();
+        }
+        if (index >= expectedSize) {
+          throw new NoSuchElementException();
+        }
+        return expectedStorage.get(index++);
       }
 
       public void remove() {
@@ -366,6 +652,52 @@ public class JsonArray extends JsonValue implements Iterable<JsonValue> {
     };
   }
 
+  /**
+   * Returns a spliterator over the values of this array in document order.
+   * <p>
+   *   The spliterator is {@link Spliterator#SIZED sized}, {@link Spliterator#ORDERED ordered} and splits into halves
+   *   by index ranges, which are again {@link Spliterator#SUBSIZED sized}, so that parallel streams distribute the
+   *   values evenly.
+   *   Large arrays are split at the boundaries of their internal chunks.
+   * </p>
+   * <p>
+   *   <strong>The array must not be modified while the spliterator is used!</strong>
+   *   A changed size is detected after the traversal and reported by a
+   *   {@link java.util.ConcurrentModificationException}.
+   * </p>
+   *
+   * @return a spliterator over the values of this array
+   * @since 0.8.0
+   */
+  @Override
+  public Spliterator<JsonValue> spliterator() {
+    return storage().spliterator();
+  }
+
+  /**
+   * Returns a sequential stream of the values of this array in document order.
+   *
+   * @return a stream of the values of this array
+   * @see #spliterator()
+   * @since 0.8.0
+   */
+  public Stream<JsonValue> stream() {
+    return StreamSupport.stream(spliterator(), false);
+  }
+
+  /**
+   * Returns a parallel stream of the values of this array.
+   * <p>
+   *   The values are split by index ranges as described for {@link #spliterator()}.
+   * </p>
+   *
+   * @return a possibly parallel stream of the values of this array
+   * @since 0.8.0
+   */
+  public Stream<JsonValue> parallelStream() {
+    return StreamSupport.stream(spliterator(), true);
+  }
+
   /**
    * {@inheritDoc}
    *
@@ -373,16 +705,7 @@ public class JsonArray extends JsonValue implements Iterable<JsonValue> {
    */
   @Override
   void write(JsonWriter writer) throws IOException {
-    writer.writeArrayOpen();
-    Iterator<JsonValue> iterator = iterator();
-    if (iterator.hasNext()) {
-      iterator.next().write(writer);
-      while (iterator.hasNext()) {
-        writer.writeArraySeparator();
-        iterator.next().write(writer);
-      }
-    }
-    writer.writeArrayClose();
+    writer.writeTree(this);
   }
 
   @Override
@@ -395,9 +718,127 @@ public class JsonArray extends JsonValue implements Iterable<JsonValue> {
     return this;
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * @since 0.8.0
+   */
+  @Override
+  public JsonArray freeze() {
+    return new FrozenArray(this);
+  }
+
+  @Override
+  JsonValue toPersistent() {
+    return persistentArray(this);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @since 0.8.0
+   */
+  @Override
+  public long estimatedRetainedSize() {
+    long size = RetainedSize.instance(2, 4) + storage().estimatedRetainedSize();
+    int[] nested = nestedHashCodes;
+    return nested != null ? size + RetainedSize.intArray(nested.length) : size;
+  }
+
+  /**
+   * Returns the hash code of this array.
+   * <p>
+   *   The hash code is cached until this array is modified. Since nested objects and arrays do not notify this array
+   *   of their modifications, the cache also holds their hash codes, which they cache the same way, and is only used
+   *   while all of them are unchanged. Hence repeated calls only visit the nested objects and arrays of the tree, not
+   *   all of its values. Arrays that adapt a list of plain Java objects reflect its changes and are never cached.
+   * </p>
+   *
+   * @return the hash code of this array
+   * @since 0.8.0
+   */
   @Override
   public int hashCode() {
-    return values.hashCode();
+    int hash = this.hash;
+    int[] nested = nestedHashCodes;
+    int[] current = null;
+    if (hash != 0) {
+      if (nested == null) {
+        return hash;
+      }
+      current = currentHashCodes(nested);
+      if (current == nested) {
+        return hash;
+      }
+    }
+    ArrayStorage storage = storage();
+    if (current == null) {
+      if (storage.isImmutable()) {
+        int result = storage.contentHashCode();
+        nestedHashCodes = null;
+        this.hash = result;
+        return result;
+      }
+      if (!storage.isOwned()) {
+        return storage.contentHashCode();
+      }
+    }
+    /* Same as the hash code of a list with the same elements. */
+    int result = 1;
+    int[] codes = current;
+    int count = 0;
+    for (int i = 0; i < storage.size(); i++) {
+      JsonValue element = storage.get(i);
+      int elementHash;
+      if (element.isImmutable()) {
+        elementHash = element.hashCode();
+      } else {
+        /* Unless this array was modified, the current hash codes of the mutable elements are already known. */
+        elementHash = current != null ? current[count + 1] : element.hashCode();
+        if (codes == null) {
+          codes = new int[2];
+        } else if (count == codes.length) {
+          codes = Arrays.copyOf(codes, count * 2);
+        }
+        codes[count] = i;
+        codes[count + 1] = elementHash;
+        count += 2;
+      }
+      result = 31 * result + elementHash;
+    }
+    nestedHashCodes = codes == null || count == codes.length ? codes : Arrays.copyOf(codes, count);
+    this.hash = result;
+    return result;
+  }
+
+  /*
+   * Returns the given pairs with the current hash codes of the mutable elements, the given array itself if none of
+   * them has changed.
+   */
+  private int[] currentHashCodes(int[] nested) {
+    ArrayStorage storage = storage();
+    int[] current = nested;
+    for (int i = 0; i < nested.length; i += 2) {
+      int elementHash = storage.get(nested[i]).hashCode();
+      if (elementHash != nested[i + 1]) {
+        if (current == nested) {
+          current = nested.clone();
+        }
+        current[i + 1] = elementHash;
+      }
+    }
+    return current;
+  }
+
+  @Override
+  boolean isImmutable() {
+    return false;
+  }
+
+  /* The hash code is only known without computing it if there are no mutable elements that could have changed it. */
+  @Override
+  int cachedHashCode() {
+    return nestedHashCodes == null ? hash : 0;
   }
 
   /**
@@ -414,16 +855,343 @@ public class JsonArray extends JsonValue implements Iterable<JsonValue> {
    */
   @Override
   public boolean equals(Object object) {
+    if (object instanceof UnmodifiableArray) {
+      object = ((UnmodifiableArray)object).array;
+    }
     if (this == object) {
       return true;
     }
     if (object == null) {
       return false;
     }
-    if (getClass() != object.getClass()) {
+    if (classOf(this) != classOf(object)) {
       return false;
     }
     JsonArray other = (JsonArray)object;
-    return values.equals(other.values);
+    int hash = cachedHashCode();
+    int otherHash = other.cachedHashCode();
+    if (hash != 0 && otherHash != 0 && hash != otherHash) {
+      return false;
+    }
+    return storage().contentEquals(other.storage());
+  }
+
+  /*
+   * Shrinks the storage to the exact number of elements.
+   * Used by builders that have finished adding elements, like the parser.
+   */
+  void trimToSize() {
+    storage.trimToSize();
+  }
+
+  /*
+   * Returns the storage of the elements which is the one of the backing array for unmodifiable views.
+   */
+  ArrayStorage storage() {
+    return storage;
+  }
+
+  private void checkIndex(int index) {
+    checkIndex(index, storage);
+  }
+
+  private static void checkIndex(int index, ArrayStorage storage) {
+    if (index < 0 || index >= storage.size()) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + storage.size());
+    }
+  }
+
+  /* Persistent and frozen arrays can be equal to modifiable ones. */
+  private static Class<?> classOf(Object object) {
+    return object instanceof PersistentArray || object instanceof FrozenArray ? JsonArray.class : object.getClass();
+  }
+
+  /* A live view of the values of this array. */
+  private final class Values extends AbstractList<JsonValue> implements RandomAccess {
+
+    @Override
+    public JsonValue get(int index) {
+      return JsonArray.this.get(index);
+    }
+
+    @Override
+    public int size() {
+      return JsonArray.this.size();
+    }
+  }
+
+  /* A live view of this array with the elements converted to plain Java objects. */
+  final class ListView extends AbstractList<Object> implements RandomAccess {
+
+    @Override
+    public Object get(int index) {
+      ArrayStorage storage = storage();
+      checkIndex(index, storage);
+      return storage.toJava(index);
+    }
+
+    @Override
+    public int size() {
+      return JsonArray.this.size();
+    }
+
+    @Override
+    public Object set(int index, Object element) {
+      Object previous = get(index);
+      JsonArray.this.set(index, JavaValues.toJson(element));
+      return previous;
+    }
+
+    @Override
+    public void add(int index, Object element) {
+      if (index != size()) {
+        throw new UnsupportedOperationException("Elements can only be added to the end");
+      }
+      JsonArray.this.add(JavaValues.toJson(element));
+      modCount++;
+    }
+
+    @Override
+    public Object remove(int index) {
+      Object previous = get(index);
+      JsonArray.this.remove(index);
+      modCount++;
+      return previous;
+    }
+
+    JsonArray array() {
+      return JsonArray.this;
+    }
+  }
+
+  /*
+   * A read-only view of another JSON array.
+   * All reading methods use the storage of the backing array so that its changes are reflected, all modifying
+   * methods throw an UnsupportedOperationException.
+   */
+  private static final class UnmodifiableArray extends JsonArray {
+
+    private final JsonArray array;
+
+    UnmodifiableArray(JsonArray array) {
+      this.array = array instanceof UnmodifiableArray ? ((UnmodifiableArray)array).array : array;
+    }
+
+    @Override
+    public JsonArray add(int value) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonArray add(long value) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonArray add(double value) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonArray add(JsonValue value) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonArray set(int index, JsonValue value) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonArray remove(int index) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    ArrayStorage storage() {
+      return array.storage();
+    }
+
+    @Override
+    public long estimatedRetainedSize() {
+      return RetainedSize.instance(3, 4) + array.estimatedRetainedSize();
+    }
+
+    @Override
+    public int hashCode() {
+      return array.hashCode();
+    }
+
+    @Override
+    int cachedHashCode() {
+      return array.cachedHashCode();
+    }
+
+    @Override
+    public boolean equals(Object object) {
+      return array.equals(object);
+    }
+  }
+
+  /*
+   * An immutable JSON array whose elements are stored in a balanced tree.
+   * Modified versions share all unchanged nodes of the tree.
+   */
+  private static final class PersistentArray extends JsonArray {
+
+    private final ArrayStorage.TreeStorage elements;
+
+    PersistentArray(ArrayStorage.TreeStorage elements) {
+      this.elements = elements;
+    }
+
+    @Override
+    public JsonArray with(int index, JsonValue value) {
+      if (value == null) {
+        throw new NullPointerException("value is null");
+      }
+      checkIndex(index, elements);
+      return new PersistentArray(new ArrayStorage.TreeStorage(elements.tree.set(index, value.toPersistent())));
+    }
+
+    @Override
+    public JsonArray withAdded(JsonValue value) {
+      if (value == null) {
+        throw new NullPointerException("value is null");
+      }
+      return new PersistentArray(new ArrayStorage.TreeStorage(elements.tree.add(0, value.toPersistent())));
+    }
+
+    @Override
+    public JsonArray without(int index) {
+      checkIndex(index, elements);
+      return new PersistentArray(new ArrayStorage.TreeStorage(elements.tree.remove(index)));
+    }
+
+    @Override
+    public JsonArray add(int value) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonArray add(long value) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonArray add(double value) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonArray add(JsonValue value) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonArray set(int index, JsonValue value) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonArray remove(int index) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    ArrayStorage storage() {
+      return elements;
+    }
+
+    @Override
+    public long estimatedRetainedSize() {
+      return RetainedSize.instance(3, 4) + elements.estimatedRetainedSize();
+    }
+
+    @Override
+    boolean isImmutable() {
+      return true;
+    }
+  }
+
+  /*
+   * An immutable JSON array that is optimized for reading.
+   * The elements are stored in a storage of the exact size that is referenced by a final field to publish the array
+   * safely.
+   */
+  private static final class FrozenArray extends JsonArray {
+
+    private final ArrayStorage elements;
+    private final int hashCode;
+
+    FrozenArray(JsonArray array) {
+      elements = array.storage().freeze();
+      hashCode = elements.contentHashCode();
+    }
+
+    @Override
+    public JsonArray freeze() {
+      return this;
+    }
+
+    @Override
+    JsonValue toPersistent() {
+      return this;
+    }
+
+    @Override
+    public JsonArray add(int value) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonArray add(long value) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonArray add(double value) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonArray add(JsonValue value) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonArray set(int index, JsonValue value) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonArray remove(int index) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    ArrayStorage storage() {
+      return elements;
+    }
+
+    @Override
+    public long estimatedRetainedSize() {
+      return RetainedSize.instance(3, 8) + elements.estimatedRetainedSize();
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    boolean isImmutable() {
+      return true;
+    }
+
+    @Override
+    int cachedHashCode() {
+      return hashCode;
+    }
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,456 @@
+/*
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+title      JSON Collectors                                 +
+project    icecore-json                                    +
+version    0.8.0-frost.1                                   +
+repository https://github.com/arcticicestudio/icecore-json +
+author     Arctic Ice Studio                               +
+email      development@arcticicestudio.com                 +
+copyright  Copyright (C) 2016                              +
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+*/
+package com.arcticicestudio.icecore.json;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+
+/**
+ * Provides {@link Collector collectors} that assemble a {@link JsonArray} or a {@link JsonObject} from the elements of
+ * a stream.
+ * <p>
+ *   In contrast to adding the elements of a stream to an existing array or object with
+ *   {@link java.util.stream.Stream#forEach(java.util.function.Consumer) forEach}, these collectors can safely be used
+ *   with parallel streams.
+ *   Each thread accumulates its elements into a plain growable array and the partial results are combined by
+ *   concatenating these arrays, the resulting array or object is only created once by the finisher.
+ * </p>
+ * <p>
+ *   The primitive variants store the mapped numbers directly in a primitive storage of the resulting array, so no
+ *   {@link JsonValue} is created per element.
+ * </p>
+ * <p>
+ *   Example:
+ * </p>
+ * <pre>
+ * JsonArray ids = users.parallelStream().collect(JsonCollectors.toLongArray(User::getId));
+ * JsonObject names = users.stream()
+ *   .collect(JsonCollectors.toObject(User::getLogin, user -&gt; Json.value(user.getName())));
+ * </pre>
+ *
+ * @author Arctic Ice Studio &lt;development@arcticicestudio.com&gt;
+ * @see JsonArray#stream()
+ * @see JsonObject#stream()
+ * @since 0.8.0
+ */
+public final class JsonCollectors {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  /*
+   * Prevents the instantiation
+   */
+  private JsonCollectors() {}
+
+  /**
+   * Returns a collector that accumulates the values of a stream into a new {@link JsonArray} in encounter order.
+   *
+   * @return a collector that creates a JSON array with the collected values
+   * @since 0.8.0
+   */
+  public static Collector<JsonValue, ?, JsonArray> toArray() {
+    return new BufferCollector<JsonValue, ValueBuffer, JsonArray>() {
+      @Override
+      ValueBuffer newBuffer() {
+        return new ValueBuffer();
+      }
+
+      @Override
+      void accumulate(ValueBuffer buffer, JsonValue element) {
+        if (element == null) {
+          throw new NullPointerException("value is null");
+        }
+        buffer.add(element);
+      }
+
+      @Override
+      JsonArray finish(ValueBuffer buffer) {
+        return JsonArray.withStorage(ArrayStorage.of(buffer.values, 0, buffer.size));
+      }
+    };
+  }
+
+  /**
+   * Returns a collector that maps the elements of a stream to {@code int} values and accumulates them into a new
+   * {@link JsonArray} in encounter order.
+   *
+   * @param mapper the function that maps an element to the value to add
+   * @param <T> the type of the stream elements
+   * @return a collector that creates a JSON array with the mapped values
+   * @since 0.8.0
+   */
+  public static <T> Collector<T, ?, JsonArray> toIntArray(final ToIntFunction<? super T> mapper) {
+    if (mapper == null) {
+      throw new NullPointerException("mapper is null");
+    }
+    return new BufferCollector<T, IntBuffer, JsonArray>() {
+      @Override
+      IntBuffer newBuffer() {
+        return new IntBuffer();
+      }
+
+      @Override
+      void accumulate(IntBuffer buffer, T element) {
+        buffer.add(mapper.applyAsInt(element));
+      }
+
+      @Override
+      JsonArray finish(IntBuffer buffer) {
+        if (buffer.size == 0) {
+          return new JsonArray();
+        }
+        return JsonArray.withStorage(new ArrayStorage.IntStorage(buffer.values, buffer.size));
+      }
+    };
+  }
+
+  /**
+   * Returns a collector that maps the elements of a stream to {@code long} values and accumulates them into a new
+   * {@link JsonArray} in encounter order.
+   *
+   * @param mapper the function that maps an element to the value to add
+   * @param <T> the type of the stream elements
+   * @return a collector that creates a JSON array with the mapped values
+   * @since 0.8.0
+   */
+  public static <T> Collector<T, ?, JsonArray> toLongArray(final ToLongFunction<? super T> mapper) {
+    if (mapper == null) {
+      throw new NullPointerException("mapper is null");
+    }
+    return new BufferCollector<T, LongBuffer, JsonArray>() {
+      @Override
+      LongBuffer newBuffer() {
+        return new LongBuffer();
+      }
+
+      @Override
+      void accumulate(LongBuffer buffer, T element) {
+        buffer.add(mapper.applyAsLong(element));
+      }
+
+      @Override
+      JsonArray finish(LongBuffer buffer) {
+        if (buffer.size == 0) {
+          return new JsonArray();
+        }
+        return JsonArray.withStorage(new ArrayStorage.LongStorage(buffer.values, buffer.size));
+      }
+    };
+  }
+
+  /**
+   * Returns a collector that maps the elements of a stream to {@code double} values and accumulates them into a new
+   * {@link JsonArray} in encounter order.
+   *
+   * @param mapper the function that maps an element to the value to add
+   * @param <T> the type of the stream elements
+   * @return a collector that creates a JSON array with the mapped values
+   * @throws IllegalArgumentException when the collector is applied and a mapped value is infinite or not a number
+   * @since 0.8.0
+   */
+  public static <T> Collector<T, ?, JsonArray> toDoubleArray(final ToDoubleFunction<? super T> mapper) {
+    if (mapper == null) {
+      throw new NullPointerException("mapper is null");
+    }
+    return new BufferCollector<T, DoubleBuffer, JsonArray>() {
+      @Override
+      DoubleBuffer newBuffer() {
+        return new DoubleBuffer();
+      }
+
+      @Override
+      void accumulate(DoubleBuffer buffer, T element) {
+        double value = mapper.applyAsDouble(element);
+        if (Double.isInfinite(value) || Double.isNaN(value)) {
+          throw new IllegalArgumentException("Infinite and NaN values not permitted in JSON");
+        }
+        buffer.add(value);
+      }
+
+      @Override
+      JsonArray finish(DoubleBuffer buffer) {
+        if (buffer.size == 0) {
+          return new JsonArray();
+        }
+        return JsonArray.withStorage(new ArrayStorage.DoubleStorage(buffer.values, buffer.size));
+      }
+    };
+  }
+
+  /**
+   * Returns a collector that accumulates the elements of a stream as members of a new {@link JsonObject} in encounter
+   * order.
+   * <p>
+   *   Like {@link JsonObject#add(String, JsonValue)}, the members are appended without checking whether the object
+   *   already contains a member with the same name.
+   *   If the names are not unique, the last member with a name is the one that is returned by
+   *   {@link JsonObject#get(String)}.
+   * </p>
+   *
+   * @param nameMapper the function that maps an element to the name of its member
+   * @param valueMapper the function that maps an element to the value of its member
+   * @param <T> the type of the stream elements
+   * @return a collector that creates a JSON object with the mapped members
+   * @since 0.8.0
+   */
+  public static <T> Collector<T, ?, JsonObject> toObject(final Function<? super T, String> nameMapper,
+                                                        final Function<? super T, ? extends JsonValue> valueMapper) {
+    if (nameMapper == null) {
+      throw new NullPointerException("nameMapper is null");
+    }
+    if (valueMapper == null) {
+      throw new NullPointerException("valueMapper is null");
+    }
+    return new BufferCollector<T, MemberBuffer, JsonObject>() {
+      @Override
+      MemberBuffer newBuffer() {
+        return new MemberBuffer();
+      }
+
+      @Override
+      void accumulate(MemberBuffer buffer, T element) {
+        String name = nameMapper.apply(element);
+        if (name == null) {
+          throw new NullPointerException("name is null");
+        }
+        JsonValue value = valueMapper.apply(element);
+        if (value == null) {
+          throw new NullPointerException("value is null");
+        }
+        buffer.add(name, value);
+      }
+
+      @Override
+      JsonObject finish(MemberBuffer buffer) {
+        int count = buffer.size >> 1;
+        if (count == 0) {
+          return new JsonObject();
+        }
+        JsonValue[] values = new JsonValue[count];
+        for (int i = 0; i < count; i++) {
+          values[i] = (JsonValue)buffer.members[(i << 1) + 1];
+        }
+        return new JsonObject(ObjectShape.of(buffer.members, 0, count), values);
+      }
+    };
+  }
+
+  /*
+   * A collector that accumulates into a buffer, combines buffers by concatenation and creates the result once.
+   * Not concurrent, since every thread of a parallel stream uses its own buffer.
+   */
+  private abstract static class BufferCollector<T, A extends Buffer<A>, R> implements Collector<T, A, R> {
+
+    abstract A newBuffer();
+
+    abstract void accumulate(A buffer, T element);
+
+    abstract R finish(A buffer);
+
+    @Override
+    public Supplier<A> supplier() {
+      return new Supplier<A>() {
+        @Override
+        public A get() {
+          return newBuffer();
+        }
+      };
+    }
+
+    @Override
+    public BiConsumer<A, T> accumulator() {
+      return new BiConsumer<A, T>() {
+        @Override
+        public void accept(A buffer, T element) {
+          accumulate(buffer, element);
+        }
+      };
+    }
+
+    @Override
+    public BinaryOperator<A> combiner() {
+      return new BinaryOperator<A>() {
+        @Override
+        public A apply(A left, A right) {
+          return left.append(right);
+        }
+      };
+    }
+
+    @Override
+    public Function<A, R> finisher() {
+      return new Function<A, R>() {
+        @Override
+        public R apply(A buffer) {
+          return finish(buffer);
+        }
+      };
+    }
+
+    @Override
+    public Set<Characteristics> characteristics() {
+      return Collections.emptySet();
+    }
+  }
+
+  /* A growable array of partial results of one thread. */
+  private abstract static class Buffer<B extends Buffer<B>> {
+
+    int size;
+
+    /*
+     * Returns a buffer with the elements of this buffer followed by the elements of the given one.
+     * Either of both buffers is reused, so neither may be used afterwards.
+     */
+    abstract B append(B other);
+
+    static int capacity(int length, int required) {
+      return Math.max(required, length + Math.max(INITIAL_CAPACITY, length >> 1));
+    }
+  }
+
+  private static final class ValueBuffer extends Buffer<ValueBuffer> {
+
+    JsonValue[] values = new JsonValue[INITIAL_CAPACITY];
+
+    void add(JsonValue value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, capacity(size, size + 1));
+      }
+      values[size++] = value;
+    }
+
+    @Override
+    ValueBuffer append(ValueBuffer other) {
+      if (size == 0) {
+        return other;
+      }
+      if (size + other.size > values.length) {
+        values = Arrays.copyOf(values, size + other.size);
+      }
+      System.arraycopy(other.values, 0, values, size, other.size);
+      size += other.size;
+      return this;
+    }
+  }
+
+  private static final class IntBuffer extends Buffer<IntBuffer> {
+
+    int[] values = new int[INITIAL_CAPACITY];
+
+    void add(int value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, capacity(size, size + 1));
+      }
+      values[size++] = value;
+    }
+
+    @Override
+    IntBuffer append(IntBuffer other) {
+      if (size == 0) {
+        return other;
+      }
+      if (size + other.size > values.length) {
+        values = Arrays.copyOf(values, size + other.size);
+      }
+      System.arraycopy(other.values, 0, values, size, other.size);
+      size += other.size;
+      return this;
+    }
+  }
+
+  private static final class LongBuffer extends Buffer<LongBuffer> {
+
+    long[] values = new long[INITIAL_CAPACITY];
+
+    void add(long value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, capacity(size, size + 1));
+      }
+      values[size++] = value;
+    }
+
+    @Override
+    LongBuffer append(LongBuffer other) {
+      if (size == 0) {
+        return other;
+      }
+      if (size + other.size > values.length) {
+        values = Arrays.copyOf(values, size + other.size);
+      }
+      System.arraycopy(other.values, 0, values, size, other.size);
+      size += other.size;
+      return this;
+    }
+  }
+
+  private static final class DoubleBuffer extends Buffer<DoubleBuffer> {
+
+    double[] values = new double[INITIAL_CAPACITY];
+
+    void add(double value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, capacity(size, size + 1));
+      }
+      values[size++] = value;
+    }
+
+    @Override
+    DoubleBuffer append(DoubleBuffer other) {
+      if (size == 0) {
+        return other;
+      }
+      if (size + other.size > values.length) {
+        values = Arrays.copyOf(values, size + other.size);
+      }
+      System.arraycopy(other.values, 0, values, size, other.size);
+      size += other.size;
+      return this;
+    }
+  }
+
+  /* Stores the names and values of the members interleaved, as expected by ObjectShape.of(). */
+  private static final class MemberBuffer extends Buffer<MemberBuffer> {
+
+    Object[] members = new Object[INITIAL_CAPACITY << 1];
+
+    void add(String name, JsonValue value) {
+      if (size + 2 > members.length) {
+        members = Arrays.copyOf(members, capacity(size, size + 2));
+      }
+      members[size++] = name;
+      members[size++] = value;
+    }
+
+    @Override
+    MemberBuffer append(MemberBuffer other) {
+      if (size == 0) {
+        return other;
+      }
+      if (size + other.size > members.length) {
+        members = Arrays.copyOf(members, size + other.size);
+      }
+      System.arraycopy(other.members, 0, members, size, other.size);
+      size += other.size;
+      return this;
+    }
+  }
+}
@@ -48,6 +48,33 @@ package com.arcticicestudio.icecore.json;
 public abstract class JsonHandler<A, O> {
 
   JsonParser parser;
+  NameTable names;
+  boolean skipUnknownNames;
+
+  /**
+   * Registers the member names that are known to this handler.
+   * <p>
+   *   When names are registered, the parser reports every member name through
+   *   {@link #endObjectName(Object, String, int)} along with its ordinal in the given table.
+   *   Known names are recognized directly from the input characters and reported with the instance from the table,
+   *   so no string is created for them.
+   * </p>
+   * <p>
+   *   If unknown names are skipped, members whose names are not contained in the table are not reported at all after
+   *   {@link #startObjectName(Object)}: neither their name nor their value is created and no further events are
+   *   issued for them.
+   *   Their input is still checked to be valid JSON.
+   * </p>
+   *
+   * @param names the known member names, or {@code null} to report all names through
+   *              {@link #endObjectName(Object, String)} again
+   * @param skipUnknownNames {@code true} if members with unknown names should be skipped
+   * @since 0.8.0
+   */
+  protected final void registerNames(NameTable names, boolean skipUnknownNames) {
+    this.names = names;
+    this.skipUnknownNames = names != null && skipUnknownNames;
+  }
 
   /**
    * Returns the current parser location.
@@ -230,6 +257,23 @@ public abstract class JsonHandler<A, O> {
    */
   public void endObjectName(O object, String name) {}
 
+  /**
+   * Indicates the end of an object member name in the JSON input when names have been registered through
+   * {@link #registerNames(NameTable, boolean)}.
+   * <p>
+   *   This method will be called after reading the closing quote character ({@code '"'}) of the member name.
+   *   The default implementation delegates to {@link #endObjectName(Object, String)}.
+   * </p>
+   *
+   * @param object The object handler returned from {@link #startObject()}, or {@code null} if not provided
+   * @param name The parsed member name
+   * @param ordinal The ordinal of the name in the registered {@link NameTable}, or {@code -1} if the name is unknown
+   * @since 0.8.0
+   */
+  public void endObjectName(O object, String name, int ordinal) {
+    endObjectName(object, name);
+  }
+
   /**
    * Indicates the beginning of the name of an object member in the JSON input.
    * <p>
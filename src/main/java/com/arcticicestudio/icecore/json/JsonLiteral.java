@@ -32,6 +32,7 @@ class JsonLiteral extends JsonValue {
    * @param value the JSON literal to be literalized
    */
   JsonLiteral(String value) {
+    super("null".equals(value) ? JsonType.NULL : JsonType.BOOLEAN);
     this.value = value;
     isNull = "null".equals(value);
     isTrue = "true".equals(value);
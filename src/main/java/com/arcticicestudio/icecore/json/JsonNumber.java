@@ -29,6 +29,7 @@ class JsonNumber extends JsonValue {
    * @param string the JSON number to be literalized
    */
   JsonNumber(String string) {
+    super(JsonType.NUMBER);
     if (string == null) {
       throw new NullPointerException("string is null");
     }
@@ -75,6 +76,16 @@ class JsonNumber extends JsonValue {
     writer.writeNumber(string);
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * @since 0.8.0
+   */
+  @Override
+  public long estimatedRetainedSize() {
+    return RetainedSize.instance(1, 0) + RetainedSize.string(string);
+  }
+
   @Override
   public int hashCode() {
     return string.hashCode();
@@ -13,10 +13,31 @@ package com.arcticicestudio.icecore.json;
 
 import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.util.ArrayList;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import com.arcticicestudio.icecore.json.JsonObject.Member;
 
@@ -49,12 +70,25 @@ import com.arcticicestudio.icecore.json.JsonObject.Member;
  *   to allow processing in document order and to guarantee a predictable output.
  * </p>
  * <p>
+ *   Objects with the same names in the same order share a single immutable layout of their names, so each object
+ *   only stores its values.
+ *   This makes large amounts of record-like objects, e.g. the elements of a parsed array, considerably smaller.
+ * </p>
+ * <p>
+ *   Persistent objects created by {@link #persistentObject(JsonObject)} are immutable.
+ *   Their {@link #with(String, JsonValue)} and {@link #without(String)} methods return new versions which share most of
+ *   their structure with the original object.
+ *   Frozen objects created by {@link #freeze()} are immutable as well and optimized for reading.
+ * </p>
+ * <p>
  *   <strong>Note that this class is not thread-safe!</strong>.
  * </p>
  * <p>
  *   If multiple threads access a {@link JsonObject} instance concurrently, while at least one of these threads modifies
  *   the contents of this object, access to the instance must be synchronized externally.
  *   Failure to do so may lead to an inconsistent state.
+ *   Objects that are shared and modified by multiple threads can be created by {@link #concurrentObject(JsonObject)}
+ *   instead.
  * </p>
  * <p>
  *   This class is <strong>not supposed to be extended</strong> by clients.
@@ -65,17 +99,33 @@ import com.arcticicestudio.icecore.json.JsonObject.Member;
  */
 public class JsonObject extends JsonValue implements Iterable<Member> {
 
-  private final List<String> names;
-  private final List<JsonValue> values;
-  private transient HashIndexTable table;
+  private static final JsonValue[] NO_VALUES = {};
+
+  /*
+   * The names of the members and the index to look them up, usually shared with all other objects that have the same
+   * names in the same order.
+   */
+  private transient ObjectShape shape;
+  /*
+   * The values of the members in the order of the names of the shape.
+   * Objects created by the parser use an array of the exact size, empty objects share a single empty array.
+   */
+  private transient JsonValue[] values;
+  /*
+   * The cached hash code followed by pairs of the index and hash code of each mutable value it was computed with,
+   * null if it is unknown.
+   * It is reset by all modifications, but since this object is not notified of modifications of nested objects and
+   * arrays, it is only valid while all of them still have the same hash codes.
+   */
+  private transient int[] hashCodes;
 
   /**
    * Creates a new empty JsonObject.
    */
   public JsonObject() {
-    names = new ArrayList<String>();
-    values = new ArrayList<JsonValue>();
-    table = new HashIndexTable();
+    super(JsonType.OBJECT);
+    shape = ObjectShape.EMPTY;
+    values = NO_VALUES;
   }
 
   /**
@@ -84,29 +134,41 @@ public class JsonObject extends JsonValue implements Iterable<Member> {
    * @param object the JSON object to get the initial contents from which <strong>MUST NOT</strong> be {@code null}
    */
   public JsonObject(JsonObject object) {
-    this(object, false);
-  }
-
-  /**
-   * Initializes the contents of the specified JSON object with a modifiability state based on the boolean value of the
-   * {@code unmodifiable} parameter.
-   *
-   * @param object the JsonObject to get the initial contents from which <strong>MUST NOT</strong> be {@code null}.
-   * @param unmodifiable the state of the modifiability
-   */
-  private JsonObject(JsonObject object, boolean unmodifiable) {
+    super(JsonType.OBJECT);
     if (object == null) {
       throw new NullPointerException("object is null");
     }
-    if (unmodifiable) {
-      names = Collections.unmodifiableList(object.names);
-      values = Collections.unmodifiableList(object.values);
+    JsonObject source = unwrap(object);
+    if (hasOwnStorage(source)) {
+      shape = ObjectShape.EMPTY;
+      values = source.isEmpty() ? NO_VALUES : new JsonValue[source.size()];
+      for (Member member : source) {
+        append(member.name, member.value);
+      }
     } else {
-      names = new ArrayList<String>(object.names);
-      values = new ArrayList<JsonValue>(object.values);
+      shape = source.shape.share();
+      values = shape.size() == 0 ? NO_VALUES : Arrays.copyOf(source.values, shape.size());
+    }
+  }
+
+  /*
+   * Creates a JsonObject with the given shape that takes ownership of the given values which MUST have the exact size
+   * of the shape.
+   */
+  JsonObject(ObjectShape shape, JsonValue[] values) {
+    super(JsonType.OBJECT);
+    this.shape = shape;
+    this.values = shape.size() == 0 ? NO_VALUES : values;
+  }
+
+  /*
+   * Creates a read-only JsonObject whose members are the entries of the given map with converted values.
+   */
+  static JsonObject wrap(Map<?, ?> map) {
+    if (map == null) {
+      throw new NullPointerException("map is null");
     }
-    table = new HashIndexTable();
-    updateHashIndex();
+    return new MapObject(map);
   }
 
   /**
@@ -123,7 +185,93 @@ public class JsonObject extends JsonValue implements Iterable<Member> {
    * @return an unmodifiable view of the specified JsonObject
    */
   public static JsonObject unmodifiableObject(JsonObject object) {
-    return new JsonObject(object, true);
+    if (object == null) {
+      throw new NullPointerException("object is null");
+    }
+    return new UnmodifiableObject(object);
+  }
+
+  /**
+   * Returns a persistent JsonObject with the members of the specified one.
+   * <p>
+   *   The returned JsonObject is immutable and does not reflect changes of the given object.
+   *   Attempts to modify it result in an {@link UnsupportedOperationException}.
+   *   Nested objects and arrays are converted into persistent ones as well, hence the returned object can be shared
+   *   between threads without any synchronization.
+   * </p>
+   * <p>
+   *   Modified versions are created by the methods {@link #with(String, JsonValue)} and {@link #without(String)}.
+   *   They share all unchanged parts with the original object and only take {@code O(log n)} time, while the same
+   *   methods of a modifiable object copy all members.
+   *   Looking up a member by its name or position also takes {@code O(log n)} time.
+   * </p>
+   * <p>
+   *   Persistent objects do not contain duplicate names.
+   *   Multiple members of the given object with the same name are reduced to a single member at the position of the
+   *   first one with the value of the last one.
+   * </p>
+   *
+   * @param object the JsonObject for which a persistent JsonObject is to be returned
+   * @return a persistent JsonObject with the members of the specified object, the object itself if it is persistent
+   *         already, the current snapshot of a concurrent object
+   * @since 0.8.0
+   */
+  public static JsonObject persistentObject(JsonObject object) {
+    if (object == null) {
+      throw new NullPointerException("object is null");
+    }
+    if (object instanceof PersistentObject) {
+      return object;
+    }
+    if (object instanceof ConcurrentObject) {
+      return ((ConcurrentObject)object).current.get();
+    }
+    /* Accessing the members of a view or a wrapped map by their position would take a new snapshot for each. */
+    JsonObject result = PersistentObject.EMPTY;
+    Cursor cursor = object.snapshot().cursor();
+    while (cursor.next()) {
+      result = result.with(cursor.getName(), cursor.getValue());
+    }
+    return result;
+  }
+
+  /**
+   * Returns a thread-safe JsonObject with the members of the specified one.
+   * <p>
+   *   The returned JsonObject can be read and modified by multiple threads without any external synchronization.
+   *   It holds a persistent object (see {@link #persistentObject(JsonObject)}) as its current snapshot.
+   *   Reading methods never block, they use the snapshot that is current when they are called.
+   *   Modifying methods create a new snapshot in {@code O(log n)} time and install it by an atomic compare-and-set,
+   *   retrying on the latest snapshot if another thread has modified the object in the meantime.
+   *   Methods that take a predicate or function may therefore call it more than once.
+   * </p>
+   * <p>
+   *   Iterating over the members, {@link #forEach(BiConsumer)}, {@link #cursor()}, {@link #toString()} and writing
+   *   the object always use a single snapshot, hence they are consistent and never fail with a
+   *   {@link java.util.ConcurrentModificationException}.
+   *   A snapshot can be obtained explicitly from {@link #persistentObject(JsonObject)} in constant time.
+   *   Accessing members by their position with {@link #name(int)} and {@link #value(int)} uses a new snapshot for
+   *   each call.
+   * </p>
+   * <p>
+   *   The members keep their insertion order, but the object does not contain duplicate names, so
+   *   {@link #add(String, JsonValue)} replaces the value of an existing member like {@link #set(String, JsonValue)}.
+   *   Added objects and arrays are converted into persistent ones, hence nested values are modified by replacing them.
+   *   The nested objects and arrays returned by {@link #get(String)} are immutable and throw an
+   *   {@link UnsupportedOperationException} when they are modified.
+   *   Use {@link #update(String, UnaryOperator)} to replace a nested value based on its current value atomically,
+   *   since a separate get and set may lose the updates of other threads.
+   * </p>
+   *
+   * @param object the JsonObject whose members are copied into the concurrent JsonObject
+   * @return a concurrent JsonObject with the members of the specified object
+   * @since 0.8.0
+   */
+  public static JsonObject concurrentObject(JsonObject object) {
+    if (object == null) {
+      throw new NullPointerException("object is null");
+    }
+    return new ConcurrentObject(persistentObject(object));
   }
 
   /**
@@ -294,9 +442,7 @@ public class JsonObject extends JsonValue implements Iterable<Member> {
     if (value == null) {
       throw new NullPointerException("value is null");
     }
-    table.add(name, names.size());
-    names.add(name);
-    values.add(value);
+    append(name, value);
     return this;
   }
 
@@ -476,11 +622,10 @@ public class JsonObject extends JsonValue implements Iterable<Member> {
     }
     int index = indexOf(name);
     if (index != -1) {
-      values.set(index, value);
+      values[index] = value;
+      hashCodes = null;
     } else {
-      table.add(name, names.size());
-      names.add(name);
-      values.add(value);
+      append(name, value);
     }
     return this;
   }
@@ -501,9 +646,107 @@ public class JsonObject extends JsonValue implements Iterable<Member> {
     }
     int index = indexOf(name);
     if (index != -1) {
-      table.remove(index);
-      names.remove(index);
-      values.remove(index);
+      int size = shape.size();
+      System.arraycopy(values, index + 1, values, index, size - index - 1);
+      values[size - 1] = null;
+      shape = shape.remove(index);
+      hashCodes = null;
+    }
+    return this;
+  }
+
+  /**
+   * Removes all members whose names are contained in the specified collection from this object.
+   * <p>
+   *   Unlike {@link #remove(String)}, all members with a matching name are removed, not only the last one.
+   *   The remaining members are compacted in a single pass and the name index is rebuilt only once, hence this is
+   *   considerably faster than removing multiple members one by one.
+   * </p>
+   *
+   * @param names the names of the members to remove
+   * @return the object itself, to enable method chaining
+   * @since 0.8.0
+   */
+  public JsonObject removeAll(Collection<String> names) {
+    if (names == null) {
+      throw new NullPointerException("names is null");
+    }
+    return removeMembers(toSet(names), false);
+  }
+
+  /**
+   * Removes all members whose names are not contained in the specified collection from this object.
+   * <p>
+   *   The remaining members are compacted in a single pass and the name index is rebuilt only once.
+   * </p>
+   *
+   * @param names the names of the members to retain
+   * @return the object itself, to enable method chaining
+   * @since 0.8.0
+   */
+  public JsonObject retainAll(Collection<String> names) {
+    if (names == null) {
+      throw new NullPointerException("names is null");
+    }
+    return removeMembers(toSet(names), true);
+  }
+
+  /**
+   * Removes all members that satisfy the specified predicate from this object.
+   * <p>
+   *   The predicate is evaluated for all members before this object is modified, so an exception thrown by the
+   *   predicate leaves this object unchanged.
+   *   The remaining members are compacted in a single pass and the name index is rebuilt only once.
+   * </p>
+   * <p>
+   *   A {@link #concurrentObject(JsonObject) concurrent object} evaluates the predicate again for all members of the
+   *   current snapshot if another thread has modified the object in the meantime, so the predicate may be called
+   *   more than once for the same member.
+   * </p>
+   *
+   * @param filter the predicate which returns {@code true} for the name and value of members to be removed
+   * @return the object itself, to enable method chaining
+   * @since 0.8.0
+   */
+  public JsonObject removeIf(BiPredicate<? super String, ? super JsonValue> filter) {
+    if (filter == null) {
+      throw new NullPointerException("filter is null");
+    }
+    int size = shape.size();
+    BitSet removed = new BitSet(size);
+    for (int i = 0; i < size; i++) {
+      if (filter.test(shape.name(i), values[i])) {
+        removed.set(i);
+      }
+    }
+    return compact(removed);
+  }
+
+  /**
+   * Sets the values of all members with the names of the specified map to the values of the map.
+   * <p>
+   *   This is equivalent to calling {@link #set(String, JsonValue)} for each entry of the map in its iteration order.
+   *   All entries are checked to be non-null before this object is modified.
+   * </p>
+   *
+   * @param members the names and values of the members to set
+   * @return the object itself, to enable method chaining
+   * @since 0.8.0
+   */
+  public JsonObject setAll(Map<String, ? extends JsonValue> members) {
+    if (members == null) {
+      throw new NullPointerException("members is null");
+    }
+    for (Map.Entry<String, ? extends JsonValue> entry : members.entrySet()) {
+      if (entry.getKey() == null) {
+        throw new NullPointerException("name is null");
+      }
+      if (entry.getValue() == null) {
+        throw new NullPointerException("value is null");
+      }
+    }
+    for (Map.Entry<String, ? extends JsonValue> entry : members.entrySet()) {
+      set(entry.getKey(), entry.getValue());
     }
     return this;
   }
@@ -528,6 +771,90 @@ public class JsonObject extends JsonValue implements Iterable<Member> {
     return this;
   }
 
+  /**
+   * Replaces the value of the member with the specified name by the result of the given function.
+   * <p>
+   *   The function is called with the current value of the member, or {@code null} if this object does not contain
+   *   a member with this name.
+   *   If the function returns {@code null}, the member is removed like by {@link #remove(String)}, otherwise the
+   *   result is set like by {@link #set(String, JsonValue)}.
+   * </p>
+   * <p>
+   *   For a {@link #concurrentObject(JsonObject) concurrent object}, reading the value and replacing it is a single
+   *   atomic operation which is retried on the latest snapshot if another thread has modified the object in the
+   *   meantime, so the function may be called more than once and should not have side effects.
+   *   Since the nested objects and arrays of a concurrent object are persistent, this is the way to modify them
+   *   without losing concurrent updates, e.g.
+   *   {@code object.update("counts", counts -> counts.asObject().with("a", Json.value(1)))}.
+   * </p>
+   *
+   * @param name the name of the member to update
+   * @param function the function which returns the new value for the current value, or {@code null} to remove the
+   *                 member
+   * @return the object itself, to enable method chaining
+   * @since 0.8.0
+   */
+  public JsonObject update(String name, UnaryOperator<JsonValue> function) {
+    if (name == null) {
+      throw new NullPointerException("name is null");
+    }
+    if (function == null) {
+      throw new NullPointerException("function is null");
+    }
+    JsonValue value = function.apply(get(name));
+    return value == null ? remove(name) : set(name, value);
+  }
+
+  /**
+   * Returns a new object with the members of this object and the specified value for the member with the specified
+   * name.
+   * <p>
+   *   If this object contains a member with this name, its value is replaced like by {@link #set(String, JsonValue)},
+   *   otherwise the member is appended.
+   *   This object itself is not modified.
+   * </p>
+   * <p>
+   *   A persistent object returns another persistent object in {@code O(log n)} time, the given value is converted
+   *   into a persistent one if necessary.
+   *   Any other object returns a modifiable copy.
+   * </p>
+   *
+   * @param name the name of the member to replace or add
+   * @param value the value of the member
+   * @return a new object with the member
+   * @see #persistentObject(JsonObject)
+   * @since 0.8.0
+   */
+  public JsonObject with(String name, JsonValue value) {
+    if (name == null) {
+      throw new NullPointerException("name is null");
+    }
+    if (value == null) {
+      throw new NullPointerException("value is null");
+    }
+    return new JsonObject(this).set(name, value);
+  }
+
+  /**
+   * Returns a new object with the members of this object except the member with the specified name.
+   * <p>
+   *   This object itself is not modified.
+   *   A persistent object returns another persistent object in {@code O(log n)} time, any other object returns a
+   *   modifiable copy without the last member with this name like {@link #remove(String)}.
+   * </p>
+   *
+   * @param name the name of the member to remove
+   * @return a new object without the member
+   * @see #persistentObject(JsonObject)
+   * @since 0.8.0
+   */
+  public JsonObject without(String name) {
+    if (name == null) {
+      throw new NullPointerException("name is null");
+    }
+    return new JsonObject(this).remove(name);
+  }
+
   /**
    * Returns the value of the member with the specified name in this object.
    * <p>
@@ -542,7 +869,7 @@ public class JsonObject extends JsonValue implements Iterable<Member> {
       throw new NullPointerException("name is null");
     }
     int index = indexOf(name);
-    return index != -1 ? values.get(index) : null;
+    return index != -1 ? values[index] : null;
   }
 
   /**
@@ -663,7 +990,7 @@ public class JsonObject extends JsonValue implements Iterable<Member> {
    * @return the number of members in this object
    */
   public int size() {
-    return names.size();
+    return shape.size();
   }
 
   /**
@@ -672,7 +999,7 @@ public class JsonObject extends JsonValue implements Iterable<Member> {
    * @return {@code true} if this object contains no members
    */
   public boolean isEmpty() {
-    return names.isEmpty();
+    return shape.size() == 0;
   }
 
   /**
@@ -686,7 +1013,100 @@ public class JsonObject extends JsonValue implements Iterable<Member> {
    * @return a list of the names in this object
    */
   public List<String> names() {
-    return Collections.unmodifiableList(names);
+    return new Names();
+  }
+
+  /**
+   * Returns a map view of this object whose values are plain Java objects.
+   * <p>
+   *   The returned map is backed by this object, so changes to either of them are reflected in the other one.
+   *   Names are looked up like by {@link #get(String)}, so this method should only be used for objects with unique
+   *   names.
+   *   The values are converted when they are accessed in the same way as the elements of
+   *   {@link JsonArray#asList()}, nested objects and arrays are represented by their views and never copied.
+   * </p>
+   * <p>
+   *   Members can be put and removed through the map, but not through the iterators of its collection views.
+   *   Put values are converted in the same way as by {@link Json#wrap(Map)}, so maps and lists are wrapped instead of
+   *   copied.
+   * </p>
+   *
+   * @return a map view of this object
+   * @since 0.8.0
+   */
+  public Map<String, Object> asMap() {
+    return new MapView();
+  }
+
+  /**
+   * Returns the name of the member at the specified position in this object.
+   *
+   * @param index the index of the member whose name is to be returned
+   * @return the name of the member at the specified position
+   * @throws IndexOutOfBoundsException if the index is out of range, i.e. {@code index < 0} or
+   *                                   {@code index >= size}
+   * @since 0.8.0
+   */
+  public String name(int index) {
+    return shape.name(index);
+  }
+
+  /**
+   * Returns the value of the member at the specified position in this object.
+   *
+   * @param index the index of the member whose value is to be returned
+   * @return the value of the member at the specified position
+   * @throws IndexOutOfBoundsException if the index is out of range, i.e. {@code index < 0} or
+   *                                   {@code index >= size}
+   * @since 0.8.0
+   */
+  public JsonValue value(int index) {
+    if (index < 0 || index >= shape.size()) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + shape.size());
+    }
+    return values[index];
+  }
+
+  /**
+   * Performs the given action for the name and value of each member of this object in document order.
+   * <p>
+   *   Unlike iterating over the {@link Member}s of this object, no objects are created for the single members.
+   * </p>
+   *
+   * @param action the action to be performed for each member
+   * @since 0.8.0
+   */
+  public void forEach(BiConsumer<? super String, ? super JsonValue> action) {
+    if (action == null) {
+      throw new NullPointerException("action is null");
+    }
+    ObjectShape shape = this.shape;
+    JsonValue[] values = this.values;
+    for (int i = 0; i < shape.size(); i++) {
+      action.accept(shape.name(i), values[i]);
+    }
+  }
+
+  /**
+   * Returns a new cursor over the members of this object in document order.
+   * <p>
+   *   Unlike an {@link #iterator()}, the cursor does not create a {@link Member} for each step and it can be reused for
+   *   multiple traversals.
+   * </p>
+   * <pre>
+   * Cursor cursor = jsonObject.cursor();
+   * while (cursor.next()) {
+   *   String name = cursor.getName();
+   *   JsonValue value = cursor.getValue();
+   *   ...
+   * }
+   * </pre>
+   *
+   * @return a cursor positioned before the first member of this object
+   * @since 0.8.0
+   */
+  public Cursor cursor() {
+    return new Cursor(this);
   }
 
   /**
@@ -698,18 +1118,27 @@ public class JsonObject extends JsonValue implements Iterable<Member> {
    * @return an iterator over the members of this object
    */
   public Iterator<Member> iterator() {
-    final Iterator<String> namesIterator = names.iterator();
-    final Iterator<JsonValue> valuesIterator = values.iterator();
     return new Iterator<JsonObject.Member>() {
 
+      /* Any change of the size or a reallocation of the values is considered a concurrent modification. */
+      private final JsonValue[] expectedValues = values;
+      private final int expectedSize = shape.size();
+      private int index;
+
       public boolean hasNext() {
-        return namesIterator.hasNext();
+        return index < expectedSize;
       }
 
       public Member next() {
-        String name = namesIterator.next();
-        JsonValue value = valuesIterator.next();
-        return new Member(name, value);
+        if (values != expectedValues || shape.size() != expectedSize) {
+          throw new ConcurrentModificationException();
+        }
+        if (index >= expectedSize) {
+          throw new NoSuchElementException();
+        }
+        Member member = new Member(shape.name(index), values[index]);
+        index++;
+        return member;
       }
 
       public void remove() {
@@ -718,26 +1147,57 @@ public class JsonObject extends JsonValue implements Iterable<Member> {
     };
   }
 
+  /**
+   * Returns a spliterator over the members of this object in document order.
+   * <p>
+   *   The spliterator is {@link Spliterator#SIZED sized}, {@link Spliterator#ORDERED ordered} and splits into halves
+   *   by index ranges, which are again {@link Spliterator#SUBSIZED sized}.
+   *   Concurrent objects (see {@link #concurrentObject(JsonObject)}) are split as the snapshot of their members at the
+   *   time this method is called.
+   * </p>
+   * <p>
+   *   <strong>The object must not be modified while the spliterator is used!</strong>
+   * </p>
+   *
+   * @return a spliterator over the members of this object
+   * @since 0.8.0
+   */
+  @Override
+  public Spliterator<Member> spliterator() {
+    JsonObject snapshot = snapshot();
+    return new MemberSpliterator(snapshot, 0, snapshot.size());
+  }
+
+  /**
+   * Returns a sequential stream of the members of this object in document order.
+   *
+   * @return a stream of the members of this object
+   * @see #spliterator()
+   * @since 0.8.0
+   */
+  public Stream<Member> stream() {
+    return StreamSupport.stream(spliterator(), false);
+  }
+
+  /**
+   * Returns a parallel stream of the members of this object.
+   * <p>
+   *   The members are split by index ranges as described for {@link #spliterator()}.
+   * </p>
+   *
+   * @return a possibly parallel stream of the members of this object
+   * @since 0.8.0
+   */
+  public Stream<Member> parallelStream() {
+    return StreamSupport.stream(spliterator(), true);
+  }
+
   /**
    * @since 0.5.0
    */
   @Override
   void write(JsonWriter writer) throws IOException {
-    writer.writeObjectOpen();
-    Iterator<String> namesIterator = names.iterator();
-    Iterator<JsonValue> valuesIterator = values.iterator();
-    if (namesIterator.hasNext()) {
-      writer.writeMemberName(namesIterator.next());
-      writer.writeMemberSeparator();
-      valuesIterator.next().write(writer);
-      while (namesIterator.hasNext()) {
-        writer.writeObjectSeparator();
-        writer.writeMemberName(namesIterator.next());
-        writer.writeMemberSeparator();
-        valuesIterator.next().write(writer);
-      }
-    }
-    writer.writeObjectClose();
+    writer.writeTree(this);
   }
 
   @Override
@@ -750,66 +1210,1561 @@ public class JsonObject extends JsonValue implements Iterable<Member> {
     return this;
   }
 
-  int indexOf(String name) {
-    int index = table.get(name);
-    if (index != -1 && name.equals(names.get(index))) {
-      return index;
-    }
-    return names.lastIndexOf(name);
+  /**
+   * {@inheritDoc}
+   *
+   * @since 0.8.0
+   */
+  @Override
+  public JsonObject freeze() {
+    return new FrozenObject(this);
   }
 
-  private synchronized void readObject(ObjectInputStream inputStream)
-    throws IOException, ClassNotFoundException
-  {
-    inputStream.defaultReadObject();
-    table = new HashIndexTable();
-    updateHashIndex();
+  @Override
+  JsonValue toPersistent() {
+    return persistentObject(this);
   }
 
-  private void updateHashIndex() {
-    int size = names.size();
-    for (int i = 0; i < size; i++) {
-      table.add(names.get(i), i);
-    }
+  int indexOf(String name) {
+    return shape.indexOf(name);
   }
 
-  @Override
-  public int hashCode() {
-    int result = 1;
-    result = 31 * result + names.hashCode();
-    result = 31 * result + values.hashCode();
-    return result;
+  ObjectShape shape() {
+    return shape;
   }
 
-  /**
-   * Indicates whether a given object is "equal to" this JsonArray.
-   * <p>
-   *   An object is considered equal if it is also a {@link JsonArray} and both arrays contain the same list of values.
-   * </p>
-   * <p>
-   *   If two JsonArrays are equal, they will also produce the same JSON output.
-   * </p>
-   *
-   * @param object the object to be compared with this JsonArray
-   * @return {@code true} if the specified object is equal to this JsonArray, {@code false} otherwise
+  /*
+   * Returns an object with the members of this object that are not changed by concurrent modifications, this object
+   * itself unless it is a concurrent object.
    */
-  @Override
-  public boolean equals(Object object) {
-    if (this == object) {
-      return true;
+  JsonObject snapshot() {
+    return this;
+  }
+
+  /*
+   * Returns the number of distinct names of this object, the size of its map view.
+   * Only the last member of each name is counted, matching the lookup of get(String).
+   */
+  int distinctSize() {
+    JsonObject source = snapshot();
+    int size = source.size();
+    int count = 0;
+    for (int i = 0; i < size; i++) {
+      if (source.indexOf(source.name(i)) == i) {
+        count++;
+      }
     }
-    if (object == null) {
-      return false;
+    return count;
+  }
+
+  /*
+   * Shrinks the values and an owned shape to the exact size of the members.
+   * Used by builders that have finished adding members, like the parser.
+   */
+  void trimToSize() {
+    int size = shape.size();
+    if (values.length != size) {
+      values = size == 0 ? NO_VALUES : Arrays.copyOf(values, size);
     }
-    if (getClass() != object.getClass()) {
-      return false;
+    shape.trimToSize();
+  }
+
+  private void append(String name, JsonValue value) {
+    int size = shape.size();
+    if (size == values.length) {
+      /* Grow by half of the capacity but at least by one member, small objects stay as tight as possible. */
+      values = Arrays.copyOf(values, size + Math.max(1, size >> 1));
     }
-    JsonObject other = (JsonObject)object;
-    return names.equals(other.names) && values.equals(other.values);
+    shape = shape.add(name);
+    values[size] = value;
+    hashCodes = null;
   }
 
-  /**
-   * Represents a member of a JSON object, a pair of a name and a value.
+  private JsonObject removeMembers(Set<?> names, boolean retain) {
+    int size = shape.size();
+    BitSet removed = new BitSet(size);
+    for (int i = 0; i < size; i++) {
+      if (names.contains(shape.name(i)) != retain) {
+        removed.set(i);
+      }
+    }
+    return compact(removed);
+  }
+
+  /*
+   * Removes the members with the given indexes by moving all remaining members to the front in a single pass and
+   * rebuilding the name index afterwards.
+   */
+  private JsonObject compact(BitSet removed) {
+    int first = removed.nextSetBit(0);
+    if (first == -1) {
+      return this;
+    }
+    int size = shape.size();
+    int kept = first;
+    for (int i = removed.nextClearBit(first); i < size; i = removed.nextClearBit(i + 1)) {
+      values[kept++] = values[i];
+    }
+    Arrays.fill(values, kept, size, null);
+    shape = shape.removeAll(removed);
+    hashCodes = null;
+    return this;
+  }
+
+  private static Set<?> toSet(Collection<?> collection) {
+    return collection instanceof Set ? (Set<?>)collection : new HashSet<Object>(collection);
+  }
+
+  private void writeObject(ObjectOutputStream outputStream) throws IOException {
+    outputStream.defaultWriteObject();
+    int size = shape.size();
+    outputStream.writeInt(size);
+    for (int i = 0; i < size; i++) {
+      outputStream.writeObject(shape.name(i));
+      outputStream.writeObject(values[i]);
+    }
+  }
+
+  private synchronized void readObject(ObjectInputStream inputStream)
+    throws IOException, ClassNotFoundException
+  {
+    inputStream.defaultReadObject();
+    int size = inputStream.readInt();
+    shape = ObjectShape.EMPTY;
+    values = size == 0 ? NO_VALUES : new JsonValue[size];
+    for (int i = 0; i < size; i++) {
+      shape = shape.add((String)inputStream.readObject());
+      values[i] = (JsonValue)inputStream.readObject();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @since 0.8.0
+   */
+  @Override
+  public long estimatedRetainedSize() {
+    /* Empty objects share the same empty values. */
+    long size = RetainedSize.instance(3, 0) + shape.estimatedRetainedSize();
+    if (values.length != 0) {
+      size += RetainedSize.referenceArray(values.length);
+    }
+    if (hashCodes != null) {
+      size += RetainedSize.intArray(hashCodes.length);
+    }
+    for (int i = 0; i < shape.size(); i++) {
+      size += values[i].estimatedRetainedSize();
+    }
+    return size;
+  }
+
+  /**
+   * Returns the hash code of this object.
+   * <p>
+   *   The hash code is cached until this object is modified. Since nested objects and arrays do not notify this object
+   *   of their modifications, the cache also holds their hash codes, which they cache the same way, and is only used
+   *   while all of them are unchanged. Hence repeated calls only visit the nested objects and arrays of the tree, not
+   *   all of its values.
+   * </p>
+   *
+   * @return the hash code of this object
+   * @since 0.8.0
+   */
+  @Override
+  public int hashCode() {
+    int[] cached = hashCodes;
+    int[] current = null;
+    if (cached != null) {
+      current = currentHashCodes(cached);
+      if (current == cached) {
+        return cached[0];
+      }
+    }
+    /* Same as the combined hash codes of the name and value lists. */
+    int namesHash = 1;
+    int valuesHash = 1;
+    int[] codes = current != null ? current : new int[1];
+    int count = 1;
+    for (int i = 0; i < shape.size(); i++) {
+      JsonValue value = values[i];
+      int valueHash;
+      if (value.isImmutable()) {
+        valueHash = value.hashCode();
+      } else {
+        /* Unless this object was modified, the current hash codes of the mutable values are already known. */
+        valueHash = current != null ? current[count + 1] : value.hashCode();
+        if (count == codes.length) {
+          codes = Arrays.copyOf(codes, count * 2 + 1);
+        }
+        codes[count] = i;
+        codes[count + 1] = valueHash;
+        count += 2;
+      }
+      namesHash = 31 * namesHash + shape.name(i).hashCode();
+      valuesHash = 31 * valuesHash + valueHash;
+    }
+    int result = 1;
+    result = 31 * result + namesHash;
+    result = 31 * result + valuesHash;
+    codes[0] = result;
+    hashCodes = count == codes.length ? codes : Arrays.copyOf(codes, count);
+    return result;
+  }
+
+  /*
+   * Returns the cached hash codes with the current hash codes of the mutable values, the given array itself if none
+   * of them has changed.
+   */
+  private int[] currentHashCodes(int[] cached) {
+    int[] current = cached;
+    for (int i = 1; i < cached.length; i += 2) {
+      int valueHash = values[cached[i]].hashCode();
+      if (valueHash != cached[i + 1]) {
+        if (current == cached) {
+          current = cached.clone();
+        }
+        current[i + 1] = valueHash;
+      }
+    }
+    return current;
+  }
+
+  @Override
+  boolean isImmutable() {
+    return false;
+  }
+
+  /* The hash code is only known without computing it if there are no mutable values that could have changed it. */
+  @Override
+  int cachedHashCode() {
+    int[] cached = hashCodes;
+    return cached != null && cached.length == 1 ? cached[0] : 0;
+  }
+
+  /**
+   * Indicates whether a given object is "equal to" this JsonArray.
+   * <p>
+   *   An object is considered equal if it is also a {@link JsonArray} and both arrays contain the same list of values.
+   * </p>
+   * <p>
+   *   If two JsonArrays are equal, they will also produce the same JSON output.
+   * </p>
+   *
+   * @param object the object to be compared with this JsonArray
+   * @return {@code true} if the specified object is equal to this JsonArray, {@code false} otherwise
+   */
+  @Override
+  public boolean equals(Object object) {
+    if (object instanceof UnmodifiableObject) {
+      object = unwrap((UnmodifiableObject)object);
+    }
+    if (this == object) {
+      return true;
+    }
+    if (object == null) {
+      return false;
+    }
+    if (classOf(this) != classOf(object)) {
+      return false;
+    }
+    JsonObject other = (JsonObject)object;
+    int hash = cachedHashCode();
+    int otherHash = other.cachedHashCode();
+    if (hash != 0 && otherHash != 0 && hash != otherHash) {
+      return false;
+    }
+    if (hasOwnStorage(this) || hasOwnStorage(other)) {
+      return membersEqual(this, other);
+    }
+    int size = shape.size();
+    if (size != other.shape.size()) {
+      return false;
+    }
+    if (shape != other.shape) {
+      for (int i = 0; i < size; i++) {
+        if (!shape.name(i).equals(other.shape.name(i))) {
+          return false;
+        }
+      }
+    }
+    for (int i = 0; i < size; i++) {
+      if (!JsonValue.equal(values[i], other.values[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static JsonObject unwrap(JsonObject object) {
+    return object instanceof UnmodifiableObject ? ((UnmodifiableObject)object).object : object;
+  }
+
+  /*
+   * Persistent, frozen, concurrent and map objects store their members themselves instead of in the shape and
+   * values.
+   */
+  private static boolean hasOwnStorage(Object object) {
+    return object instanceof PersistentObject || object instanceof FrozenObject || object instanceof ConcurrentObject
+           || object instanceof MapObject;
+  }
+
+  /* Persistent, frozen, concurrent and map objects can be equal to modifiable ones. */
+  private static Class<?> classOf(Object object) {
+    return hasOwnStorage(object) ? JsonObject.class : object.getClass();
+  }
+
+  /* Compares a single snapshot of each object, so that concurrent objects are compared in a state they had. */
+  private static boolean membersEqual(JsonObject object, JsonObject other) {
+    JsonObject snapshot = object.snapshot();
+    JsonObject otherSnapshot = other.snapshot();
+    if (snapshot.size() != otherSnapshot.size()) {
+      return false;
+    }
+    Cursor cursor = snapshot.cursor();
+    Cursor otherCursor = otherSnapshot.cursor();
+    while (cursor.next()) {
+      if (!otherCursor.next() || !cursor.getName().equals(otherCursor.getName())
+          || !JsonValue.equal(cursor.getValue(), otherCursor.getValue())) {
+        return false;
+      }
+    }
+    return !otherCursor.next();
+  }
+
+  /* Splits the members of an object by index ranges. */
+  private static final class MemberSpliterator implements Spliterator<Member> {
+
+    private final JsonObject object;
+    private int index;
+    private final int fence;
+
+    MemberSpliterator(JsonObject object, int index, int fence) {
+      this.object = object;
+      this.index = index;
+      this.fence = fence;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Member> action) {
+      if (action == null) {
+        throw new NullPointerException("action is null");
+      }
+      if (index >= fence) {
+        return false;
+      }
+      action.accept(new Member(object.name(index), object.value(index)));
+      index++;
+      return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super Member> action) {
+      if (action == null) {
+        throw new NullPointerException("action is null");
+      }
+      for (int i = index; i < fence; i++) {
+        action.accept(new Member(object.name(i), object.value(i)));
+      }
+      index = fence;
+    }
+
+    @Override
+    public Spliterator<Member> trySplit() {
+      int from = index;
+      int split = (from + fence) >>> 1;
+      if (split <= from) {
+        return null;
+      }
+      index = split;
+      return new MemberSpliterator(object, from, split);
+    }
+
+    @Override
+    public long estimateSize() {
+      return fence - index;
+    }
+
+    @Override
+    public int characteristics() {
+      return ORDERED | SIZED | SUBSIZED | NONNULL;
+    }
+  }
+
+  /* A live view of the names of this object. */
+  private final class Names extends AbstractList<String> implements RandomAccess {
+
+    @Override
+    public String get(int index) {
+      return name(index);
+    }
+
+    @Override
+    public int size() {
+      return JsonObject.this.size();
+    }
+  }
+
+  /*
+   * A live view of this object with the values converted to plain Java objects.
+   * Like get(String), the view only exposes the last member of each name, earlier members with the same name are
+   * hidden and removed together with it.
+   */
+  final class MapView extends AbstractMap<String, Object> {
+
+    @Override
+    public int size() {
+      return distinctSize();
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return JsonObject.this.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return key instanceof String && JsonObject.this.get((String)key) != null;
+    }
+
+    @Override
+    public Object get(Object key) {
+      JsonValue value = key instanceof String ? JsonObject.this.get((String)key) : null;
+      return value != null ? JavaValues.toJava(value) : null;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+      Object previous = get(key);
+      JsonObject.this.set(key, JavaValues.toJson(value));
+      return previous;
+    }
+
+    @Override
+    public Object remove(Object key) {
+      JsonValue value = key instanceof String ? JsonObject.this.get((String)key) : null;
+      if (value == null) {
+        return null;
+      }
+      JsonObject.this.removeAll(Collections.singleton((String)key));
+      return JavaValues.toJava(value);
+    }
+
+    @Override
+    public void clear() {
+      JsonObject.this.retainAll(Collections.<String>emptySet());
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+      return new AbstractSet<Entry<String, Object>>() {
+        @Override
+        public int size() {
+          return distinctSize();
+        }
+
+        @Override
+        public Iterator<Entry<String, Object>> iterator() {
+          return new Iterator<Entry<String, Object>>() {
+
+            private final JsonObject source = snapshot();
+            private int expectedSize = source.size();
+            private int index = skipHidden(0);
+            private String lastName;
+
+            public boolean hasNext() {
+              return index < expectedSize;
+            }
+
+            public Entry<String, Object> next() {
+              if (source.size() != expectedSize) {
+                throw new ConcurrentModificationException();
+              }
+              if (index >= expectedSize) {
+                throw new NoSuchElementException();
+              }
+              lastName = source.name(index);
+              Entry<String, Object> entry = new ViewEntry(lastName, JavaValues.toJava(source.value(index)));
+              index = skipHidden(index + 1);
+              return entry;
+            }
+
+            public void remove() {
+              if (lastName == null) {
+                throw new IllegalStateException();
+              }
+              if (source.size() != expectedSize) {
+                throw new ConcurrentModificationException();
+              }
+              JsonObject.this.removeAll(Collections.singleton(lastName));
+              lastName = null;
+              if (source == JsonObject.this) {
+                // All removed members precede the next one, which therefore moves down by their number.
+                int size = source.size();
+                index -= expectedSize - size;
+                expectedSize = size;
+              }
+            }
+
+            /* Returns the index of the first member from the given one on that is not hidden by a later duplicate. */
+            private int skipHidden(int from) {
+              while (from < expectedSize && source.indexOf(source.name(from)) != from) {
+                from++;
+              }
+              return from;
+            }
+          };
+        }
+      };
+    }
+
+    JsonObject object() {
+      return JsonObject.this;
+    }
+  }
+
+  /* An entry of the map view whose value is written through to this object. */
+  private final class ViewEntry extends AbstractMap.SimpleEntry<String, Object> {
+
+    ViewEntry(String name, Object value) {
+      super(name, value);
+    }
+
+    @Override
+    public Object setValue(Object value) {
+      set(getKey(), JavaValues.toJson(value));
+      return super.setValue(value);
+    }
+  }
+
+  /*
+   * A read-only view of another JSON object.
+   * All reading methods delegate to the backing object so that its changes are reflected, all modifying methods throw
+   * an UnsupportedOperationException.
+   */
+  private static final class UnmodifiableObject extends JsonObject {
+
+    private final JsonObject object;
+
+    UnmodifiableObject(JsonObject object) {
+      this.object = unwrap(object);
+    }
+
+    @Override
+    public JsonObject add(String name, JsonValue value) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonObject set(String name, JsonValue value) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonObject remove(String name) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonObject removeAll(Collection<String> names) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonObject retainAll(Collection<String> names) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonObject removeIf(BiPredicate<? super String, ? super JsonValue> filter) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonObject setAll(Map<String, ? extends JsonValue> members) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonObject merge(JsonObject object) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonObject update(String name, UnaryOperator<JsonValue> function) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonValue get(String name) {
+      return object.get(name);
+    }
+
+    @Override
+    public int size() {
+      return object.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return object.isEmpty();
+    }
+
+    @Override
+    public List<String> names() {
+      return object.names();
+    }
+
+    @Override
+    public String name(int index) {
+      return object.name(index);
+    }
+
+    @Override
+    public JsonValue value(int index) {
+      return object.value(index);
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super JsonValue> action) {
+      object.forEach(action);
+    }
+
+    @Override
+    public Iterator<Member> iterator() {
+      return object.iterator();
+    }
+
+    @Override
+    void write(JsonWriter writer) throws IOException {
+      object.write(writer);
+    }
+
+    @Override
+    int indexOf(String name) {
+      return object.indexOf(name);
+    }
+
+    @Override
+    int distinctSize() {
+      return object.distinctSize();
+    }
+
+    @Override
+    JsonObject snapshot() {
+      return object.snapshot();
+    }
+
+    @Override
+    public long estimatedRetainedSize() {
+      return RetainedSize.instance(4, 0) + object.estimatedRetainedSize();
+    }
+
+    @Override
+    public int hashCode() {
+      return object.hashCode();
+    }
+
+    @Override
+    int cachedHashCode() {
+      return object.cachedHashCode();
+    }
+
+    @Override
+    public boolean equals(Object object) {
+      return this.object.equals(object);
+    }
+  }
+
+  /*
+   * An immutable JSON object whose members are stored in a hash trie to look them up by name and a balanced tree to
+   * keep their order.
+   * Each member is stored as an entry with a key that is unique within the object and ascending in member order, so
+   * that the position of an entry in the tree can be found by its key.
+   * Modified versions share all unchanged nodes of the trie and the tree.
+   */
+  private static final class PersistentObject extends JsonObject {
+
+    static final PersistentObject EMPTY = new PersistentObject(HashTrie.EMPTY, PersistentTree.EMPTY, 0);
+
+    private final HashTrie entries;
+    private final PersistentTree order;
+    private final long nextKey;
+    /* Computed lazily, racing threads compute the same value. */
+    private transient int hash;
+
+    PersistentObject(HashTrie entries, PersistentTree order, long nextKey) {
+      this.entries = entries;
+      this.order = order;
+      this.nextKey = nextKey;
+    }
+
+    @Override
+    public JsonObject with(String name, JsonValue value) {
+      if (name == null) {
+        throw new NullPointerException("name is null");
+      }
+      if (value == null) {
+        throw new NullPointerException("value is null");
+      }
+      value = value.toPersistent();
+      Entry entry = (Entry)entries.get(name);
+      if (entry == null) {
+        Entry added = new Entry(nextKey, name, value);
+        return new PersistentObject(entries.put(name, added), order.add(nextKey, added), nextKey + 1);
+      }
+      if (entry.value == value) {
+        return this;
+      }
+      Entry replaced = new Entry(entry.key, name, value);
+      return new PersistentObject(entries.put(name, replaced), order.set(order.indexOf(entry.key), replaced),
+        nextKey);
+    }
+
+    @Override
+    public JsonObject without(String name) {
+      if (name == null) {
+        throw new NullPointerException("name is null");
+      }
+      Entry entry = (Entry)entries.get(name);
+      if (entry == null) {
+        return this;
+      }
+      return new PersistentObject(entries.remove(name), order.remove(order.indexOf(entry.key)), nextKey);
+    }
+
+    @Override
+    public JsonObject add(String name, JsonValue value) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonObject set(String name, JsonValue value) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonObject remove(String name) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonObject removeAll(Collection<String> names) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonObject retainAll(Collection<String> names) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonObject removeIf(BiPredicate<? super String, ? super JsonValue> filter) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonObject setAll(Map<String, ? extends JsonValue> members) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonObject merge(JsonObject object) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonObject update(String name, UnaryOperator<JsonValue> function) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonValue get(String name) {
+      if (name == null) {
+        throw new NullPointerException("name is null");
+      }
+      Entry entry = (Entry)entries.get(name);
+      return entry != null ? entry.value : null;
+    }
+
+    @Override
+    public int size() {
+      return order.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return order.size() == 0;
+    }
+
+    @Override
+    public String name(int index) {
+      return entry(index).name;
+    }
+
+    @Override
+    public JsonValue value(int index) {
+      return entry(index).value;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super JsonValue> action) {
+      if (action == null) {
+        throw new NullPointerException("action is null");
+      }
+      for (Object element : order) {
+        Entry entry = (Entry)element;
+        action.accept(entry.name, entry.value);
+      }
+    }
+
+    @Override
+    public Iterator<Member> iterator() {
+      final Iterator<Object> iterator = order.iterator();
+      return new Iterator<Member>() {
+
+        public boolean hasNext() {
+          return iterator.hasNext();
+        }
+
+        public Member next() {
+          Entry entry = (Entry)iterator.next();
+          return new Member(entry.name, entry.value);
+        }
+
+        public void remove() {
+          throw new UnsupportedOperationException();
+        }
+      };
+    }
+
+    @Override
+    int indexOf(String name) {
+      Entry entry = (Entry)entries.get(name);
+      return entry != null ? order.indexOf(entry.key) : -1;
+    }
+
+    @Override
+    int distinctSize() {
+      return size();
+    }
+
+    @Override
+    public long estimatedRetainedSize() {
+      long size = RetainedSize.instance(5, 12) + entries.estimatedRetainedSize() + order.estimatedRetainedSize();
+      for (Object element : order) {
+        Entry entry = (Entry)element;
+        size += RetainedSize.instance(2, 8) + RetainedSize.string(entry.name) + entry.value.estimatedRetainedSize();
+      }
+      return size;
+    }
+
+    @Override
+    public int hashCode() {
+      if (hash != 0) {
+        return hash;
+      }
+      int namesHash = 1;
+      int valuesHash = 1;
+      for (Object element : order) {
+        Entry entry = (Entry)element;
+        namesHash = 31 * namesHash + entry.name.hashCode();
+        valuesHash = 31 * valuesHash + entry.value.hashCode();
+      }
+      int result = 1;
+      result = 31 * result + namesHash;
+      result = 31 * result + valuesHash;
+      hash = result;
+      return result;
+    }
+
+    @Override
+    boolean isImmutable() {
+      return true;
+    }
+
+    @Override
+    int cachedHashCode() {
+      return hash;
+    }
+
+    private Entry entry(int index) {
+      if (index < 0 || index >= order.size()) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + order.size());
+      }
+      return (Entry)order.get(index);
+    }
+
+    private static final class Entry implements Serializable {
+
+      final long key;
+      final String name;
+      final JsonValue value;
+
+      Entry(long key, String name, JsonValue value) {
+        this.key = key;
+        this.name = name;
+        this.value = value;
+      }
+    }
+  }
+
+  /*
+   * An immutable JSON object that is optimized for reading.
+   * The names are looked up in an open addressing hash table with Fibonacci hashing, which is grown until every name
+   * has its own slot or the table has reached a multiple of the number of members, hence lookups rarely need to probe.
+   * All fields are final to publish the object safely.
+   */
+  private static final class FrozenObject extends JsonObject {
+
+    private static final int GOLDEN_RATIO = 0x9e3779b9;
+    /* The largest table has this many slots per member. */
+    private static final int MAX_SLOTS_PER_MEMBER = 16;
+
+    private final String[] names;
+    private final JsonValue[] values;
+    /* The index of the last member with each name plus one, 0 for empty slots. */
+    private final int[] table;
+    private final int shift;
+    private final int hashCode;
+
+    FrozenObject(JsonObject object) {
+      /* A single snapshot, the size and the members of a concurrent object may otherwise differ. */
+      JsonObject snapshot = object.snapshot();
+      int size = snapshot.size();
+      names = new String[size];
+      values = new JsonValue[size];
+      Cursor cursor = snapshot.cursor();
+      while (cursor.next()) {
+        names[cursor.getIndex()] = cursor.getName();
+        values[cursor.getIndex()] = cursor.getValue().freeze();
+      }
+      int capacity = Integer.highestOneBit(Math.max(size, 1)) << 2;
+      int[] table = createTable(names, capacity);
+      while (table == null) {
+        capacity <<= 1;
+        table = createTable(names, capacity);
+      }
+      this.table = table;
+      shift = Integer.numberOfLeadingZeros(capacity) + 1;
+      int namesHash = 1;
+      int valuesHash = 1;
+      for (int i = 0; i < size; i++) {
+        namesHash = 31 * namesHash + names[i].hashCode();
+        valuesHash = 31 * valuesHash + values[i].hashCode();
+      }
+      hashCode = 31 * (31 + namesHash) + valuesHash;
+    }
+
+    /*
+     * Returns the table for the given names, or null if names collide and a larger table would still be allowed.
+     */
+    private static int[] createTable(String[] names, int capacity) {
+      int[] table = new int[capacity];
+      int shift = Integer.numberOfLeadingZeros(capacity) + 1;
+      boolean perfect = true;
+      for (int i = 0; i < names.length; i++) {
+        int slot = names[i].hashCode() * GOLDEN_RATIO >>> shift;
+        while (table[slot] != 0 && !names[table[slot] - 1].equals(names[i])) {
+          slot = (slot + 1) & (capacity - 1);
+          perfect = false;
+        }
+        table[slot] = i + 1;
+      }
+      return perfect || capacity >= names.length * MAX_SLOTS_PER_MEMBER ? table : null;
+    }
+
+    @Override
+    public JsonObject freeze() {
+      return this;
+    }
+
+    @Override
+    JsonValue toPersistent() {
+      return this;
+    }
+
+    @Override
+    public JsonObject add(String name, JsonValue value) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonObject set(String name, JsonValue value) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonObject remove(String name) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonObject removeAll(Collection<String> names) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonObject retainAll(Collection<String> names) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonObject removeIf(BiPredicate<? super String, ? super JsonValue> filter) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonObject setAll(Map<String, ? extends JsonValue> members) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonObject merge(JsonObject object) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonObject update(String name, UnaryOperator<JsonValue> function) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonValue get(String name) {
+      if (name == null) {
+        throw new NullPointerException("name is null");
+      }
+      int index = indexOf(name);
+      return index != -1 ? values[index] : null;
+    }
+
+    @Override
+    public int size() {
+      return names.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return names.length == 0;
+    }
+
+    @Override
+    public String name(int index) {
+      checkIndex(index);
+      return names[index];
+    }
+
+    @Override
+    public JsonValue value(int index) {
+      checkIndex(index);
+      return values[index];
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super JsonValue> action) {
+      if (action == null) {
+        throw new NullPointerException("action is null");
+      }
+      for (int i = 0; i < names.length; i++) {
+        action.accept(names[i], values[i]);
+      }
+    }
+
+    @Override
+    public Iterator<Member> iterator() {
+      return new Iterator<Member>() {
+
+        private int index;
+
+        public boolean hasNext() {
+          return index < names.length;
+        }
+
+        public Member next() {
+          if (index >= names.length) {
+            throw new NoSuchElementException();
+          }
+          Member member = new Member(names[index], values[index]);
+          index++;
+          return member;
+        }
+
+        public void remove() {
+          throw new UnsupportedOperationException();
+        }
+      };
+    }
+
+    @Override
+    int indexOf(String name) {
+      int[] table = this.table;
+      int slot = name.hashCode() * GOLDEN_RATIO >>> shift;
+      int entry;
+      while ((entry = table[slot]) != 0) {
+        String candidate = names[entry - 1];
+        if (candidate == name || candidate.equals(name)) {
+          return entry - 1;
+        }
+        slot = (slot + 1) & (table.length - 1);
+      }
+      return -1;
+    }
+
+    @Override
+    public long estimatedRetainedSize() {
+      long size = RetainedSize.instance(6, 8) + RetainedSize.referenceArray(names.length)
+                  + RetainedSize.referenceArray(values.length) + RetainedSize.intArray(table.length);
+      for (int i = 0; i < names.length; i++) {
+        size += RetainedSize.string(names[i]) + values[i].estimatedRetainedSize();
+      }
+      return size;
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    boolean isImmutable() {
+      return true;
+    }
+
+    @Override
+    int cachedHashCode() {
+      return hashCode;
+    }
+
+    private void checkIndex(int index) {
+      if (index < 0 || index >= names.length) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + names.length);
+      }
+    }
+  }
+
+  /*
+   * A read-only JSON object that adapts a map of plain Java objects.
+   * The values are converted when they are accessed, so that all changes of the map are reflected.
+   * Accessing members by their index creates a snapshot of the current entries, so these methods take linear time.
+   */
+  private static final class MapObject extends JsonObject {
+
+    private final Map<?, ?> map;
+
+    MapObject(Map<?, ?> map) {
+      this.map = map;
+    }
+
+    @Override
+    public JsonObject freeze() {
+      return snapshot().freeze();
+    }
+
+    @Override
+    JsonValue toPersistent() {
+      return persistentObject(snapshot());
+    }
+
+    @Override
+    public JsonObject add(String name, JsonValue value) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonObject set(String name, JsonValue value) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonObject remove(String name) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonObject removeAll(Collection<String> names) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonObject retainAll(Collection<String> names) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonObject removeIf(BiPredicate<? super String, ? super JsonValue> filter) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonObject setAll(Map<String, ? extends JsonValue> members) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonObject merge(JsonObject object) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonObject update(String name, UnaryOperator<JsonValue> function) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JsonValue get(String name) {
+      if (name == null) {
+        throw new NullPointerException("name is null");
+      }
+      Object value = map.get(name);
+      return value != null || map.containsKey(name) ? JavaValues.toJson(value) : null;
+    }
+
+    @Override
+    public int size() {
+      return map.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return map.isEmpty();
+    }
+
+    @Override
+    public List<String> names() {
+      return snapshot().names();
+    }
+
+    @Override
+    public String name(int index) {
+      return snapshot().name(index);
+    }
+
+    @Override
+    public JsonValue value(int index) {
+      return snapshot().value(index);
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super JsonValue> action) {
+      if (action == null) {
+        throw new NullPointerException("action is null");
+      }
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        action.accept(nameOf(entry.getKey()), JavaValues.toJson(entry.getValue()));
+      }
+    }
+
+    @Override
+    public Cursor cursor() {
+      return snapshot().cursor();
+    }
+
+    @Override
+    public Iterator<Member> iterator() {
+      final Iterator<? extends Map.Entry<?, ?>> entries = map.entrySet().iterator();
+      return new Iterator<Member>() {
+
+        public boolean hasNext() {
+          return entries.hasNext();
+        }
+
+        public Member next() {
+          Map.Entry<?, ?> entry = entries.next();
+          return new Member(nameOf(entry.getKey()), JavaValues.toJson(entry.getValue()));
+        }
+
+        public void remove() {
+          throw new UnsupportedOperationException();
+        }
+      };
+    }
+
+    @Override
+    int indexOf(String name) {
+      return snapshot().indexOf(name);
+    }
+
+    @Override
+    int distinctSize() {
+      return size();
+    }
+
+    /* Converts the current entries, nested maps and lists are only wrapped. */
+    @Override
+    JsonObject snapshot() {
+      Object[] members = new Object[map.size() << 1];
+      int count = 0;
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        if (count << 1 == members.length) {
+          members = Arrays.copyOf(members, (count + 1) << 1);
+        }
+        members[count << 1] = nameOf(entry.getKey());
+        members[(count << 1) + 1] = JavaValues.toJson(entry.getValue());
+        count++;
+      }
+      JsonValue[] values = new JsonValue[count];
+      for (int i = 0; i < count; i++) {
+        values[i] = (JsonValue)members[(i << 1) + 1];
+      }
+      return new JsonObject(ObjectShape.of(members, 0, count), values);
+    }
+
+    /* The map is not owned by this object. */
+    @Override
+    public long estimatedRetainedSize() {
+      return RetainedSize.instance(5, 0);
+    }
+
+    @Override
+    public int hashCode() {
+      return snapshot().hashCode();
+    }
+
+    private static String nameOf(Object key) {
+      if (key instanceof String) {
+        return (String)key;
+      }
+      if (key == null) {
+        throw new NullPointerException("name is null");
+      }
+      throw new IllegalArgumentException("Unsupported name type: " + key.getClass().getName());
+    }
+  }
+
+  /*
+   * A thread-safe JSON object that holds a persistent object as its current snapshot.
+   * Readers use the snapshot without locking, writers replace it by compare-and-set.
+   */
+  private static final class ConcurrentObject extends JsonObject {
+
+    private final AtomicReference<JsonObject> current;
+
+    ConcurrentObject(JsonObject snapshot) {
+      current = new AtomicReference<JsonObject>(snapshot);
+    }
+
+    @Override
+    public JsonObject add(String name, JsonValue value) {
+      return set(name, value);
+    }
+
+    @Override
+    public JsonObject set(final String name, JsonValue value) {
+      if (name == null) {
+        throw new NullPointerException("name is null");
+      }
+      if (value == null) {
+        throw new NullPointerException("value is null");
+      }
+      final JsonValue persistentValue = value.toPersistent();
+      return update(new UnaryOperator<JsonObject>() {
+        public JsonObject apply(JsonObject snapshot) {
+          return snapshot.with(name, persistentValue);
+        }
+      });
+    }
+
+    @Override
+    public JsonObject remove(final String name) {
+      if (name == null) {
+        throw new NullPointerException("name is null");
+      }
+      return update(new UnaryOperator<JsonObject>() {
+        public JsonObject apply(JsonObject snapshot) {
+          return snapshot.without(name);
+        }
+      });
+    }
+
+    @Override
+    public JsonObject removeAll(Collection<String> names) {
+      if (names == null) {
+        throw new NullPointerException("names is null");
+      }
+      return removeNames(toSet(names), false);
+    }
+
+    @Override
+    public JsonObject retainAll(Collection<String> names) {
+      if (names == null) {
+        throw new NullPointerException("names is null");
+      }
+      return removeNames(toSet(names), true);
+    }
+
+    @Override
+    public JsonObject removeIf(final BiPredicate<? super String, ? super JsonValue> filter) {
+      if (filter == null) {
+        throw new NullPointerException("filter is null");
+      }
+      return update(new UnaryOperator<JsonObject>() {
+        public JsonObject apply(JsonObject snapshot) {
+          JsonObject updated = snapshot;
+          for (Member member : snapshot) {
+            if (filter.test(member.name, member.value)) {
+              updated = updated.without(member.name);
+            }
+          }
+          return updated;
+        }
+      });
+    }
+
+    @Override
+    public JsonObject setAll(Map<String, ? extends JsonValue> members) {
+      if (members == null) {
+        throw new NullPointerException("members is null");
+      }
+      return mergePersistent(persistentObject(new JsonObject().setAll(members)));
+    }
+
+    @Override
+    public JsonObject merge(JsonObject object) {
+      if (object == null) {
+        throw new NullPointerException("object is null");
+      }
+      return mergePersistent(persistentObject(object));
+    }
+
+    @Override
+    public JsonValue get(String name) {
+      return current.get().get(name);
+    }
+
+    @Override
+    public int size() {
+      return current.get().size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return current.get().isEmpty();
+    }
+
+    @Override
+    public String name(int index) {
+      return current.get().name(index);
+    }
+
+    @Override
+    public JsonValue value(int index) {
+      return current.get().value(index);
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super JsonValue> action) {
+      current.get().forEach(action);
+    }
+
+    @Override
+    public Cursor cursor() {
+      return current.get().cursor();
+    }
+
+    @Override
+    public Iterator<Member> iterator() {
+      return current.get().iterator();
+    }
+
+    @Override
+    void write(JsonWriter writer) throws IOException {
+      current.get().write(writer);
+    }
+
+    @Override
+    JsonValue toPersistent() {
+      return current.get();
+    }
+
+    @Override
+    JsonObject snapshot() {
+      return current.get();
+    }
+
+    @Override
+    int indexOf(String name) {
+      return current.get().indexOf(name);
+    }
+
+    @Override
+    int distinctSize() {
+      return size();
+    }
+
+    @Override
+    public long estimatedRetainedSize() {
+      return RetainedSize.instance(4, 0) + RetainedSize.instance(1, 0) + current.get().estimatedRetainedSize();
+    }
+
+    @Override
+    public int hashCode() {
+      return current.get().hashCode();
+    }
+
+    @Override
+    int cachedHashCode() {
+      return current.get().cachedHashCode();
+    }
+
+    @Override
+    public JsonObject update(final String name, final UnaryOperator<JsonValue> function) {
+      if (name == null) {
+        throw new NullPointerException("name is null");
+      }
+      if (function == null) {
+        throw new NullPointerException("function is null");
+      }
+      return update(new UnaryOperator<JsonObject>() {
+        public JsonObject apply(JsonObject snapshot) {
+          JsonValue value = function.apply(snapshot.get(name));
+          return value == null ? snapshot.without(name) : snapshot.with(name, value);
+        }
+      });
+    }
+
+    private JsonObject removeNames(final Set<?> names, final boolean retain) {
+      return update(new UnaryOperator<JsonObject>() {
+        public JsonObject apply(JsonObject snapshot) {
+          JsonObject updated = snapshot;
+          for (Member member : snapshot) {
+            if (names.contains(member.name) != retain) {
+              updated = updated.without(member.name);
+            }
+          }
+          return updated;
+        }
+      });
+    }
+
+    private JsonObject mergePersistent(final JsonObject members) {
+      return update(new UnaryOperator<JsonObject>() {
+        public JsonObject apply(JsonObject snapshot) {
+          JsonObject updated = snapshot;
+          for (Member member : members) {
+            updated = updated.with(member.name, member.value);
+          }
+          return updated;
+        }
+      });
+    }
+
+    /*
+     * Replaces the current snapshot by the result of the given function, retrying until no other thread has replaced
+     * the snapshot in the meantime.
+     */
+    private JsonObject update(UnaryOperator<JsonObject> function) {
+      JsonObject snapshot;
+      JsonObject updated;
+      do {
+        snapshot = current.get();
+        updated = function.apply(snapshot);
+      } while (updated != snapshot && !current.compareAndSet(snapshot, updated));
+      return this;
+    }
+  }
+
+  /**
+   * Represents a member of a JSON object, a pair of a name and a value.
    *
    * @author Arctic Ice Studio &lt;development@arcticicestudio.com&gt;
    * @since 0.2.0
@@ -866,51 +2821,294 @@ public class JsonObject extends JsonValue implements Iterable<Member> {
     }
   }
 
+  /**
+   * Represents a reusable cursor over the members of a JSON object in document order.
+   * <p>
+   *   A cursor is positioned before the first member initially and advanced by {@link #next()}.
+   *   The name and value of the current member are accessed without creating any objects.
+   *   Calling {@link #reset(JsonObject)} positions the cursor before the first member of the given object again, so a
+   *   single cursor can be used to traverse any number of objects.
+   * </p>
+   * <p>
+   *   The cursor cannot be used to modify the object.
+   *   Unlike an iterator, it does not detect concurrent modifications, hence the object should not be modified while
+   *   being traversed.
+   * </p>
+   *
+   * @author Arctic Ice Studio &lt;development@arcticicestudio.com&gt;
+   * @since 0.8.0
+   */
+  public static final class Cursor {
+
+    private JsonObject object;
+    private int index;
+
+    Cursor(JsonObject object) {
+      reset(object);
+    }
+
+    /**
+     * Positions this cursor before the first member of the specified object.
+     *
+     * @param object the object to traverse
+     * @return the cursor itself, to enable method chaining
+     */
+    public Cursor reset(JsonObject object) {
+      if (object == null) {
+        throw new NullPointerException("object is null");
+      }
+      this.object = object;
+      index = -1;
+      return this;
+    }
+
+    /**
+     * Advances this cursor to the next member.
+     *
+     * @return {@code true} if the cursor is positioned on a member, {@code false} if there are no more members
+     */
+    public boolean next() {
+      if (index < object.size()) {
+        index++;
+      }
+      return index < object.size();
+    }
+
+    /**
+     * Returns the index of the current member.
+     *
+     * @return the index of the current member
+     */
+    public int getIndex() {
+      return index;
+    }
+
+    /**
+     * Returns the name of the current member.
+     *
+     * @return the name of the current member, never {@code null}
+     * @throws IllegalStateException if the cursor is not positioned on a member
+     */
+    public String getName() {
+      checkPosition();
+      return object.name(index);
+    }
+
+    /**
+     * Returns the value of the current member.
+     *
+     * @return the value of the current member, never {@code null}
+     * @throws IllegalStateException if the cursor is not positioned on a member
+     */
+    public JsonValue getValue() {
+      checkPosition();
+      return object.value(index);
+    }
+
+    private void checkPosition() {
+      if (index < 0 || index >= object.size()) {
+        throw new IllegalStateException("Cursor is not positioned on a member");
+      }
+    }
+  }
+
   /**
    * Represents a indexed hash table to handle JSON object member.
+   * <p>
+   *   The table maps each name to the index of the last member with this name.
+   *   It uses open addressing with linear probing and stores the hash of each name along with its index so that
+   *   probing only needs to compare names with the same hash.
+   *   The table grows with the number of names, hence lookups stay constant in time regardless of the object size.
+   * </p>
+   * <p>
+   *   Members with duplicate names are linked to the preceding member with the same name, so that removing the last
+   *   one maps the name back without comparing any names.
+   * </p>
    *
    * @author Arctic Ice Studio &lt;development@arcticicestudio.com&gt;
    * @since 0.2.0
    */
   static class HashIndexTable {
 
-    /* The size MUST be a power of two. */
-    private final byte[] hashTable = new byte[32];
+    /* The capacity MUST be a power of two. */
+    private static final int INITIAL_CAPACITY = 4;
+    private static final int GOLDEN_RATIO = 0x9e3779b9;
 
-    public HashIndexTable() {}
+    private final List<String> names;
+    /*
+     * Pairs of a name hash and the index of the member plus one in each slot, 0 stands for an empty slot.
+     * Allocated on the first add to keep empty objects cheap.
+     */
+    private int[] slots;
+    private int size;
+    private int shift;
+    /* The number of indexed members, the highest added index plus one. */
+    private int count;
+    /*
+     * The index of the preceding member with the same name for each member, -1 for the first one.
+     * Allocated on the first duplicate name, since most objects do not contain any.
+     */
+    private int[] previous;
+
+    /**
+     * @param names the member names of the object which are referenced by the stored indexes
+     */
+    HashIndexTable(List<String> names) {
+      this.names = names;
+    }
 
-    public HashIndexTable(HashIndexTable original) {
-      System.arraycopy(original.hashTable, 0, hashTable, 0, hashTable.length);
+    /*
+     * Returns the estimated number of bytes retained by this table, excluding the names.
+     */
+    long estimatedRetainedSize() {
+      return RetainedSize.instance(3, 12) + (slots != null ? RetainedSize.intArray(slots.length) : 0)
+             + (previous != null ? RetainedSize.intArray(previous.length) : 0);
     }
 
     void add(String name, int index) {
-      int slot = hashSlotFor(name);
-      if (index < 0xff) {
-        /* Increment by 1, 0 stands for empty. */
-        hashTable[slot] = (byte)(index + 1);
-      } else {
-        hashTable[slot] = 0;
+      if (slots == null) {
+        slots = new int[INITIAL_CAPACITY * 2];
+        shift = 32 - Integer.numberOfTrailingZeros(INITIAL_CAPACITY);
+      } else if (size >= (slots.length >> 1) - (slots.length >> 3)) {
+        resize();
       }
+      count = Math.max(count, index + 1);
+      int hash = name.hashCode();
+      int slot = slotFor(hash);
+      while (slots[slot + 1] != 0) {
+        if (slots[slot] == hash && name.equals(names.get(slots[slot + 1] - 1))) {
+          link(index, slots[slot + 1] - 1);
+          slots[slot + 1] = index + 1;
+          return;
+        }
+        slot = (slot + 2) & slots.length - 1;
+      }
+      if (previous != null) {
+        link(index, -1);
+      }
+      slots[slot] = hash;
+      slots[slot + 1] = index + 1;
+      size++;
     }
 
+    /*
+     * Removes the member with the given index which MUST still be contained in the names.
+     * All subsequent indexes are decreased by one.
+     * If the removed member was the last one of several members with the same name, the name is mapped to the
+     * preceding member.
+     */
     void remove(int index) {
-      for (int i = 0; i < hashTable.length; i++) {
-        if (hashTable[i] == index + 1) {
-          hashTable[i] = 0;
-        } else if (hashTable[i] > index + 1) {
-          hashTable[i]--;
+      if (slots == null) {
+        return;
+      }
+      int slot = slotFor(names.get(index).hashCode());
+      while (slots[slot + 1] != 0 && slots[slot + 1] != index + 1) {
+        slot = (slot + 2) & slots.length - 1;
+      }
+      int preceding = previous != null ? previous[index] : -1;
+      if (slots[slot + 1] == 0) {
+        /* Not the last member with its name, so the following one is linked to the preceding one instead. */
+        for (int i = index + 1; i < count; i++) {
+          if (previous[i] == index) {
+            previous[i] = preceding;
+            break;
+          }
+        }
+      } else if (preceding != -1) {
+        /* The preceding member has the same hash, so it takes over the slot. */
+        slots[slot + 1] = preceding + 1;
+      } else {
+        delete(slot);
+      }
+      for (int i = 1; i < slots.length; i += 2) {
+        if (slots[i] > index + 1) {
+          slots[i]--;
+        }
+      }
+      if (previous != null) {
+        System.arraycopy(previous, index + 1, previous, index, count - index - 1);
+        previous[count - 1] = -1;
+        for (int i = index; i < count - 1; i++) {
+          if (previous[i] > index) {
+            previous[i]--;
+          }
+        }
+      }
+      count--;
+    }
+
+    int get(String name) {
+      if (slots == null) {
+        return -1;
+      }
+      int hash = name.hashCode();
+      int slot = slotFor(hash);
+      int entry;
+      while ((entry = slots[slot + 1]) != 0) {
+        if (slots[slot] == hash && name.equals(names.get(entry - 1))) {
+          return entry - 1;
+        }
+        slot = (slot + 2) & slots.length - 1;
+      }
+      return -1;
+    }
+
+    /* Links the member at the given index to the preceding member with the same name. */
+    private void link(int index, int preceding) {
+      if (previous == null) {
+        previous = new int[Math.max(count, INITIAL_CAPACITY)];
+        Arrays.fill(previous, -1);
+      } else if (index >= previous.length) {
+        int length = previous.length;
+        previous = Arrays.copyOf(previous, Math.max(index + 1, length << 1));
+        Arrays.fill(previous, length, previous.length, -1);
+      }
+      previous[index] = preceding;
+    }
+
+    /* Deletes the entry in the given slot by shifting back all subsequent entries of the same probe sequence. */
+    private void delete(int slot) {
+      int mask = slots.length - 1;
+      int gap = slot;
+      int next = (gap + 2) & mask;
+      while (slots[next + 1] != 0) {
+        int home = slotFor(slots[next]);
+        /* Move the entry into the gap if its home slot is not cyclically located between the gap and itself. */
+        if (((next - home) & mask) >= ((next - gap) & mask)) {
+          slots[gap] = slots[next];
+          slots[gap + 1] = slots[next + 1];
+          gap = next;
+        }
+        next = (next + 2) & mask;
+      }
+      slots[gap] = 0;
+      slots[gap + 1] = 0;
+      size--;
+    }
+
+    private void resize() {
+      int[] oldSlots = slots;
+      slots = new int[oldSlots.length * 2];
+      shift--;
+      for (int i = 0; i < oldSlots.length; i += 2) {
+        if (oldSlots[i + 1] != 0) {
+          insert(oldSlots[i], oldSlots[i + 1]);
         }
       }
     }
 
-    int get(Object name) {
-      int slot = hashSlotFor(name);
-      /* Subtract 1, 0 stands for empty */
-      return (hashTable[slot] & 0xff) - 1;
+    /* Stores the given entry in the first free slot of its probe sequence without checking for the same name. */
+    private void insert(int hash, int entry) {
+      int slot = slotFor(hash);
+      while (slots[slot + 1] != 0) {
+        slot = (slot + 2) & slots.length - 1;
+      }
+      slots[slot] = hash;
+      slots[slot + 1] = entry;
     }
 
-    private int hashSlotFor(Object element) {
-      return element.hashCode() & hashTable.length - 1;
+    private int slotFor(int hash) {
+      return (hash * GOLDEN_RATIO) >>> shift << 1;
     }
   }
-}
\ No newline at end of file
+}
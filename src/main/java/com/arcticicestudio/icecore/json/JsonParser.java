@@ -14,6 +14,9 @@ package com.arcticicestudio.icecore.json;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 
 /**
  * A streaming parser for JSON text.
@@ -28,7 +31,8 @@ public class JsonParser {
 
   private static final int MAX_NESTING_LEVEL = 1000;
   private static final int MIN_BUFFER_SIZE = 10;
-  private static final int DEFAULT_BUFFER_SIZE = 1024;
+  static final int DEFAULT_BUFFER_SIZE = 1024;
+  private static final int CANCELLATION_CHECK_INTERVAL = 256;
 
   private final JsonHandler<Object, Object> handler;
   private Reader reader;
@@ -42,6 +46,19 @@ public class JsonParser {
   private int lineOffset;
   private StringBuilder captureBuffer;
   private int current;
+  private NameTable names;
+  private boolean skipUnknownNames;
+  private int nameOrdinal;
+  private BooleanSupplier cancellation;
+  private ValueDeduplicator deduplicator;
+  private StringCache stringCache;
+  private int cancellationCountdown;
+  /*
+   * Collects the interleaved names and values of all objects and the elements of all arrays that are currently read by
+   * the direct DOM path so that each object and array is created with the exact size.
+   */
+  private Object[] memberStack;
+  private int memberStackSize;
 
   /*
    * |                      bufferOffset
@@ -70,6 +87,73 @@ public class JsonParser {
     handler.parser = this;
   }
 
+  /**
+   * Creates a new JsonParser without a handler.
+   * <p>
+   *   Such a parser can only be used for the internal parsing modes that do not report any events.
+   * </p>
+   *
+   * @since 0.8.0
+   */
+  JsonParser() {
+    handler = null;
+  }
+
+  /**
+   * Sets the cancellation check to abort parsing with.
+   * <p>
+   *   The check is consulted cooperatively whenever the input buffer is refilled and at regular intervals when
+   *   entering arrays and objects, but not for every single character.
+   *   As soon as it returns {@code true}, parsing is aborted with a {@link ParseCancelledException} that contains the
+   *   location the parser has reached.
+   *   Use {@link #timeout(long, TimeUnit)} to enforce a time budget.
+   * </p>
+   *
+   * @param cancellation the check that returns {@code true} if parsing should be aborted, or {@code null} to never
+   *                     abort parsing
+   * @since 0.8.0
+   */
+  public void setCancellation(BooleanSupplier cancellation) {
+    this.cancellation = cancellation;
+  }
+
+  /*
+   * Sets the deduplicator to share equal values of the documents created by parseValue(), null to not share them.
+   */
+  void setDeduplicator(ValueDeduplicator deduplicator) {
+    this.deduplicator = deduplicator;
+  }
+
+  /*
+   * Sets the cache to look up the string values of the documents created by parseValue() in, null to not cache them.
+   */
+  void setStringCache(StringCache stringCache) {
+    this.stringCache = stringCache;
+  }
+
+  /**
+   * Returns a cancellation check that reports to abort parsing once the given time has elapsed.
+   * <p>
+   *   The time budget starts when this method is called, not when parsing starts.
+   * </p>
+   *
+   * @param timeout the maximum time to spend
+   * @param unit the time unit of the timeout
+   * @return a cancellation check for {@link #setCancellation(BooleanSupplier)}
+   * @since 0.8.0
+   */
+  public static BooleanSupplier timeout(long timeout, TimeUnit unit) {
+    if (unit == null) {
+      throw new NullPointerException("unit is null");
+    }
+    final long deadline = System.nanoTime() + unit.toNanos(timeout);
+    return new BooleanSupplier() {
+      public boolean getAsBoolean() {
+        return System.nanoTime() - deadline >= 0;
+      }
+    };
+  }
+
   /**
    * Parses the given input string.
    * <p>
@@ -84,9 +168,8 @@ public class JsonParser {
     if (string == null) {
       throw new NullPointerException("string is null");
     }
-    int bufferSize = Math.max(MIN_BUFFER_SIZE, Math.min(DEFAULT_BUFFER_SIZE, string.length()));
     try {
-      parse(new StringReader(string), bufferSize);
+      parse(new StringReader(string), bufferSizeFor(string));
     } catch (IOException exception) {
       /* StringReader does not throw IOException */
       throw new RuntimeException(exception);
@@ -132,6 +215,97 @@ public class JsonParser {
    * @since 0.8.0
    */
   public void parse(Reader reader, int bufferSize) throws IOException {
+    begin(reader, bufferSize);
+    names = handler.names;
+    skipUnknownNames = handler.skipUnknownNames;
+    readValue();
+    end();
+  }
+
+  /**
+   * Parses the given input string into a JSON value without reporting any events.
+   *
+   * @param string The input string, <strong>MUST</strong> be valid JSON
+   * @return the parsed JSON value
+   * @throws ParseException if the input is not valid JSON
+   * @see #parseValue(Reader, int)
+   * @since 0.8.0
+   */
+  JsonValue parseValue(String string) {
+    if (string == null) {
+      throw new NullPointerException("string is null");
+    }
+    try {
+      return parseValue(new StringReader(string), bufferSizeFor(string));
+    } catch (IOException exception) {
+      /* StringReader does not throw IOException */
+      throw new RuntimeException(exception);
+    }
+  }
+
+  /**
+   * Reads the entire input from the given reader and parses it into a JSON value without reporting any events.
+   * <p>
+   *   The values are created directly while reading the input instead of being assembled through the callbacks of a
+   *   {@link JsonHandler}, which avoids the dispatch overhead for every single value.
+   *   The resulting value is equal to the one created by the default handler of {@link Json#parse(Reader)}.
+   * </p>
+   *
+   * @param reader The reader to read the input from
+   * @param bufferSize The size of the input buffer in chars
+   * @return the parsed JSON value
+   * @throws IOException if an I/O error occurs in the reader
+   * @throws ParseException if the input is not valid JSON
+   * @since 0.8.0
+   */
+  JsonValue parseValue(Reader reader, int bufferSize) throws IOException {
+    begin(reader, bufferSize);
+    JsonValue value = readJsonValue();
+    end();
+    return value;
+  }
+
+  /**
+   * Validates the given input string without reporting any events.
+   *
+   * @param string The input string to validate
+   * @throws ParseException if the input is not valid JSON
+   * @see #validate(Reader, int)
+   * @since 0.8.0
+   */
+  void validate(String string) {
+    if (string == null) {
+      throw new NullPointerException("string is null");
+    }
+    try {
+      validate(new StringReader(string), bufferSizeFor(string));
+    } catch (IOException exception) {
+      /* StringReader does not throw IOException */
+      throw new RuntimeException(exception);
+    }
+  }
+
+  /**
+   * Reads the entire input from the given reader and validates it as JSON without reporting any events.
+   * <p>
+   *   This applies the same grammar checks as the {@code parse} methods, but neither captures strings and numbers nor
+   *   dispatches to a handler.
+   *   Apart from the input buffer no objects are allocated unless the input is invalid.
+   * </p>
+   *
+   * @param reader The reader to read the input from
+   * @param bufferSize The size of the input buffer in chars
+   * @throws IOException if an I/O error occurs in the reader
+   * @throws ParseException if the input is not valid JSON
+   * @since 0.8.0
+   */
+  void validate(Reader reader, int bufferSize) throws IOException {
+    begin(reader, bufferSize);
+    skipValue();
+    end();
+  }
+
+  private void begin(Reader reader, int bufferSize) throws IOException {
     if (reader == null) {
       throw new NullPointerException("reader is null");
     }
@@ -147,9 +321,14 @@ public class JsonParser {
     lineOffset = 0;
     current = 0;
     captureStart = -1;
+    nestingLevel = 0;
+    memberStackSize = 0;
+    cancellationCountdown = CANCELLATION_CHECK_INTERVAL;
     read();
     skipWhiteSpace();
-    readValue();
+  }
+
+  private void end() throws IOException {
     skipWhiteSpace();
     if (!isEndOfText()) {
       throw error("Unexpected character");
@@ -196,6 +375,7 @@ public class JsonParser {
 
   private void readArray() throws IOException {
     Object array = handler.startArray();
+    countContainer();
     read();
     if (++nestingLevel > MAX_NESTING_LEVEL) {
       throw error("Nesting too deep");
@@ -222,6 +402,7 @@ public class JsonParser {
 
   private void readObject() throws IOException {
     Object object = handler.startObject();
+    countContainer();
     read();
     if (nestingLevel++ >= MAX_NESTING_LEVEL) {
       throw error("Nesting too deep");
@@ -235,8 +416,18 @@ public class JsonParser {
     do {
       skipWhiteSpace();
       handler.startObjectName(object);
-      String name = readName();
-      handler.endObjectName(object, name);
+      String name;
+      if (names == null) {
+        name = readName();
+        handler.endObjectName(object, name);
+      } else {
+        name = readName(names);
+        if (name == null) {
+          skipMemberValue();
+          continue;
+        }
+        handler.endObjectName(object, name, nameOrdinal);
+      }
       skipWhiteSpace();
       if (!readChar(':')) {
         throw expected("':'");
@@ -254,6 +445,368 @@ public class JsonParser {
     handler.endObject(object);
   }
 
+  /*
+   * Reads a name and looks it up in the given table, storing its ordinal in nameOrdinal.
+   * When the complete name is available in the buffer without any escape sequences, its hash is computed while
+   * scanning and a known name is returned as the instance from the table without capturing anything.
+   * Returns null for unknown names that are to be skipped.
+   */
+  private String readName(NameTable table) throws IOException {
+    if (current != '"') {
+      throw expected("name");
+    }
+    char[] chars = buffer;
+    int start = index;
+    int end = fill;
+    int hash = 0;
+    int i = start;
+    while (i < end) {
+      char ch = chars[i];
+      if (ch == '"' || ch == '\\' || ch < 0x20) {
+        break;
+      }
+      hash = 31 * hash + ch;
+      i++;
+    }
+    String name;
+    if (i < end && chars[i] == '"') {
+      nameOrdinal = table.ordinal(chars, start, i - start, hash);
+      if (nameOrdinal != -1) {
+        name = table.name(nameOrdinal);
+      } else {
+        name = skipUnknownNames ? null : new String(chars, start, i - start);
+      }
+      index = i + 1;
+      read();
+      return name;
+    }
+    name = readStringInternal();
+    nameOrdinal = table.ordinal(name);
+    if (nameOrdinal != -1) {
+      return table.name(nameOrdinal);
+    }
+    return skipUnknownNames ? null : name;
+  }
+
+  private void skipMemberValue() throws IOException {
+    skipWhiteSpace();
+    if (!readChar(':')) {
+      throw expected("':'");
+    }
+    skipWhiteSpace();
+    skipValue();
+    skipWhiteSpace();
+  }
+
+  private JsonValue readJsonValue() throws IOException {
+    switch (current) {
+      case 'n':
+        skipNull();
+        return Json.NULL;
+      case 't':
+        skipTrue();
+        return Json.TRUE;
+      case 'f':
+        skipFalse();
+        return Json.FALSE;
+      case '"':
+        if (stringCache != null) {
+          return readCachedString();
+        }
+        String string = readStringInternal();
+        return deduplicator != null ? deduplicator.string(string) : new JsonString(string);
+      case '[':
+        return deduplicate(readJsonArray());
+      case '{':
+        return deduplicate(readJsonObject(null, null));
+      case '-':
+      case '0':
+      case '1':
+      case '2':
+      case '3':
+      case '4':
+      case '5':
+      case '6':
+      case '7':
+      case '8':
+      case '9':
+        startCapture();
+        skipNumber();
+        String number = endCapture();
+        return deduplicator != null ? deduplicator.number(number) : new JsonNumber(number);
+      default:
+        throw expected("value");
+    }
+  }
+
+  private JsonValue deduplicate(JsonValue value) {
+    return deduplicator != null ? deduplicator.subtree(value) : value;
+  }
+
+  private JsonArray readJsonArray() throws IOException {
+    countContainer();
+    read();
+    if (++nestingLevel > MAX_NESTING_LEVEL) {
+      throw error("Nesting too deep");
+    }
+    skipWhiteSpace();
+    if (readChar(']')) {
+      nestingLevel--;
+      return new JsonArray();
+    }
+    int start = memberStackSize;
+    /* Large arrays are moved off the stack into their storage to keep the stack small. */
+    ArrayStorage storage = null;
+    String[] shape = null;
+    ObjectShape objectShape = null;
+    do {
+      skipWhiteSpace();
+      JsonValue value;
+      if (current == '{') {
+        JsonObject object = readJsonObject(shape, objectShape);
+        shape = nextShape(object, shape);
+        objectShape = object.shape();
+        value = deduplicate(object);
+      } else {
+        value = readJsonValue();
+      }
+      if (storage != null) {
+        storage = storage.add(value);
+      } else {
+        pushMember(value);
+        if (memberStackSize - start == ArrayStorage.CHUNKED_THRESHOLD) {
+          storage = popElements(start);
+        }
+      }
+      skipWhiteSpace();
+    } while (readChar(','));
+    if (!readChar(']')) {
+      throw expected("',' or ']'");
+    }
+    nestingLevel--;
+    if (storage == null) {
+      storage = popElements(start);
+    }
+    storage.trimToSize();
+    return JsonArray.withStorage(storage);
+  }
+
+  private ArrayStorage popElements(int start) {
+    ArrayStorage storage = ArrayStorage.of(memberStack, start, memberStackSize - start);
+    Arrays.fill(memberStack, start, memberStackSize, null);
+    memberStackSize = start;
+    return storage;
+  }
+
+  /*
+   * Reads an object whose names are predicted by the given shape, the names of the previous sibling object in the
+   * same array.
+   * Names that match their prediction are not parsed but reuse the predicted string instance.
+   * When the object has the same names as its sibling, the object shape of the sibling is reused without looking up
+   * any transitions.
+   */
+  private JsonObject readJsonObject(String[] shape, ObjectShape objectShape) throws IOException {
+    countContainer();
+    read();
+    if (nestingLevel++ >= MAX_NESTING_LEVEL) {
+      throw error("Nesting too deep");
+    }
+    skipWhiteSpace();
+    if (readChar('}')) {
+      nestingLevel--;
+      return new JsonObject();
+    }
+    int start = memberStackSize;
+    int count = 0;
+    do {
+      skipWhiteSpace();
+      String name = shape != null && count < shape.length ? readName(shape[count]) : readName();
+      skipWhiteSpace();
+      if (!readChar(':')) {
+        throw expected("':'");
+      }
+      skipWhiteSpace();
+      pushMember(name);
+      pushMember(readJsonValue());
+      skipWhiteSpace();
+      count++;
+    } while (readChar(','));
+    if (!readChar('}')) {
+      throw expected("',' or '}'");
+    }
+    nestingLevel--;
+    if (objectShape == null || !objectShape.hasNames(memberStack, start, count)) {
+      objectShape = ObjectShape.of(memberStack, start, count);
+    }
+    JsonValue[] values = new JsonValue[count];
+    for (int i = 0; i < count; i++) {
+      values[i] = (JsonValue)memberStack[start + (i << 1) + 1];
+    }
+    Arrays.fill(memberStack, start, memberStackSize, null);
+    memberStackSize = start;
+    return new JsonObject(objectShape, values);
+  }
+
+  private void pushMember(Object member) {
+    if (memberStack == null) {
+      memberStack = new Object[32];
+    } else if (memberStackSize == memberStack.length) {
+      memberStack = Arrays.copyOf(memberStack, memberStackSize * 2);
+    }
+    memberStack[memberStackSize++] = member;
+  }
+
+  /*
+   * Returns the shape to predict the names of the next sibling object.
+   * The given shape is kept when the object has exactly the predicted names so that a series of same-shaped objects
+   * does not allocate anything.
+   * Names that contain characters which need to be escaped are never predicted since their input representation
+   * differs from the name itself.
+   */
+  private static String[] nextShape(JsonObject object, String[] shape) {
+    int size = object.size();
+    if (shape != null && shape.length == size) {
+      int i = 0;
+      while (i < size && (object.name(i) == shape[i] || shape[i] == null && !isPlainName(object.name(i)))) {
+        i++;
+      }
+      if (i == size) {
+        return shape;
+      }
+    }
+    String[] names = new String[size];
+    for (int i = 0; i < size; i++) {
+      String name = object.name(i);
+      names[i] = isPlainName(name) ? name : null;
+    }
+    return names;
+  }
+
+  private static boolean isPlainName(String name) {
+    for (int i = 0; i < name.length(); i++) {
+      char ch = name.charAt(i);
+      if (ch == '"' || ch == '\\' || ch < 0x20) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /*
+   * Reads a name that is expected to be equal to the given one.
+   * When the complete name is available in the buffer and matches the expectation char by char, the expected
+   * instance is returned without capturing anything, otherwise the name is parsed as usual.
+   */
+  private String readName(String expected) throws IOException {
+    if (expected != null && current == '"') {
+      int start = index;
+      int end = start + expected.length();
+      if (end < fill && buffer[end] == '"') {
+        int i = start;
+        while (i < end && buffer[i] == expected.charAt(i - start)) {
+          i++;
+        }
+        if (i == end) {
+          index = end + 1;
+          read();
+          return expected;
+        }
+      }
+    }
+    return readName();
+  }
+
+  private void skipValue() throws IOException {
+    switch (current) {
+      case 'n':
+        skipNull();
+        break;
+      case 't':
+        skipTrue();
+        break;
+      case 'f':
+        skipFalse();
+        break;
+      case '"':
+        skipString();
+        break;
+      case '[':
+        skipArray();
+        break;
+      case '{':
+        skipObject();
+        break;
+      case '-':
+      case '0':
+      case '1':
+      case '2':
+      case '3':
+      case '4':
+      case '5':
+      case '6':
+      case '7':
+      case '8':
+      case '9':
+        skipNumber();
+        break;
+      default:
+        throw expected("value");
+    }
+  }
+
+  private void skipArray() throws IOException {
+    countContainer();
+    read();
+    if (++nestingLevel > MAX_NESTING_LEVEL) {
+      throw error("Nesting too deep");
+    }
+    skipWhiteSpace();
+    if (readChar(']')) {
+      nestingLevel--;
+      return;
+    }
+    do {
+      skipWhiteSpace();
+      skipValue();
+      skipWhiteSpace();
+    } while (readChar(','));
+    if (!readChar(']')) {
+      throw expected("',' or ']'");
+    }
+    nestingLevel--;
+  }
+
+  private void skipObject() throws IOException {
+    countContainer();
+    read();
+    if (nestingLevel++ >= MAX_NESTING_LEVEL) {
+      throw error("Nesting too deep");
+    }
+    skipWhiteSpace();
+    if (readChar('}')) {
+      nestingLevel--;
+      return;
+    }
+    do {
+      skipWhiteSpace();
+      if (current != '"') {
+        throw expected("name");
+      }
+      skipString();
+      skipWhiteSpace();
+      if (!readChar(':')) {
+        throw expected("':'");
+      }
+      skipWhiteSpace();
+      skipValue();
+      skipWhiteSpace();
+    } while (readChar(','));
+    if (!readChar('}')) {
+      throw expected("',' or '}'");
+    }
+    nestingLevel--;
+  }
+
   private String readName() throws IOException {
     if (current != '"') {
       throw expected("name");
@@ -263,30 +816,42 @@ public class JsonParser {
 
   private void readNull() throws IOException {
     handler.startNull();
+    skipNull();
+    handler.endNull();
+  }
+
+  private void readTrue() throws IOException {
+    handler.startBoolean();
+    skipTrue();
+    handler.endBoolean(true);
+  }
+
+  private void readFalse() throws IOException {
+    handler.startBoolean();
+    skipFalse();
+    handler.endBoolean(false);
+  }
+
+  private void skipNull() throws IOException {
     read();
     readRequiredChar('u');
     readRequiredChar('l');
     readRequiredChar('l');
-    handler.endNull();
   }
 
-  private void readTrue() throws IOException {
-    handler.startBoolean();
+  private void skipTrue() throws IOException {
     read();
     readRequiredChar('r');
     readRequiredChar('u');
     readRequiredChar('e');
-    handler.endBoolean(true);
   }
 
-  private void readFalse() throws IOException {
-    handler.startBoolean();
+  private void skipFalse() throws IOException {
     read();
     readRequiredChar('a');
     readRequiredChar('l');
     readRequiredChar('s');
     readRequiredChar('e');
-    handler.endBoolean(false);
   }
 
   private void readRequiredChar(char ch) throws IOException {
@@ -311,6 +876,7 @@ public class JsonParser {
       } else if (current < 0x20) {
         throw expected("valid string character");
       } else {
+        skipPlainChars();
         read();
       }
     }
@@ -319,6 +885,95 @@ public class JsonParser {
     return string;
   }
 
+  /*
+   * Reads a string value through the string cache.
+   * Like readName(NameTable), the hash is computed while scanning a string that is completely available in the buffer
+   * without any escape sequences, so the cache is consulted before a string is created.
+   */
+  private JsonValue readCachedString() throws IOException {
+    char[] chars = buffer;
+    int start = index;
+    int end = fill;
+    int hash = 0;
+    int i = start;
+    while (i < end) {
+      char ch = chars[i];
+      if (ch == '"' || ch == '\\' || ch < 0x20) {
+        break;
+      }
+      hash = 31 * hash + ch;
+      i++;
+    }
+    if (i < end && chars[i] == '"') {
+      JsonValue value = stringCache.value(chars, start, i - start, hash);
+      index = i + 1;
+      read();
+      return value;
+    }
+    return stringCache.value(readStringInternal());
+  }
+
+  private void skipString() throws IOException {
+    read();
+    while (current != '"') {
+      if (current == '\\') {
+        skipEscape();
+      } else if (current < 0x20) {
+        throw expected("valid string character");
+      } else {
+        skipPlainChars();
+        read();
+      }
+    }
+    read();
+  }
+
+  /*
+   * Advances the index over all unescaped string characters that are already available in the buffer, so that the
+   * common case of plain string content is scanned without the per character overhead of read().
+   * The current character remains the last skipped one which is neither a line feed nor a character that requires
+   * any special handling.
+   */
+  private void skipPlainChars() {
+    char[] chars = buffer;
+    int end = fill;
+    int i = index;
+    while (i < end) {
+      char ch = chars[i];
+      if (ch == '"' || ch == '\\' || ch < 0x20) {
+        break;
+      }
+      i++;
+    }
+    index = i;
+  }
+
+  private void skipEscape() throws IOException {
+    read();
+    switch (current) {
+      case '"':
+      case '/':
+      case '\\':
+      case 'b':
+      case 'f':
+      case 'n':
+      case 'r':
+      case 't':
+        break;
+      case 'u':
+        for (int i = 0; i < 4; i++) {
+          read();
+          if (!isHexDigit()) {
+            throw expected("hexadecimal digit");
+          }
+        }
+        break;
+      default:
+        throw expected("valid escape sequence");
+    }
+    read();
+  }
+
   private void readEscape() throws IOException {
     read();
     switch (current) {
@@ -362,6 +1017,11 @@ public class JsonParser {
   private void readNumber() throws IOException {
     handler.startNumber();
     startCapture();
+    skipNumber();
+    handler.endNumber(endCapture());
+  }
+
+  private void skipNumber() throws IOException {
     readChar('-');
     int firstDigit = current;
     if (!readDigit()) {
@@ -373,7 +1033,6 @@ public class JsonParser {
     }
     readFraction();
     readExponent();
-    handler.endNumber(endCapture());
   }
 
   private boolean readFraction() throws IOException {
@@ -427,6 +1086,9 @@ public class JsonParser {
 
   private void read() throws IOException {
     if (index == fill) {
+      if (cancellation != null && fill > 0) {
+        checkCancellation();
+      }
       if (captureStart != -1) {
         captureBuffer.append(buffer, captureStart, fill - captureStart);
         captureStart = 0;
@@ -447,6 +1109,21 @@ public class JsonParser {
     current = buffer[index++];
   }
 
+  private void countContainer() {
+    if (--cancellationCountdown < 0) {
+      cancellationCountdown = CANCELLATION_CHECK_INTERVAL;
+      if (cancellation != null) {
+        checkCancellation();
+      }
+    }
+  }
+
+  private void checkCancellation() {
+    if (cancellation.getAsBoolean()) {
+      throw new ParseCancelledException(getLocation());
+    }
+  }
+
   private void startCapture() {
     if (captureBuffer == null) {
       captureBuffer = new StringBuilder();
@@ -473,6 +1150,10 @@ public class JsonParser {
     return new String(buffer, start, end - start);
   }
 
+  private static int bufferSizeFor(String string) {
+    return Math.max(MIN_BUFFER_SIZE, Math.min(DEFAULT_BUFFER_SIZE, string.length()));
+  }
+
   /**
    * @since 0.8.0
    */
@@ -29,6 +29,7 @@ class JsonString extends JsonValue {
    * @param string the JSON string to be literalized
    */
   JsonString(String string) {
+    super(JsonType.STRING);
     if (string == null) {
       throw new NullPointerException("string is null");
     }
@@ -55,6 +56,16 @@ class JsonString extends JsonValue {
     return string;
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * @since 0.8.0
+   */
+  @Override
+  public long estimatedRetainedSize() {
+    return RetainedSize.instance(1, 0) + RetainedSize.string(string);
+  }
+
   @Override
   public int hashCode() {
     return string.hashCode();
@@ -0,0 +1,124 @@
+/*
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+title      JSON Traversal                                  +
+project    icecore-json                                    +
+version    0.8.0-frost.1                                   +
+repository https://github.com/arcticicestudio/icecore-json +
+author     Arctic Ice Studio                               +
+email      development@arcticicestudio.com                 +
+copyright  Copyright (C) 2016                              +
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+*/
+package com.arcticicestudio.icecore.json;
+
+import java.util.Arrays;
+
+/**
+ * Walks a JSON tree with an explicit stack and reports its values to a {@link JsonVisitor}.
+ * <p>
+ *   Each entered object or array occupies one frame of the stack which stores the container, the source of its
+ *   members or elements and the index of the next one to visit.
+ *   The frames are kept in parallel arrays that only grow with the depth of the tree, hence the traversal does not
+ *   allocate anything per visited value.
+ * </p>
+ *
+ * @author Arctic Ice Studio &lt;development@arcticicestudio.com&gt;
+ * @see JsonValue#accept(JsonVisitor)
+ * @since 0.8.0
+ */
+final class JsonTraversal {
+
+  private static final int INITIAL_DEPTH = 16;
+
+  private final JsonVisitor visitor;
+  private JsonValue[] containers = new JsonValue[INITIAL_DEPTH];
+  /* The snapshot of an object's members or the storage of an array. */
+  private Object[] sources = new Object[INITIAL_DEPTH];
+  private int[] indexes = new int[INITIAL_DEPTH];
+  private int[] sizes = new int[INITIAL_DEPTH];
+  private int depth;
+
+  JsonTraversal(JsonVisitor visitor) {
+    this.visitor = visitor;
+  }
+
+  /**
+   * Visits the given value and all nested values.
+   *
+   * @param root the value to start at
+   */
+  void traverse(JsonValue root) {
+    enter(root);
+    while (depth > 0) {
+      int top = depth - 1;
+      int index = indexes[top];
+      if (index == sizes[top]) {
+        leave(top);
+        continue;
+      }
+      indexes[top] = index + 1;
+      JsonValue value;
+      if (containers[top].getType() == JsonType.OBJECT) {
+        JsonObject object = (JsonObject)sources[top];
+        value = object.value(index);
+        if (!visitor.enterMember(object.name(index), value)) {
+          continue;
+        }
+      } else {
+        value = ((ArrayStorage)sources[top]).get(index);
+        if (!visitor.enterElement(index, value)) {
+          continue;
+        }
+      }
+      enter(value);
+    }
+  }
+
+  private void enter(JsonValue value) {
+    switch (value.getType()) {
+      case OBJECT:
+        JsonObject object = (JsonObject)value;
+        if (visitor.enterObject(object)) {
+          JsonObject snapshot = object.snapshot();
+          push(object, snapshot, snapshot.size());
+        }
+        break;
+      case ARRAY:
+        JsonArray array = (JsonArray)value;
+        if (visitor.enterArray(array)) {
+          ArrayStorage storage = array.storage();
+          push(array, storage, storage.size());
+        }
+        break;
+      default:
+        visitor.visitValue(value);
+    }
+  }
+
+  private void push(JsonValue container, Object source, int size) {
+    if (depth == containers.length) {
+      int capacity = depth << 1;
+      containers = Arrays.copyOf(containers, capacity);
+      sources = Arrays.copyOf(sources, capacity);
+      indexes = Arrays.copyOf(indexes, capacity);
+      sizes = Arrays.copyOf(sizes, capacity);
+    }
+    containers[depth] = container;
+    sources[depth] = source;
+    indexes[depth] = 0;
+    sizes[depth] = size;
+    depth++;
+  }
+
+  private void leave(int top) {
+    JsonValue container = containers[top];
+    containers[top] = null;
+    sources[top] = null;
+    depth = top;
+    if (container.getType() == JsonType.OBJECT) {
+      visitor.leaveObject((JsonObject)container);
+    } else {
+      visitor.leaveArray((JsonArray)container);
+    }
+  }
+}
@@ -0,0 +1,64 @@
+/*
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+title      JSON Type                                       +
+project    icecore-json                                    +
+version    0.8.0-frost.1                                   +
+repository https://github.com/arcticicestudio/icecore-json +
+author     Arctic Ice Studio                               +
+email      development@arcticicestudio.com                 +
+copyright  Copyright (C) 2016                              +
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+*/
+package com.arcticicestudio.icecore.json;
+
+/**
+ * Represents the type of a JSON value.
+ * <p>
+ *   The type of a value is returned by {@link JsonValue#getType()}, which allows to process values of any type with a
+ *   single {@code switch} instead of a sequence of {@code isObject()}, {@code isArray()}, {@code isString()} etc.:
+ * </p>
+ * <pre>
+ * switch (value.getType()) {
+ *   case OBJECT: ...
+ *   case ARRAY: ...
+ *   case STRING: ...
+ *   ...
+ * }
+ * </pre>
+ *
+ * @author Arctic Ice Studio &lt;development@arcticicestudio.com&gt;
+ * @see JsonValue#getType()
+ * @since 0.8.0
+ */
+public enum JsonType {
+
+  /**
+   * The type of {@link JsonObject JSON objects}.
+   */
+  OBJECT,
+
+  /**
+   * The type of {@link JsonArray JSON arrays}.
+   */
+  ARRAY,
+
+  /**
+   * The type of JSON strings.
+   */
+  STRING,
+
+  /**
+   * The type of JSON numbers.
+   */
+  NUMBER,
+
+  /**
+   * The type of the literals {@link Json#TRUE} and {@link Json#FALSE}.
+   */
+  BOOLEAN,
+
+  /**
+   * The type of the literal {@link Json#NULL}.
+   */
+  NULL
+}
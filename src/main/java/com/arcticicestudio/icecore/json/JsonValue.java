@@ -42,6 +42,7 @@ import java.io.Writer;
  * <p>
  *   In order to find out whether an instance of this class is of a certain type, the methods {@link #isObject()},
  *   {@link #isArray()}, {@link #isString()}, {@link #isNumber()} etc. can be used.
+ *   To process values of all types, a single {@code switch} on the {@link #getType() type} is more efficient.
  * </p>
  * <p>
  *   If the type of a JSON value is known, the methods {@link #asObject()}, {@link #asArray()}, {@link #asString()},
@@ -56,10 +57,28 @@ import java.io.Writer;
  */
 public abstract class JsonValue implements Serializable {
 
+  private final JsonType type;
+
   /*
    * Prevents subclasses outside of this package.
    */
-  JsonValue() {}
+  JsonValue(JsonType type) {
+    this.type = type;
+  }
+
+  /**
+   * Returns the type of this value.
+   * <p>
+   *   The type is stored in a final field when the value is created, hence this method is as cheap as a field access
+   *   and allows to dispatch on the type of a value with a single {@code switch} statement.
+   * </p>
+   *
+   * @return the type of this value
+   * @since 0.8.0
+   */
+  public final JsonType getType() {
+    return type;
+  }
 
   /**
    * Detects whether this value represents a JSON object.
@@ -341,6 +360,69 @@ public abstract class JsonValue implements Serializable {
     return writer.toString();
   }
 
+  /**
+   * Returns a deeply immutable copy of this value that is optimized for reading.
+   * <p>
+   *   Frozen objects and arrays store their members and elements in arrays of the exact size and cache their hash
+   *   code.
+   *   Frozen objects look up names in a hash table which is made large enough for each name to get its own slot, so
+   *   a lookup usually compares a single name only.
+   *   All state of a frozen value is referenced by final fields, hence it is safely published to other threads even
+   *   without any synchronization.
+   *   Attempts to modify a frozen value result in an {@link UnsupportedOperationException}.
+   * </p>
+   * <p>
+   *   Strings, numbers and literals are immutable already and return themselves, as do frozen values.
+   * </p>
+   *
+   * @return a frozen copy of this value
+   * @since 0.8.0
+   */
+  public JsonValue freeze() {
+    return this;
+  }
+
+  /**
+   * Visits this value and all nested values with the given visitor.
+   * <p>
+   *   The values are visited in document order as described for {@link JsonVisitor}.
+   *   The tree is traversed without recursion, so values of any depth can be visited.
+   * </p>
+   *
+   * @param visitor the visitor to call for every value
+   * @since 0.8.0
+   */
+  public void accept(JsonVisitor visitor) {
+    if (visitor == null) {
+      throw new NullPointerException("visitor is null");
+    }
+    new JsonTraversal(visitor).traverse(this);
+  }
+
+  /**
+   * Returns an estimate of the number of bytes of heap memory that is retained by this value.
+   * <p>
+   *   The estimate includes this value and everything that it references exclusively: the characters of strings and
+   *   numbers as well as all members and elements of objects and arrays together with the internal arrays and index
+   *   tables that store them.
+   *   It excludes instances that are shared by design, like the literals {@link Json#NULL}, {@link Json#TRUE} and
+   *   {@link Json#FALSE} or the member names that are shared between objects with the same names, but counts values
+   *   that occur multiple times in a document for each occurrence.
+   * </p>
+   * <p>
+   *   The sizes are those of a 64-bit JVM with compressed references, so the estimate is suitable to weigh cached
+   *   documents against each other and against a memory budget rather than to measure the exact heap usage.
+   *   It is computed in a single pass over all nested values, so it is cheap compared to parsing the value.
+   *   See {@link Json#weigher()} to weigh values in a cache.
+   * </p>
+   *
+   * @return the estimated number of bytes retained by this value
+   * @since 0.8.0
+   */
+  public long estimatedRetainedSize() {
+    return 0;
+  }
+
   /**
    * Indicates whether some other object is <em>equal to</em> this one.
    * <p>
@@ -366,4 +448,53 @@ public abstract class JsonValue implements Serializable {
    * @since 0.5.0
    */
   abstract void write(JsonWriter writer) throws IOException;
+
+  /*
+   * Compares nested values of objects and arrays by their type first, so that values of different types are never
+   * compared.
+   * Each type casts to its only class, so that every call site below only ever sees a single receiver class instead
+   * of all kinds of values like a call of equals() or toString() on JsonValue.
+   */
+  static boolean equal(JsonValue value, JsonValue other) {
+    if (value == other) {
+      return true;
+    }
+    if (value.type != other.type) {
+      return false;
+    }
+    switch (value.type) {
+      case STRING:
+        return ((JsonString)value).asString().equals(((JsonString)other).asString());
+      case NUMBER:
+        return ((JsonNumber)value).toString().equals(((JsonNumber)other).toString());
+      case BOOLEAN:
+        return ((JsonLiteral)value).isTrue() == ((JsonLiteral)other).isTrue();
+      case NULL:
+        return true;
+      default:
+        return value.equals(other);
+    }
+  }
+
+  /*
+   * Returns an immutable value that is equal to this value, converting objects and arrays into persistent ones.
+   * All other values are immutable already.
+   */
+  JsonValue toPersistent() {
+    return this;
+  }
+
+  /*
+   * Returns whether this value and all nested values can never change, so that their hash codes can be cached.
+   */
+  boolean isImmutable() {
+    return true;
+  }
+
+  /*
+   * Returns the cached hash code of this value, 0 if it is not known without computing it.
+   */
+  int cachedHashCode() {
+    return 0;
+  }
 }
\ No newline at end of file
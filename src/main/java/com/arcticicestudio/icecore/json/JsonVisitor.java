@@ -0,0 +1,118 @@
+/*
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+title      JSON Visitor                                    +
+project    icecore-json                                    +
+version    0.8.0-frost.1                                   +
+repository https://github.com/arcticicestudio/icecore-json +
+author     Arctic Ice Studio                               +
+email      development@arcticicestudio.com                 +
+copyright  Copyright (C) 2016                              +
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+*/
+package com.arcticicestudio.icecore.json;
+
+/**
+ * A visitor of the values of a JSON tree.
+ * <p>
+ *   Instances of this class can be given to {@link JsonValue#accept(JsonVisitor)}, which walks the tree in document
+ *   order and calls the methods of the visitor for every value.
+ *   The tree is traversed with an explicit stack instead of recursion, so trees of any depth can be visited without
+ *   overflowing the call stack, and no objects are allocated per visited value apart from the number values of
+ *   arrays that store their numbers as primitives.
+ * </p>
+ * <p>
+ *   The default implementations of these methods do nothing and visit all values.
+ *   Subclasses may override only those methods they are interested in.
+ *   The {@code enter*} methods can return {@code false} to prune the entered object, array or member, whose nested
+ *   values are then skipped entirely.
+ *   The corresponding {@code leave*} method is only called for objects and arrays that have been entered.
+ *   Example of the calls for a visited document:
+ * </p>
+ * <pre>
+ * {"a": [1, true]}
+ * enterObject({"a": [1, true]})
+ *   enterMember("a", [1, true])
+ *     enterArray([1, true])
+ *       enterElement(0, 1)
+ *         visitValue(1)
+ *       enterElement(1, true)
+ *         visitValue(true)
+ *     leaveArray([1, true])
+ * leaveObject({"a": [1, true]})
+ * </pre>
+ * <p>
+ *   Objects and arrays <strong>MUST NOT</strong> be modified while they are visited.
+ *   Concurrent objects (see {@link JsonObject#concurrentObject(JsonObject)}) are visited as the snapshot of their
+ *   members at the time they are entered.
+ * </p>
+ *
+ * @author Arctic Ice Studio &lt;development@arcticicestudio.com&gt;
+ * @see JsonValue#accept(JsonVisitor)
+ * @since 0.8.0
+ */
+public abstract class JsonVisitor {
+
+  /**
+   * Indicates the beginning of a JSON object.
+   *
+   * @param object the object to visit
+   * @return {@code true} to visit the members of the object, {@code false} to skip them
+   */
+  public boolean enterObject(JsonObject object) {
+    return true;
+  }
+
+  /**
+   * Indicates the end of a JSON object after all of its members have been visited.
+   *
+   * @param object the visited object
+   */
+  public void leaveObject(JsonObject object) {}
+
+  /**
+   * Indicates the beginning of a JSON array.
+   *
+   * @param array the array to visit
+   * @return {@code true} to visit the elements of the array, {@code false} to skip them
+   */
+  public boolean enterArray(JsonArray array) {
+    return true;
+  }
+
+  /**
+   * Indicates the end of a JSON array after all of its elements have been visited.
+   *
+   * @param array the visited array
+   */
+  public void leaveArray(JsonArray array) {}
+
+  /**
+   * Indicates a member of the current object before its value is visited.
+   *
+   * @param name the name of the member
+   * @param value the value of the member
+   * @return {@code true} to visit the value of the member, {@code false} to skip it
+   */
+  public boolean enterMember(String name, JsonValue value) {
+    return true;
+  }
+
+  /**
+   * Indicates an element of the current array before it is visited.
+   *
+   * @param index the index of the element
+   * @param value the element
+   * @return {@code true} to visit the element, {@code false} to skip it
+   */
+  public boolean enterElement(int index, JsonValue value) {
+    return true;
+  }
+
+  /**
+   * Indicates a string, number or literal.
+   * Use {@link JsonValue#getType()} to distinguish them.
+   *
+   * @param value the visited value
+   */
+  public void visitValue(JsonValue value) {}
+}
@@ -17,6 +17,7 @@ package com.arcticicestudio.icecore.json;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.Arrays;
 
 /**
  * Writes the generated JSON object.
@@ -28,6 +29,7 @@ import java.io.Writer;
 class JsonWriter {
 
   private static final int CONTROL_CHARACTERS_END = 0x001f;
+  private static final int INITIAL_DEPTH = 16;
 
   private static final char[] QUOT_CHARS = {'\\', '"'};
   private static final char[] BS_CHARS = {'\\', '\\'};
@@ -51,6 +53,95 @@ class JsonWriter {
     this.writer = writer;
   }
 
+  /*
+   * Writes a nested value with a single switch on its type, so that strings, numbers and literals are written without
+   * the virtual call of JsonValue.write() which sees all types of values at this call site.
+   */
+  final void writeValue(JsonValue value) throws IOException {
+    switch (value.getType()) {
+      case STRING:
+        writeString(value.asString());
+        break;
+      case NUMBER:
+        writeNumber(value.toString());
+        break;
+      case BOOLEAN:
+      case NULL:
+        writeLiteral(value.toString());
+        break;
+      default:
+        writeTree(value);
+    }
+  }
+
+  /*
+   * Writes the given object or array with all nested values.
+   * Instead of recursing into nested objects and arrays, the open ones are kept on an explicit stack that holds the
+   * snapshot of an object or the storage of an array together with the index of the next member or element, so values
+   * of any depth can be written.
+   * The write methods are called in exactly the same order as a recursive traversal would do.
+   */
+  final void writeTree(JsonValue root) throws IOException {
+    Object[] sources = new Object[INITIAL_DEPTH];
+    int[] indexes = new int[INITIAL_DEPTH];
+    int depth = 0;
+    JsonValue value = root;
+    while (value != null) {
+      Object source = null;
+      if (value.getType() == JsonType.OBJECT) {
+        writeObjectOpen();
+        source = ((JsonObject)value).snapshot();
+      } else if (value.getType() == JsonType.ARRAY) {
+        writeArrayOpen();
+        source = ((JsonArray)value).storage();
+      } else {
+        writeValue(value);
+      }
+      if (source != null) {
+        if (depth == sources.length) {
+          sources = Arrays.copyOf(sources, depth << 1);
+          indexes = Arrays.copyOf(indexes, depth << 1);
+        }
+        sources[depth] = source;
+        indexes[depth++] = 0;
+      }
+      value = null;
+      while (value == null && depth > 0) {
+        int top = depth - 1;
+        int index = indexes[top]++;
+        if (sources[top] instanceof JsonObject) {
+          JsonObject object = (JsonObject)sources[top];
+          if (index == object.size()) {
+            writeObjectClose();
+            sources[--depth] = null;
+          } else {
+            if (index != 0) {
+              writeObjectSeparator();
+            }
+            writeMemberName(object.name(index));
+            writeMemberSeparator();
+            value = object.value(index);
+          }
+        } else {
+          ArrayStorage storage = (ArrayStorage)sources[top];
+          if (index == storage.size()) {
+            writeArrayClose();
+            sources[--depth] = null;
+          } else {
+            if (index != 0) {
+              writeArraySeparator();
+            }
+            if (storage.isPrimitive()) {
+              storage.write(index, this);
+            } else {
+              value = storage.get(index);
+            }
+          }
+        }
+      }
+    }
+  }
+
   protected void writeLiteral(String value) throws IOException {
     writer.write(value);
   }
@@ -0,0 +1,192 @@
+/*
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+title      Name Table                                      +
+project    icecore-json                                    +
+version    0.8.0-frost.1                                   +
+repository https://github.com/arcticicestudio/icecore-json +
+author     Arctic Ice Studio                               +
+email      development@arcticicestudio.com                 +
+copyright  Copyright (C) 2016                              +
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+*/
+package com.arcticicestudio.icecore.json;
+
+/**
+ * Represents a fixed set of object member names that maps each name to its ordinal.
+ * <p>
+ *   A name table can be registered at a {@link JsonHandler} to receive the ordinal of known member names in
+ *   {@link JsonHandler#endObjectName(Object, String, int)}.
+ *   This allows to dispatch on an {@code int} instead of comparing strings:
+ * </p>
+ * <pre>
+ * static final NameTable NAMES = NameTable.of("id", "name");
+ * ...
+ * public void endObjectName(Person person, String name, int ordinal) {
+ *   switch (ordinal) {
+ *     case 0: ...
+ *     case 1: ...
+ *   }
+ * }
+ * </pre>
+ * <p>
+ *   The names are stored in a hash table whose hash function is chosen once when the table is created, so that
+ *   every name is found in its first probed slot unless two names have the same string hash code.
+ *   The parser computes the hash of a member name while scanning its characters, hence a known name is recognized
+ *   without creating a string for it.
+ * </p>
+ * <p>
+ *   Instances of this class are immutable and can be shared between multiple handlers and threads.
+ * </p>
+ *
+ * @author Arctic Ice Studio &lt;development@arcticicestudio.com&gt;
+ * @see JsonHandler#registerNames(NameTable, boolean)
+ * @since 0.8.0
+ */
+public final class NameTable {
+
+  private static final int MAX_SEED_ATTEMPTS = 64;
+  private static final int GOLDEN_RATIO = 0x9e3779b9;
+
+  private final String[] names;
+  private final String[] slotNames;
+  private final int[] slotOrdinals;
+  private final int seed;
+  private final int shift;
+
+  private NameTable(String[] names, String[] slotNames, int[] slotOrdinals, int seed, int shift) {
+    this.names = names;
+    this.slotNames = slotNames;
+    this.slotOrdinals = slotOrdinals;
+    this.seed = seed;
+    this.shift = shift;
+  }
+
+  /**
+   * Creates a new name table for the given names.
+   * <p>
+   *   The ordinal of each name is its position in the given array.
+   * </p>
+   *
+   * @param names the names to create the table for, <strong>MUST NOT</strong> contain {@code null} or duplicates
+   * @return the new name table
+   */
+  public static NameTable of(String... names) {
+    if (names == null) {
+      throw new NullPointerException("names is null");
+    }
+    String[] copy = names.clone();
+    for (int i = 0; i < copy.length; i++) {
+      if (copy[i] == null) {
+        throw new NullPointerException("name is null");
+      }
+      for (int j = 0; j < i; j++) {
+        if (copy[i].equals(copy[j])) {
+          throw new IllegalArgumentException("Duplicate name: " + copy[i]);
+        }
+      }
+    }
+    int bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(copy.length));
+    for (int extraBits = 0; extraBits < 2; extraBits++) {
+      int seed = GOLDEN_RATIO;
+      for (int attempt = 0; attempt < MAX_SEED_ATTEMPTS; attempt++) {
+        NameTable table = create(copy, seed, bits + extraBits, false);
+        if (table != null) {
+          return table;
+        }
+        seed += 2 * GOLDEN_RATIO;
+      }
+    }
+    /* Names with equal hash codes can never be separated, they are resolved by linear probing instead. */
+    return create(copy, GOLDEN_RATIO, bits + 1, true);
+  }
+
+  private static NameTable create(String[] names, int seed, int bits, boolean probe) {
+    String[] slotNames = new String[1 << bits];
+    int[] slotOrdinals = new int[1 << bits];
+    int shift = 32 - bits;
+    for (int i = 0; i < names.length; i++) {
+      int slot = (names[i].hashCode() * seed) >>> shift;
+      while (slotNames[slot] != null) {
+        if (!probe) {
+          return null;
+        }
+        slot = (slot + 1) & slotNames.length - 1;
+      }
+      slotNames[slot] = names[i];
+      slotOrdinals[slot] = i;
+    }
+    return new NameTable(names, slotNames, slotOrdinals, seed, shift);
+  }
+
+  /**
+   * Returns the ordinal of the given name.
+   *
+   * @param name the name whose ordinal is to be returned
+   * @return the ordinal of the name, or {@code -1} if the name is not contained in this table
+   */
+  public int ordinal(String name) {
+    if (name == null) {
+      throw new NullPointerException("name is null");
+    }
+    int slot = (name.hashCode() * seed) >>> shift;
+    for (String slotName = slotNames[slot]; slotName != null; slotName = slotNames[slot]) {
+      if (name.equals(slotName)) {
+        return slotOrdinals[slot];
+      }
+      slot = (slot + 1) & slotNames.length - 1;
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the ordinal of the name that consists of the given range of characters.
+   *
+   * @param chars the characters that contain the name
+   * @param offset the index of the first character of the name
+   * @param length the number of characters of the name
+   * @param hash the hash of the name as computed by {@link String#hashCode()}
+   * @return the ordinal of the name, or {@code -1} if the name is not contained in this table
+   */
+  int ordinal(char[] chars, int offset, int length, int hash) {
+    int slot = (hash * seed) >>> shift;
+    for (String name = slotNames[slot]; name != null; name = slotNames[slot]) {
+      if (regionMatches(name, chars, offset, length)) {
+        return slotOrdinals[slot];
+      }
+      slot = (slot + 1) & slotNames.length - 1;
+    }
+    return -1;
+  }
+
+  private static boolean regionMatches(String name, char[] chars, int offset, int length) {
+    if (name.length() != length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (chars[offset + i] != name.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the name with the given ordinal.
+   *
+   * @param ordinal the ordinal of the name to be returned
+   * @return the name with the given ordinal
+   * @throws IndexOutOfBoundsException if the ordinal is negative or greater than or equal to the size of this table
+   */
+  public String name(int ordinal) {
+    return names[ordinal];
+  }
+
+  /**
+   * Returns the number of names in this table.
+   *
+   * @return the number of names in this table
+   */
+  public int size() {
+    return names.length;
+  }
+}
@@ -0,0 +1,366 @@
+/*
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+title      JSON Object Shape                               +
+project    icecore-json                                    +
+version    0.8.0-frost.1                                   +
+repository https://github.com/arcticicestudio/icecore-json +
+author     Arctic Ice Studio                               +
+email      development@arcticicestudio.com                 +
+copyright  Copyright (C) 2016                              +
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+*/
+package com.arcticicestudio.icecore.json;
+
+import java.lang.ref.WeakReference;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import com.arcticicestudio.icecore.json.JsonObject.HashIndexTable;
+
+/**
+ * Represents the ordered member names of a JSON object together with the index to look them up.
+ * <p>
+ *   Like the hidden classes of JavaScript engines, shapes are <em>shared</em> by all objects with the same names in
+ *   the same order, so each object only needs to store its values.
+ *   All shared shapes are reached from the {@link #EMPTY} shape by transitions which add one name each.
+ *   The transitions are cached by the parent shape, hence objects that are built by adding the same names in the
+ *   same order end up with the same shape instance.
+ *   Shared shapes are immutable and can be used by multiple threads.
+ * </p>
+ * <p>
+ *   Objects which lose members, have more than {@link #MAX_SHARED_SIZE} members or whose names exceed the limit of
+ *   cached transitions switch to an <em>owned</em> shape that is used by this single object only and modified in
+ *   place.
+ * </p>
+ * <p>
+ *   The transitions only hold weak references to the child shapes, so shapes which are no longer used by any object
+ *   are reclaimed by the garbage collector.
+ * </p>
+ *
+ * @author Arctic Ice Studio &lt;development@arcticicestudio.com&gt;
+ * @since 0.8.0
+ */
+final class ObjectShape {
+
+  /* The number of names up to which names are looked up by a linear search instead of a hash index. */
+  static final int INDEX_THRESHOLD = 8;
+  /* Objects with more members are rarely record-like, so their shapes are never shared. */
+  static final int MAX_SHARED_SIZE = 64;
+  /* Limits the number of distinct names added to a single shared shape, e.g. for objects used as maps. */
+  static final int MAX_TRANSITIONS = 32;
+  private static final String[] NO_NAMES = {};
+  private static final AtomicReferenceFieldUpdater<ObjectShape, Transition[]> TRANSITIONS =
+    AtomicReferenceFieldUpdater.newUpdater(ObjectShape.class, Transition[].class, "transitions");
+
+  /**
+   * The shared shape of all objects without members.
+   */
+  static final ObjectShape EMPTY = new ObjectShape();
+
+  private final boolean shared;
+  private String[] names;
+  private int size;
+  /* Created once the shape has more than INDEX_THRESHOLD names. */
+  private HashIndexTable table;
+  private volatile Transition[] transitions;
+
+  /**
+   * Creates a new shared shape without names which is the root of its own transitions.
+   */
+  ObjectShape() {
+    this(NO_NAMES, 0, true);
+  }
+
+  private ObjectShape(String[] names, int size, boolean shared) {
+    this.names = names;
+    this.size = size;
+    this.shared = shared;
+    updateHashIndex();
+  }
+
+  /**
+   * Returns a shared shape with the given names which are stored in every second element of the given array, starting
+   * at the given offset.
+   * <p>
+   *   The shape is reached by the transitions from the {@link #EMPTY} shape.
+   *   If any of the transitions cannot be cached, a new shared shape is returned that is not linked to any other
+   *   shape, but can still be shared with objects that have the same names, like sibling objects in a parsed array.
+   * </p>
+   *
+   * @param members the array of interleaved names and values
+   * @param offset the index of the first name
+   * @param count the number of names
+   * @return a shared shape with the given names
+   */
+  static ObjectShape of(Object[] members, int offset, int count) {
+    ObjectShape shape = EMPTY;
+    for (int i = 0; i < count && shape != null; i++) {
+      shape = shape.transition((String)members[offset + (i << 1)]);
+    }
+    if (shape == null) {
+      String[] names = new String[count];
+      for (int i = 0; i < count; i++) {
+        names[i] = (String)members[offset + (i << 1)];
+      }
+      shape = new ObjectShape(names, count, true);
+    }
+    return shape;
+  }
+
+  /**
+   * Returns whether this shape is shared between objects and therefore immutable.
+   *
+   * @return {@code true} if this shape is shared, {@code false} if it is owned by a single object
+   */
+  boolean isShared() {
+    return shared;
+  }
+
+  int size() {
+    return size;
+  }
+
+  String name(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    return names[index];
+  }
+
+  /**
+   * Returns the index of the last name that is equal to the given one.
+   *
+   * @param name the name to look up
+   * @return the index of the last occurrence of the name, {@code -1} if this shape does not contain it
+   */
+  int indexOf(String name) {
+    if (table != null) {
+      return table.get(name);
+    }
+    for (int i = size - 1; i >= 0; i--) {
+      if (name.equals(names[i])) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns whether this shape has exactly the given names which are stored in every second element of the given
+   * array, starting at the given offset.
+   * Names are compared by identity first, so checking names that were taken from this shape is cheap.
+   *
+   * @param members the array of interleaved names and values
+   * @param offset the index of the first name
+   * @param count the number of names
+   * @return {@code true} if this shape has exactly the same names in the same order
+   */
+  boolean hasNames(Object[] members, int offset, int count) {
+    if (size != count) {
+      return false;
+    }
+    for (int i = 0; i < count; i++) {
+      Object name = members[offset + (i << 1)];
+      if (names[i] != name && !names[i].equals(name)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the shape with the given name added at the end.
+   * A shared shape is never modified but returns the cached transition to a shared shape, or a new owned shape if
+   * no transition can be cached.
+   * An owned shape is modified in place and returned itself.
+   *
+   * @param name the name to add
+   * @return the shape with the added name
+   */
+  ObjectShape add(String name) {
+    if (!shared) {
+      append(name);
+      return this;
+    }
+    ObjectShape shape = transition(name);
+    if (shape == null) {
+      shape = copy(size + 1);
+      shape.append(name);
+    }
+    return shape;
+  }
+
+  /**
+   * Returns the shape without the name at the given index.
+   * A shared shape is never modified but copied into a new owned shape, an owned shape is modified in place.
+   *
+   * @param index the index of the name to remove
+   * @return the shape without the name
+   */
+  ObjectShape remove(int index) {
+    ObjectShape shape = shared ? copy(size) : this;
+    if (shape.table != null) {
+      shape.table.remove(index);
+    }
+    System.arraycopy(shape.names, index + 1, shape.names, index, shape.size - index - 1);
+    shape.names[--shape.size] = null;
+    return shape;
+  }
+
+  /**
+   * Returns the shape without the names at the given indexes.
+   * A shared shape is never modified but copied into a new owned shape, an owned shape is modified in place.
+   *
+   * @param removed the indexes of the names to remove
+   * @return the shape without the names
+   */
+  ObjectShape removeAll(BitSet removed) {
+    int kept = removed.nextSetBit(0);
+    if (kept == -1) {
+      return this;
+    }
+    ObjectShape shape = shared ? copy(size) : this;
+    String[] names = shape.names;
+    for (int i = removed.nextClearBit(kept); i < shape.size; i = removed.nextClearBit(i + 1)) {
+      names[kept++] = names[i];
+    }
+    Arrays.fill(names, kept, shape.size, null);
+    shape.size = kept;
+    shape.updateHashIndex();
+    return shape;
+  }
+
+  /**
+   * Returns a shape with the same names that can be used by another object.
+   *
+   * @return this shape if it is shared, otherwise an owned copy
+   */
+  ObjectShape share() {
+    return shared ? this : copy(size);
+  }
+
+  /**
+   * Shrinks the names of an owned shape to their exact size.
+   */
+  void trimToSize() {
+    if (!shared && names.length != size) {
+      names = Arrays.copyOf(names, size);
+    }
+  }
+
+  /**
+   * Returns the estimated number of bytes retained by an owned shape, shared shapes are not retained by any single
+   * object.
+   *
+   * @return the estimated retained size of this shape
+   */
+  long estimatedRetainedSize() {
+    if (shared) {
+      return 0;
+    }
+    long size = RetainedSize.instance(3, 5) + RetainedSize.referenceArray(names.length);
+    for (int i = 0; i < this.size; i++) {
+      size += RetainedSize.string(names[i]);
+    }
+    if (table != null) {
+      size += RetainedSize.instance(1, 0) + table.estimatedRetainedSize();
+    }
+    return size;
+  }
+
+  /*
+   * Returns the cached child shape for the given name, or creates and caches it.
+   * Lock-free, since all shapes start from the single EMPTY shape: a new transition is installed by a compare-and-set
+   * of the whole array, retrying on the current array if another thread has installed one in the meantime.
+   */
+  private ObjectShape transition(String name) {
+    if (size >= MAX_SHARED_SIZE) {
+      return null;
+    }
+    ObjectShape created = null;
+    while (true) {
+      Transition[] transitions = this.transitions;
+      int count = transitions != null ? transitions.length : 0;
+      int free = -1;
+      for (int i = 0; i < count; i++) {
+        ObjectShape shape = transitions[i].get();
+        if (shape == null) {
+          free = free == -1 ? i : free;
+        } else if (transitions[i].name == name || transitions[i].name.equals(name)) {
+          return shape;
+        }
+      }
+      if (free == -1 && count == MAX_TRANSITIONS) {
+        return null;
+      }
+      if (created == null) {
+        String[] names = Arrays.copyOf(this.names, size + 1);
+        names[size] = name;
+        created = new ObjectShape(names, size + 1, true);
+      }
+      Transition[] updated = free != -1 ? transitions.clone() : new Transition[count + 1];
+      if (free == -1 && count != 0) {
+        System.arraycopy(transitions, 0, updated, 0, count);
+      }
+      updated[free != -1 ? free : count] = new Transition(name, created);
+      if (TRANSITIONS.compareAndSet(this, transitions, updated)) {
+        return created;
+      }
+    }
+  }
+
+  private ObjectShape copy(int capacity) {
+    return new ObjectShape(Arrays.copyOf(names, Math.max(capacity, size)), size, false);
+  }
+
+  private void append(String name) {
+    if (size == names.length) {
+      names = Arrays.copyOf(names, size + Math.max(1, size >> 1));
+    }
+    names[size++] = name;
+    if (table != null) {
+      table.add(name, size - 1);
+    } else if (size > INDEX_THRESHOLD) {
+      updateHashIndex();
+    }
+  }
+
+  private void updateHashIndex() {
+    if (size <= INDEX_THRESHOLD) {
+      table = null;
+      return;
+    }
+    table = new HashIndexTable(new Names());
+    for (int i = 0; i < size; i++) {
+      table.add(names[i], i);
+    }
+  }
+
+  /* A cached transition to the shape with the given name added. */
+  private static final class Transition extends WeakReference<ObjectShape> {
+
+    final String name;
+
+    Transition(String name, ObjectShape shape) {
+      super(shape);
+      this.name = name;
+    }
+  }
+
+  /* A live view of the names of this shape. */
+  private final class Names extends AbstractList<String> implements RandomAccess {
+
+    @Override
+    public String get(int index) {
+      return name(index);
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  }
+}
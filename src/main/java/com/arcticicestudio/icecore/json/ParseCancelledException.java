@@ -0,0 +1,31 @@
+/*
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+title      Parse Cancelled Exception                       +
+project    icecore-json                                    +
+version    0.8.0-frost.1                                   +
+repository https://github.com/arcticicestudio/icecore-json +
+author     Arctic Ice Studio                               +
+email      development@arcticicestudio.com                 +
+copyright  Copyright (C) 2016                              +
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+*/
+package com.arcticicestudio.icecore.json;
+
+/**
+ * An unchecked exception to indicate that parsing has been aborted because its cancellation check reported that it
+ * should not be continued, for example because a time budget has been exceeded.
+ * <p>
+ *   The location points to the position the parser had reached when it has been cancelled.
+ *   This does not imply that the input is invalid JSON.
+ * </p>
+ *
+ * @author Arctic Ice Studio &lt;development@arcticicestudio.com&gt;
+ * @see JsonParser#setCancellation(java.util.function.BooleanSupplier)
+ * @since 0.8.0
+ */
+public class ParseCancelledException extends ParseException {
+
+  ParseCancelledException(Location location) {
+    super("Parsing cancelled", location);
+  }
+}
@@ -0,0 +1,263 @@
+/*
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+title      JSON Persistent Tree                            +
+project    icecore-json                                    +
+version    0.8.0-frost.1                                   +
+repository https://github.com/arcticicestudio/icecore-json +
+author     Arctic Ice Studio                               +
+email      development@arcticicestudio.com                 +
+copyright  Copyright (C) 2016                              +
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+*/
+package com.arcticicestudio.icecore.json;
+
+import java.io.Serializable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable sequence of elements that is stored as a balanced tree.
+ * <p>
+ *   All modifying methods return a new tree which shares all unchanged nodes with this tree, so accessing, replacing,
+ *   appending and removing an element at any position only takes {@code O(log n)} time and space.
+ *   Each node stores the size of its subtree to find elements by their position, and it is kept balanced like an
+ *   AVL tree.
+ * </p>
+ * <p>
+ *   Elements can additionally be appended with a key.
+ *   As long as the keys are ascending in the order of the elements, the position of an element can be found by its key
+ *   in {@code O(log n)} time even after other elements have been removed.
+ * </p>
+ * <p>
+ *   Trees are never modified after their creation and can be used by multiple threads.
+ * </p>
+ *
+ * @author Arctic Ice Studio &lt;development@arcticicestudio.com&gt;
+ * @since 0.8.0
+ */
+final class PersistentTree implements Iterable<Object>, Serializable {
+
+  /**
+   * The tree without elements.
+   */
+  static final PersistentTree EMPTY = new PersistentTree(null);
+
+  private final Node root;
+
+  private PersistentTree(Node root) {
+    this.root = root;
+  }
+
+  int size() {
+    return size(root);
+  }
+
+  Object get(int index) {
+    Node node = root;
+    while (true) {
+      int leftSize = size(node.left);
+      if (index < leftSize) {
+        node = node.left;
+      } else if (index > leftSize) {
+        index -= leftSize + 1;
+        node = node.right;
+      } else {
+        return node.element;
+      }
+    }
+  }
+
+  /**
+   * Returns the position of the element with the given key.
+   *
+   * @param key the key of the element
+   * @return the index of the element, {@code -1} if this tree does not contain an element with this key
+   */
+  int indexOf(long key) {
+    Node node = root;
+    int index = 0;
+    while (node != null) {
+      if (key < node.key) {
+        node = node.left;
+      } else if (key > node.key) {
+        index += size(node.left) + 1;
+        node = node.right;
+      } else {
+        return index + size(node.left);
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns a tree with the given element appended at the end.
+   *
+   * @param key the key of the element which must be greater than all keys of this tree to look it up by its key
+   * @param element the element to append
+   * @return the tree with the element appended
+   */
+  PersistentTree add(long key, Object element) {
+    return new PersistentTree(add(root, key, element));
+  }
+
+  /**
+   * Returns a tree with the element at the given position replaced, keeping its key.
+   *
+   * @param index the index of the element to replace
+   * @param element the new element
+   * @return the tree with the element replaced
+   */
+  PersistentTree set(int index, Object element) {
+    return new PersistentTree(set(root, index, element));
+  }
+
+  /**
+   * Returns a tree without the element at the given position.
+   *
+   * @param index the index of the element to remove
+   * @return the tree without the element
+   */
+  PersistentTree remove(int index) {
+    return new PersistentTree(remove(root, index));
+  }
+
+  /*
+   * Returns the estimated number of bytes retained by the nodes of this tree, excluding the elements.
+   */
+  long estimatedRetainedSize() {
+    return root == null ? 0 : RetainedSize.instance(1, 0) + size() * RetainedSize.instance(3, 16);
+  }
+
+  /**
+   * Returns an iterator over the elements in their order.
+   * Iterating over all elements takes {@code O(n)} time.
+   *
+   * @return an iterator over the elements
+   */
+  public Iterator<Object> iterator() {
+    return new Iterator<Object>() {
+
+      /* The nodes whose element and right subtree have not been visited yet. */
+      private final Node[] stack = new Node[height(root)];
+      private int depth;
+
+      {
+        pushLeft(root);
+      }
+
+      public boolean hasNext() {
+        return depth > 0;
+      }
+
+      public Object next() {
+        if (depth == 0) {
+          throw new NoSuchElementException();
+        }
+        Node node = stack[--depth];
+        pushLeft(node.right);
+        return node.element;
+      }
+
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+
+      private void pushLeft(Node node) {
+        for (; node != null; node = node.left) {
+          stack[depth++] = node;
+        }
+      }
+    };
+  }
+
+  private static Node add(Node node, long key, Object element) {
+    if (node == null) {
+      return new Node(key, element, null, null);
+    }
+    return balance(node.key, node.element, node.left, add(node.right, key, element));
+  }
+
+  private static Node set(Node node, int index, Object element) {
+    int leftSize = size(node.left);
+    if (index < leftSize) {
+      return new Node(node.key, node.element, set(node.left, index, element), node.right);
+    }
+    if (index > leftSize) {
+      return new Node(node.key, node.element, node.left, set(node.right, index - leftSize - 1, element));
+    }
+    return new Node(node.key, element, node.left, node.right);
+  }
+
+  private static Node remove(Node node, int index) {
+    int leftSize = size(node.left);
+    if (index < leftSize) {
+      return balance(node.key, node.element, remove(node.left, index), node.right);
+    }
+    if (index > leftSize) {
+      return balance(node.key, node.element, node.left, remove(node.right, index - leftSize - 1));
+    }
+    if (node.left == null) {
+      return node.right;
+    }
+    if (node.right == null) {
+      return node.left;
+    }
+    Node successor = node.right;
+    while (successor.left != null) {
+      successor = successor.left;
+    }
+    return balance(successor.key, successor.element, node.left, remove(node.right, 0));
+  }
+
+  /*
+   * Creates a node from subtrees whose heights differ by at most two, rotating them if they differ by two.
+   */
+  private static Node balance(long key, Object element, Node left, Node right) {
+    int leftHeight = height(left);
+    int rightHeight = height(right);
+    if (leftHeight > rightHeight + 1) {
+      if (height(left.left) >= height(left.right)) {
+        return new Node(left.key, left.element, left.left, new Node(key, element, left.right, right));
+      }
+      Node pivot = left.right;
+      return new Node(pivot.key, pivot.element, new Node(left.key, left.element, left.left, pivot.left),
+        new Node(key, element, pivot.right, right));
+    }
+    if (rightHeight > leftHeight + 1) {
+      if (height(right.right) >= height(right.left)) {
+        return new Node(right.key, right.element, new Node(key, element, left, right.left), right.right);
+      }
+      Node pivot = right.left;
+      return new Node(pivot.key, pivot.element, new Node(key, element, left, pivot.left),
+        new Node(right.key, right.element, pivot.right, right.right));
+    }
+    return new Node(key, element, left, right);
+  }
+
+  private static int size(Node node) {
+    return node != null ? node.size : 0;
+  }
+
+  private static int height(Node node) {
+    return node != null ? node.height : 0;
+  }
+
+  private static final class Node implements Serializable {
+
+    final long key;
+    final Object element;
+    final Node left;
+    final Node right;
+    final int size;
+    final int height;
+
+    Node(long key, Object element, Node left, Node right) {
+      this.key = key;
+      this.element = element;
+      this.left = left;
+      this.right = right;
+      size = size(left) + size(right) + 1;
+      height = Math.max(height(left), height(right)) + 1;
+    }
+  }
+}
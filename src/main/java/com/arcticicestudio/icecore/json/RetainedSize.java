@@ -0,0 +1,68 @@
+/*
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+title      Retained Size                                   +
+project    icecore-json                                    +
+version    0.8.0-frost.1                                   +
+repository https://github.com/arcticicestudio/icecore-json +
+author     Arctic Ice Studio                               +
+email      development@arcticicestudio.com                 +
+copyright  Copyright (C) 2016                              +
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+*/
+package com.arcticicestudio.icecore.json;
+
+/**
+ * Provides the sizes of the memory layout that is assumed to estimate the retained size of JSON values.
+ * <p>
+ *   The sizes are those of a 64-bit JVM with compressed references: object headers take 12 bytes, array headers 16
+ *   bytes, references 4 bytes and every object is aligned to 8 bytes.
+ *   Strings are assumed to store two bytes per character as the worst case of compact strings.
+ * </p>
+ *
+ * @author Arctic Ice Studio &lt;development@arcticicestudio.com&gt;
+ * @see JsonValue#estimatedRetainedSize()
+ * @since 0.8.0
+ */
+final class RetainedSize {
+
+  static final int OBJECT_HEADER = 12;
+  static final int ARRAY_HEADER = 16;
+  static final int REFERENCE = 4;
+  private static final int ALIGNMENT = 8;
+  /* A string has a reference to its array, its cached hash and a coder. */
+  private static final long STRING = instance(1, 5);
+
+  private RetainedSize() {}
+
+  /**
+   * Returns the size of an instance with the given number of references and bytes of primitive fields, including the
+   * fields of all super classes.
+   *
+   * @param references the number of reference fields
+   * @param primitiveBytes the number of bytes of all primitive fields
+   * @return the aligned size of the instance
+   */
+  static long instance(int references, int primitiveBytes) {
+    return align(OBJECT_HEADER + (long)references * REFERENCE + primitiveBytes);
+  }
+
+  static long referenceArray(int length) {
+    return align(ARRAY_HEADER + (long)length * REFERENCE);
+  }
+
+  static long intArray(int length) {
+    return align(ARRAY_HEADER + (long)length * 4);
+  }
+
+  static long longArray(int length) {
+    return align(ARRAY_HEADER + (long)length * 8);
+  }
+
+  static long string(String string) {
+    return STRING + align(ARRAY_HEADER + (long)string.length() * 2);
+  }
+
+  private static long align(long size) {
+    return size + ALIGNMENT - 1 & -ALIGNMENT;
+  }
+}
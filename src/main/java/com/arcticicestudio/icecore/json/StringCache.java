@@ -0,0 +1,219 @@
+/*
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+title      JSON String Cache                               +
+project    icecore-json                                    +
+version    0.8.0-frost.1                                   +
+repository https://github.com/arcticicestudio/icecore-json +
+author     Arctic Ice Studio                               +
+email      development@arcticicestudio.com                 +
+copyright  Copyright (C) 2016                              +
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+*/
+package com.arcticicestudio.icecore.json;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of string values that is consulted while parsing to reuse the values of frequently repeated strings.
+ * <p>
+ *   Documents often contain a small set of string values many times, like status codes, country codes or currency
+ *   names.
+ *   When a cache is passed to {@link Json#parse(String, StringCache)}, the parser looks up short strings directly in
+ *   its input buffer and returns the cached value without creating a new {@link String} or a new value.
+ *   The same cache can be used for any number of documents, so the cached values are also retained only once for all
+ *   of them.
+ * </p>
+ * <p>
+ *   Each string is stored in exactly one slot that is determined by its hash code.
+ *   Every hit increments the frequency of the cached value up to a small limit and every miss of another string in
+ *   the same slot decrements it, the cached value is only replaced once its frequency has dropped to zero.
+ *   Hence, the values of a low cardinality are kept while rarely repeated strings, like identifiers or free text, are
+ *   created as usual without evicting them.
+ *   Strings that are longer than the maximum length are never cached.
+ * </p>
+ * <p>
+ *   Instances of this class are thread-safe and can be shared between multiple threads that parse concurrently.
+ *   The frequencies are updated without synchronization, so concurrent updates may occasionally be lost, which only
+ *   affects which values are kept but never the correctness of the returned values.
+ * </p>
+ *
+ * @author Arctic Ice Studio &lt;development@arcticicestudio.com&gt;
+ * @see Json#parse(String, StringCache)
+ * @see Json#parse(java.io.Reader, StringCache)
+ * @since 0.8.0
+ */
+public final class StringCache {
+
+  /**
+   * The default number of slots.
+   */
+  public static final int DEFAULT_CAPACITY = 1024;
+
+  /**
+   * The default maximum length of cached strings.
+   */
+  public static final int DEFAULT_MAX_LENGTH = 32;
+
+  private static final int MAX_FREQUENCY = 15;
+  private static final int GOLDEN_RATIO = 0x9e3779b9;
+
+  /* Entries are immutable apart from their frequency, so they are safely published through their final fields. */
+  private final Entry[] slots;
+  private final int shift;
+  private final int maxLength;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  /**
+   * Creates a new string cache with the {@link #DEFAULT_CAPACITY default capacity} and the
+   * {@link #DEFAULT_MAX_LENGTH default maximum length}.
+   */
+  public StringCache() {
+    this(DEFAULT_CAPACITY, DEFAULT_MAX_LENGTH);
+  }
+
+  /**
+   * Creates a new string cache.
+   *
+   * @param capacity the maximum number of cached strings, rounded up to the next power of two
+   * @param maxLength the maximum length of cached strings
+   * @throws IllegalArgumentException if the capacity is not positive or the maximum length is negative
+   */
+  public StringCache(int capacity, int maxLength) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity is not positive: " + capacity);
+    }
+    if (maxLength < 0) {
+      throw new IllegalArgumentException("maxLength is negative: " + maxLength);
+    }
+    int bits = capacity == 1 ? 0 : 32 - Integer.numberOfLeadingZeros(capacity - 1);
+    if (bits > 30) {
+      throw new IllegalArgumentException("capacity is too large: " + capacity);
+    }
+    slots = new Entry[1 << bits];
+    shift = 32 - bits;
+    this.maxLength = maxLength;
+  }
+
+  /**
+   * Returns the maximum number of cached strings.
+   *
+   * @return the maximum number of cached strings
+   */
+  public int capacity() {
+    return slots.length;
+  }
+
+  /**
+   * Returns the maximum length of cached strings.
+   *
+   * @return the maximum length of cached strings
+   */
+  public int maxLength() {
+    return maxLength;
+  }
+
+  /**
+   * Returns the number of lookups that returned a cached value.
+   *
+   * @return the number of hits
+   */
+  public long hitCount() {
+    return hits.sum();
+  }
+
+  /**
+   * Returns the number of lookups that did not find a cached value.
+   * Strings that exceed the maximum length are not looked up and therefore not counted.
+   *
+   * @return the number of misses
+   */
+  public long missCount() {
+    return misses.sum();
+  }
+
+  /**
+   * Returns the string value with the given string, either the cached one or a new one.
+   *
+   * @param string the string
+   * @return a string value with the given string
+   */
+  JsonValue value(String string) {
+    if (string.length() > maxLength) {
+      return new JsonString(string);
+    }
+    int slot = slot(string.hashCode());
+    Entry entry = slots[slot];
+    if (entry != null && entry.string.equals(string)) {
+      return hit(entry);
+    }
+    return miss(slot, entry, string);
+  }
+
+  /**
+   * Returns the string value whose string consists of the given range of characters.
+   * A new string is only created if the value is not cached.
+   *
+   * @param chars the characters that contain the string
+   * @param offset the index of the first character of the string
+   * @param length the number of characters of the string
+   * @param hash the hash of the string as computed by {@link String#hashCode()}
+   * @return a string value with the given string
+   */
+  JsonValue value(char[] chars, int offset, int length, int hash) {
+    if (length > maxLength) {
+      return new JsonString(new String(chars, offset, length));
+    }
+    int slot = slot(hash);
+    Entry entry = slots[slot];
+    if (entry != null && entry.matches(chars, offset, length)) {
+      return hit(entry);
+    }
+    return miss(slot, entry, new String(chars, offset, length));
+  }
+
+  private JsonValue hit(Entry entry) {
+    hits.increment();
+    if (entry.frequency < MAX_FREQUENCY) {
+      entry.frequency++;
+    }
+    return entry.value;
+  }
+
+  private JsonValue miss(int slot, Entry entry, String string) {
+    misses.increment();
+    JsonValue value = new JsonString(string);
+    if (entry == null || --entry.frequency <= 0) {
+      slots[slot] = new Entry(string, value);
+    }
+    return value;
+  }
+
+  private int slot(int hash) {
+    return shift == 32 ? 0 : (hash * GOLDEN_RATIO) >>> shift;
+  }
+
+  private static final class Entry {
+
+    final String string;
+    final JsonValue value;
+    int frequency = 1;
+
+    Entry(String string, JsonValue value) {
+      this.string = string;
+      this.value = value;
+    }
+
+    boolean matches(char[] chars, int offset, int length) {
+      if (string.length() != length) {
+        return false;
+      }
+      for (int i = 0; i < length; i++) {
+        if (chars[offset + i] != string.charAt(i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
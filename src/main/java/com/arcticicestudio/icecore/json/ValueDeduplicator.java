@@ -0,0 +1,119 @@
+/*
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+title      JSON Value Deduplicator                         +
+project    icecore-json                                    +
+version    0.8.0-frost.1                                   +
+repository https://github.com/arcticicestudio/icecore-json +
+author     Arctic Ice Studio                               +
+email      development@arcticicestudio.com                 +
+copyright  Copyright (C) 2016                              +
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+*/
+package com.arcticicestudio.icecore.json;
+
+/**
+ * Canonicalizes equal values while parsing, so that repeated values in a document share a single instance.
+ * <p>
+ *   Strings and numbers are immutable and always shared.
+ *   Objects and arrays are only shared if they are small subtrees, i.e. have at most {@link #MAX_SUBTREE_SIZE} members
+ *   or elements which are all immutable.
+ *   Since a shared subtree must not be modified through any of its occurrences, such subtrees are frozen (see
+ *   {@link JsonValue#freeze()}), larger objects and arrays stay modifiable.
+ *   As children are canonicalized before their parents, equal subtrees usually consist of the same instances and are
+ *   compared by identity.
+ * </p>
+ * <p>
+ *   The values are kept in a direct-mapped table of a fixed capacity: each value has exactly one slot determined by
+ *   its hash code and replaces any other value stored in this slot.
+ *   The memory used by the table is therefore bounded while frequently repeated values are still found reliably.
+ * </p>
+ *
+ * @author Arctic Ice Studio &lt;development@arcticicestudio.com&gt;
+ * @since 0.8.0
+ */
+final class ValueDeduplicator {
+
+  /* The number of slots of the table, MUST be a power of two. */
+  static final int CAPACITY = 1 << 14;
+  /* The maximum number of members or elements of objects and arrays that are shared. */
+  static final int MAX_SUBTREE_SIZE = 16;
+  /* Separates numbers from strings with the same text. */
+  private static final int NUMBER_SEED = 0x5bd1e995;
+
+  private final JsonValue[] table = new JsonValue[CAPACITY];
+
+  /**
+   * Returns a string value with the given string.
+   *
+   * @param string the string
+   * @return a canonical string value
+   */
+  JsonValue string(String string) {
+    int slot = slot(string.hashCode());
+    JsonValue value = table[slot];
+    if (value instanceof JsonString && value.asString().equals(string)) {
+      return value;
+    }
+    value = new JsonString(string);
+    table[slot] = value;
+    return value;
+  }
+
+  /**
+   * Returns a number value with the given representation.
+   *
+   * @param string the JSON representation of the number
+   * @return a canonical number value
+   */
+  JsonValue number(String string) {
+    int slot = slot(string.hashCode() ^ NUMBER_SEED);
+    JsonValue value = table[slot];
+    if (value instanceof JsonNumber && value.toString().equals(string)) {
+      return value;
+    }
+    value = new JsonNumber(string);
+    table[slot] = value;
+    return value;
+  }
+
+  /**
+   * Returns the canonical frozen value that is equal to the given object or array if it is a small subtree.
+   *
+   * @param value the object or array
+   * @return a frozen value equal to the given one, or the value itself if it is not a small subtree
+   */
+  JsonValue subtree(JsonValue value) {
+    if (!isSmallSubtree(value)) {
+      return value;
+    }
+    int slot = slot(value.hashCode());
+    JsonValue existing = table[slot];
+    if (existing != null && existing.equals(value)) {
+      return existing;
+    }
+    value = value.freeze();
+    table[slot] = value;
+    return value;
+  }
+
+  private static boolean isSmallSubtree(JsonValue value) {
+    if (value.getType() == JsonType.ARRAY) {
+      JsonArray array = value.asArray();
+      return array.size() <= MAX_SUBTREE_SIZE && array.storage().isImmutable();
+    }
+    JsonObject object = value.asObject();
+    if (object.size() > MAX_SUBTREE_SIZE) {
+      return false;
+    }
+    for (int i = 0; i < object.size(); i++) {
+      if (!object.value(i).isImmutable()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int slot(int hash) {
+    return (hash ^ hash >>> 16) & (CAPACITY - 1);
+  }
+}
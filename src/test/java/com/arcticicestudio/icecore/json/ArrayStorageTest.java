@@ -0,0 +1,250 @@
+/*
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+title      JSON Array Storage Test                         +
+project    icecore-json                                    +
+version    0.8.0-frost.1                                   +
+repository https://github.com/arcticicestudio/icecore-json +
+author     Arctic Ice Studio                               +
+email      development@arcticicestudio.com                 +
+copyright  Copyright (C) 2016                              +
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+*/
+package com.arcticicestudio.icecore.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+import org.junit.Test;
+
+import com.arcticicestudio.icecore.json.ArrayStorage.ChunkedStorage;
+import com.arcticicestudio.icecore.json.ArrayStorage.DoubleStorage;
+import com.arcticicestudio.icecore.json.ArrayStorage.GenericStorage;
+import com.arcticicestudio.icecore.json.ArrayStorage.IntStorage;
+import com.arcticicestudio.icecore.json.ArrayStorage.LongStorage;
+
+/**
+ * Tests the JSON array storage class {@link ArrayStorage}.
+ *
+ * @author Arctic Ice Studio &lt;development@arcticicestudio.com&gt;
+ * @since 0.8.0
+ */
+public class ArrayStorageTest {
+
+  @Test
+  public void ofReturnsEmptyStorageWithoutElements() {
+    assertSame(ArrayStorage.EMPTY, ArrayStorage.of(new Object[0], 0, 0));
+  }
+
+  @Test
+  public void ofReturnsIntStorageForInts() {
+    ArrayStorage storage = of("0", "-1", "2147483647", "-2147483648");
+    assertTrue(storage instanceof IntStorage);
+    assertEquals(Integer.MIN_VALUE, storage.getInt(3));
+    assertEquals(Json.value(-1), storage.get(1));
+  }
+
+  @Test
+  public void ofReturnsLongStorageForLongs() {
+    ArrayStorage storage = of("1", "2147483648");
+    assertTrue(storage instanceof LongStorage);
+    assertEquals(2147483648L, storage.getLong(1));
+  }
+
+  @Test
+  public void ofReturnsDoubleStorageForCanonicalDoubles() {
+    ArrayStorage storage = of("1", "2.5", "-0", "1.0E-5");
+    assertTrue(storage instanceof DoubleStorage);
+    assertEquals(2.5, storage.getDouble(1), 0);
+    assertEquals("-0", storage.get(2).toString());
+  }
+
+  @Test
+  public void ofReturnsGenericStorageForOtherRepresentations() {
+    assertTrue(of("1", "2.50") instanceof GenericStorage);
+    assertTrue(of("1e5") instanceof GenericStorage);
+    assertTrue(of("1.0") instanceof GenericStorage);
+    assertTrue(of("12345678901234567890") instanceof GenericStorage);
+    assertTrue(ArrayStorage.of(new Object[] {Json.value(1), Json.TRUE}, 0, 2) instanceof GenericStorage);
+  }
+
+  @Test
+  public void isIntegralAcceptsOnlyCanonicalIntegers() {
+    assertTrue(ArrayStorage.isIntegral("0"));
+    assertTrue(ArrayStorage.isIntegral("-23"));
+    assertFalse(ArrayStorage.isIntegral("-0"));
+    assertFalse(ArrayStorage.isIntegral("1.5"));
+    assertFalse(ArrayStorage.isIntegral("1e5"));
+    assertFalse(ArrayStorage.isIntegral("-"));
+  }
+
+  @Test
+  public void isCanonicalDoubleAcceptsOnlyRestorableRepresentations() {
+    assertTrue(ArrayStorage.isCanonicalDouble("3.14"));
+    assertTrue(ArrayStorage.isCanonicalDouble("1.0E10"));
+    assertFalse(ArrayStorage.isCanonicalDouble("3.140"));
+    assertFalse(ArrayStorage.isCanonicalDouble("1e400"));
+  }
+
+  @Test
+  public void intStorageWidensToLongStorage() {
+    ArrayStorage storage = new IntStorage(new int[] {1}, 1).addLong(Long.MAX_VALUE);
+    assertTrue(storage instanceof LongStorage);
+    assertEquals(1, storage.getLong(0));
+    assertEquals(Long.MAX_VALUE, storage.getLong(1));
+  }
+
+  @Test
+  public void primitiveStorageFallsBackToGenericStorage() {
+    ArrayStorage storage = new DoubleStorage(new double[] {1.5}, 1);
+    ArrayStorage generic = storage.add(Json.value("yogurt"));
+    assertTrue(generic instanceof GenericStorage);
+    assertEquals(Json.value(1.5), generic.get(0));
+    assertEquals(Json.value("yogurt"), generic.get(1));
+  }
+
+  @Test
+  public void emptyStorageIsNotModified() {
+    ArrayStorage storage = ArrayStorage.EMPTY.add(Json.TRUE);
+    assertNotSame(ArrayStorage.EMPTY, storage);
+    assertEquals(0, ArrayStorage.EMPTY.size());
+    assertEquals(1, storage.size());
+  }
+
+  @Test
+  public void contentEqualsComparesDifferentStorages() {
+    ArrayStorage ints = new IntStorage(new int[] {1, 2, 0}, 2);
+    ArrayStorage generic = new GenericStorage(new JsonValue[] {Json.value(1), Json.value(2)}, 2);
+    assertTrue(ints.contentEquals(generic));
+    assertTrue(generic.contentEquals(ints));
+    assertEquals(ints.contentHashCode(), generic.contentHashCode());
+    assertFalse(ints.contentEquals(new IntStorage(new int[] {1, 3}, 2)));
+  }
+
+  @Test
+  public void textHashCodeMatchesStringHashCode() {
+    long[] values = {0, 1, -1, 9, 10, -10, 123456789, Integer.MIN_VALUE, Integer.MAX_VALUE, Long.MIN_VALUE,
+                     Long.MAX_VALUE, 1000000000000000000L};
+    for (long value : values) {
+      assertEquals(Long.toString(value).hashCode(), ArrayStorage.textHashCode(value));
+    }
+  }
+
+  @Test
+  public void primitiveContentHashCodeMatchesGenericStorage() {
+    ArrayStorage longs = new LongStorage(new long[] {Long.MIN_VALUE, -7, 12345678901L}, 3);
+    ArrayStorage generic = new GenericStorage(new JsonValue[] {Json.value(Long.MIN_VALUE), Json.value(-7),
+                                                               Json.value(12345678901L)}, 3);
+    assertEquals(generic.contentHashCode(), longs.contentHashCode());
+  }
+
+  @Test
+  public void genericStorageSwitchesToChunkedStorageAboveThreshold() {
+    ArrayStorage storage = ArrayStorage.EMPTY;
+    for (int i = 0; i <= ArrayStorage.CHUNKED_THRESHOLD; i++) {
+      storage = storage.add(Json.value("a" + i));
+    }
+    assertTrue(storage instanceof ChunkedStorage);
+    assertEquals(ArrayStorage.CHUNKED_THRESHOLD + 1, storage.size());
+    assertEquals(Json.value("a0"), storage.get(0));
+    assertEquals(Json.value("a" + ArrayStorage.CHUNKED_THRESHOLD), storage.get(ArrayStorage.CHUNKED_THRESHOLD));
+  }
+
+  @Test
+  public void spliteratorSplitsIntoHalves() {
+    ArrayStorage storage = new IntStorage(new int[] {1, 2, 3, 4, 5}, 5);
+    Spliterator<JsonValue> second = storage.spliterator();
+    Spliterator<JsonValue> first = second.trySplit();
+    assertEquals(2, first.estimateSize());
+    assertEquals(3, second.estimateSize());
+    assertTrue(first.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED));
+    final List<JsonValue> values = new ArrayList<JsonValue>();
+    Consumer<JsonValue> collector = new Consumer<JsonValue>() {
+      public void accept(JsonValue value) {
+        values.add(value);
+      }
+    };
+    assertTrue(first.tryAdvance(collector));
+    first.forEachRemaining(collector);
+    second.forEachRemaining(collector);
+    assertFalse(second.tryAdvance(collector));
+    assertEquals(Arrays.asList(Json.value(1), Json.value(2), Json.value(3), Json.value(4), Json.value(5)), values);
+  }
+
+  @Test
+  public void spliteratorDoesNotSplitSingleElement() {
+    assertNull(new IntStorage(new int[] {1}, 1).spliterator().trySplit());
+  }
+
+  @Test
+  public void chunkedStorageSplitsAtChunkBoundaries() {
+    ArrayStorage storage = chunked(ArrayStorage.CHUNK_SIZE * 3);
+    assertEquals(ArrayStorage.CHUNK_SIZE, storage.splitIndex(0, storage.size()));
+    assertEquals(ArrayStorage.CHUNK_SIZE * 2, storage.splitIndex(ArrayStorage.CHUNK_SIZE, storage.size()));
+    assertEquals(5, storage.splitIndex(0, 10));
+  }
+
+  @Test
+  public void chunkedStorageAccessesElementsAcrossChunks() {
+    ArrayStorage storage = chunked(ArrayStorage.CHUNK_SIZE * 2 + 1);
+    assertEquals(Json.value(ArrayStorage.CHUNK_SIZE), storage.get(ArrayStorage.CHUNK_SIZE));
+    storage = storage.set(ArrayStorage.CHUNK_SIZE * 2, Json.TRUE);
+    assertEquals(Json.TRUE, storage.get(ArrayStorage.CHUNK_SIZE * 2));
+  }
+
+  @Test
+  public void chunkedStorageRemoveShiftsAcrossChunks() {
+    ArrayStorage storage = chunked(ArrayStorage.CHUNK_SIZE + 1);
+    storage.remove(0);
+    assertEquals(ArrayStorage.CHUNK_SIZE, storage.size());
+    assertEquals(Json.value(ArrayStorage.CHUNK_SIZE), storage.get(ArrayStorage.CHUNK_SIZE - 1));
+    storage = storage.add(Json.NULL);
+    assertEquals(Json.NULL, storage.get(ArrayStorage.CHUNK_SIZE));
+  }
+
+  @Test
+  public void chunkedStorageCopyIsIndependent() {
+    ArrayStorage storage = chunked(3);
+    ArrayStorage copy = storage.copy();
+    storage.set(0, Json.TRUE);
+    storage.remove(1);
+    assertEquals(Json.value(0), copy.get(0));
+    assertEquals(3, copy.size());
+    assertTrue(copy.contentEquals(chunked(3)));
+  }
+
+  @Test
+  public void chunkedStorageTrimToSizeKeepsElements() {
+    ArrayStorage storage = chunked(ArrayStorage.CHUNK_SIZE + 1);
+    storage.remove(ArrayStorage.CHUNK_SIZE);
+    storage.trimToSize();
+    assertTrue(storage.contentEquals(chunked(ArrayStorage.CHUNK_SIZE)));
+    storage = storage.add(Json.NULL);
+    assertEquals(Json.NULL, storage.get(ArrayStorage.CHUNK_SIZE));
+  }
+
+  private static ArrayStorage chunked(int size) {
+    ArrayStorage storage = new ChunkedStorage();
+    for (int i = 0; i < size; i++) {
+      storage = storage.add(Json.value(i));
+    }
+    return storage;
+  }
+
+  private static ArrayStorage of(String... numbers) {
+    Object[] elements = new Object[numbers.length];
+    for (int i = 0; i < numbers.length; i++) {
+      elements[i] = new JsonNumber(numbers[i]);
+    }
+    return ArrayStorage.of(elements, 0, elements.length);
+  }
+}
@@ -0,0 +1,93 @@
+/*
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+title      JSON Hash Trie Test                             +
+project    icecore-json                                    +
+version    0.8.0-frost.1                                   +
+repository https://github.com/arcticicestudio/icecore-json +
+author     Arctic Ice Studio                               +
+email      development@arcticicestudio.com                 +
+copyright  Copyright (C) 2016                              +
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+*/
+package com.arcticicestudio.icecore.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests the JSON hash trie class {@link HashTrie}.
+ *
+ * @author Arctic Ice Studio &lt;development@arcticicestudio.com&gt;
+ * @since 0.8.0
+ */
+public class HashTrieTest {
+
+  @Test
+  public void emptyTrieHasNoNames() {
+    assertEquals(0, HashTrie.EMPTY.size());
+    assertNull(HashTrie.EMPTY.get("a"));
+  }
+
+  @Test
+  public void putAddsAndReplacesNames() {
+    HashTrie trie = HashTrie.EMPTY.put("a", 1).put("b", 2).put("a", 3);
+    assertEquals(2, trie.size());
+    assertEquals(3, trie.get("a"));
+    assertEquals(2, trie.get("b"));
+  }
+
+  @Test
+  public void modificationsDoNotChangeOriginalTrie() {
+    HashTrie trie = HashTrie.EMPTY.put("a", 1);
+    trie.put("a", 2).put("b", 3).remove("a");
+    assertEquals(1, trie.size());
+    assertEquals(1, trie.get("a"));
+    assertNull(trie.get("b"));
+  }
+
+  @Test
+  public void removeReturnsSameTrieForMissingName() {
+    HashTrie trie = HashTrie.EMPTY.put("a", 1);
+    assertSame(trie, trie.remove("b"));
+  }
+
+  @Test
+  public void namesWithSameHashAreDistinguished() {
+    assertEquals("Aa".hashCode(), "BB".hashCode());
+    HashTrie trie = HashTrie.EMPTY.put("Aa", 1).put("BB", 2).put("C", 3);
+    assertEquals(1, trie.get("Aa"));
+    assertEquals(2, trie.get("BB"));
+    trie = trie.remove("Aa");
+    assertNull(trie.get("Aa"));
+    assertEquals(2, trie.get("BB"));
+    assertEquals(2, trie.size());
+  }
+
+  @Test
+  public void randomModificationsMatchMap() {
+    Random random = new Random(42);
+    Map<String, Object> expected = new HashMap<String, Object>();
+    HashTrie trie = HashTrie.EMPTY;
+    for (int i = 0; i < 20000; i++) {
+      String name = "n" + random.nextInt(3000);
+      if (random.nextInt(3) == 0) {
+        expected.remove(name);
+        trie = trie.remove(name);
+      } else {
+        expected.put(name, i);
+        trie = trie.put(name, i);
+      }
+    }
+    assertEquals(expected.size(), trie.size());
+    for (int i = 0; i < 3000; i++) {
+      assertEquals(expected.get("n" + i), trie.get("n" + i));
+    }
+  }
+}
@@ -0,0 +1,109 @@
+/*
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+title      Java Values Test                                +
+project    icecore-json                                    +
+version    0.8.0-frost.1                                   +
+repository https://github.com/arcticicestudio/icecore-json +
+author     Arctic Ice Studio                               +
+email      development@arcticicestudio.com                 +
+copyright  Copyright (C) 2016                              +
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+*/
+package com.arcticicestudio.icecore.json;
+
+import static com.arcticicestudio.icecore.json.TestUtil.assertException;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Tests the conversion class {@link JavaValues}.
+ *
+ * @author Arctic Ice Studio &lt;development@arcticicestudio.com&gt;
+ * @since 0.8.0
+ */
+public class JavaValuesTest {
+
+  @Test
+  public void toJavaConvertsLiterals() {
+    assertNull(JavaValues.toJava(Json.NULL));
+    assertEquals(Boolean.TRUE, JavaValues.toJava(Json.TRUE));
+    assertEquals(Boolean.FALSE, JavaValues.toJava(Json.FALSE));
+    assertEquals("foo", JavaValues.toJava(Json.value("foo")));
+  }
+
+  @Test
+  public void toJavaConvertsNumbersExactly() {
+    assertEquals(23, JavaValues.toJava(Json.value(23)));
+    assertEquals(1L << 40, JavaValues.toJava(Json.value(1L << 40)));
+    assertEquals(1.5, JavaValues.toJava(Json.value(1.5)));
+    assertEquals(new BigInteger("123456789012345678901234567890"),
+                 JavaValues.toJava(new JsonNumber("123456789012345678901234567890")));
+    assertEquals(new BigDecimal("1.50"), JavaValues.toJava(new JsonNumber("1.50")));
+    assertEquals(new BigDecimal("1e3"), JavaValues.toJava(new JsonNumber("1e3")));
+  }
+
+  @Test
+  public void toJavaReturnsViewsForObjectsAndArrays() {
+    JsonObject object = new JsonObject().add("a", 1);
+    JsonArray array = new JsonArray().add(1);
+    assertTrue(JavaValues.toJava(object) instanceof JsonObject.MapView);
+    assertTrue(JavaValues.toJava(array) instanceof JsonArray.ListView);
+    assertSame(object, JavaValues.toJson(JavaValues.toJava(object)));
+    assertSame(array, JavaValues.toJson(JavaValues.toJava(array)));
+  }
+
+  @Test
+  public void toJsonConvertsLiterals() {
+    assertSame(Json.NULL, JavaValues.toJson(null));
+    assertSame(Json.TRUE, JavaValues.toJson(true));
+    assertEquals(Json.value("foo"), JavaValues.toJson("foo"));
+    assertEquals(Json.value("c"), JavaValues.toJson('c'));
+    JsonValue value = Json.value(23);
+    assertSame(value, JavaValues.toJson(value));
+  }
+
+  @Test
+  public void toJsonConvertsNumbers() {
+    assertEquals(Json.value(23), JavaValues.toJson(23));
+    assertEquals(Json.value(23), JavaValues.toJson((short)23));
+    assertEquals(Json.value(23), JavaValues.toJson((byte)23));
+    assertEquals(Json.value(1L << 40), JavaValues.toJson(1L << 40));
+    assertEquals(Json.value(1.5f), JavaValues.toJson(1.5f));
+    assertEquals(Json.value(1.5), JavaValues.toJson(1.5));
+    assertEquals("123456789012345678901234567890",
+                 JavaValues.toJson(new BigInteger("123456789012345678901234567890")).toString());
+    assertEquals("1.50", JavaValues.toJson(new BigDecimal("1.50")).toString());
+  }
+
+  @Test
+  public void toJsonWrapsMapsAndLists() {
+    Map<String, Object> map = new HashMap<String, Object>();
+    List<Object> list = new ArrayList<Object>();
+    map.put("a", list);
+    list.add(1);
+    JsonValue value = JavaValues.toJson(map);
+    assertEquals("{\"a\":[1]}", value.toString());
+    list.add(2);
+    assertEquals("{\"a\":[1,2]}", value.toString());
+  }
+
+  @Test
+  public void toJsonFailsWithUnsupportedType() {
+    assertException(IllegalArgumentException.class, "Unsupported value type: java.lang.Object", new Runnable() {
+      public void run() {
+        JavaValues.toJson(new Object());
+      }
+    });
+  }
+}
@@ -25,9 +25,16 @@ import org.junit.Test;
 import org.mockito.InOrder;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
 
 /**
  * Tests the JSON array structure representation class {@link JsonArray}.
@@ -87,6 +94,29 @@ public class JsonArrayTest {
     unmodifiableArray.add(92);
   }
 
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void unmodifiableArrayEqualsBackingArray() {
+    array.add(92);
+    JsonArray unmodifiableArray = JsonArray.unmodifiableArray(array);
+    assertEquals(array, unmodifiableArray);
+    assertEquals(unmodifiableArray, array);
+    assertEquals(array.hashCode(), unmodifiableArray.hashCode());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void unmodifiableArrayReflectsSwitchedStorage() {
+    array.add(92);
+    JsonArray unmodifiableArray = JsonArray.unmodifiableArray(array);
+    array.add("yogurt");
+    assertEquals("[92,\"yogurt\"]", unmodifiableArray.toString());
+  }
+
   @Test
   public void isEmptyIsTrueAfterCreation() {
     assertTrue(array.isEmpty());
@@ -496,6 +526,100 @@ public class JsonArrayTest {
     inOrder.verifyNoMoreInteractions();
   }
 
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void getIntReturnsValue() {
+    array.add(23).add(Json.value(42));
+    assertEquals(23, array.getInt(0));
+    assertEquals(42, array.getInt(1));
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void getLongReturnsValue() {
+    array.add(23).add(Long.MAX_VALUE);
+    assertEquals(23, array.getLong(0));
+    assertEquals(Long.MAX_VALUE, array.getLong(1));
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void getDoubleReturnsValue() {
+    array.add(3.14).add("yogurt").set(1, 23);
+    assertEquals(3.14, array.getDouble(0), 0);
+    assertEquals(23, array.getDouble(1), 0);
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void getDoubleFailsWithInvalidIndex() {
+    array.add(3.14);
+    array.getDouble(1);
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test(expected = NumberFormatException.class)
+  public void getIntFailsForValueOutOfRange() {
+    array.add(Long.MAX_VALUE);
+    array.getInt(0);
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test(expected = UnsupportedOperationException.class)
+  public void getIntFailsForNonNumber() {
+    array.add(23).add("yogurt");
+    array.getInt(1);
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void toArrayMethodsReturnValues() {
+    array.add(1).add(2).add(3);
+    assertTrue(Arrays.equals(new int[] {1, 2, 3}, array.toIntArray()));
+    assertTrue(Arrays.equals(new long[] {1, 2, 3}, array.toLongArray()));
+    assertTrue(Arrays.equals(new double[] {1, 2, 3}, array.toDoubleArray()));
+    assertTrue(Arrays.equals(new double[] {1.5, 2}, new JsonArray().add("x").set(0, 1.5).add(2).toDoubleArray()));
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void numbersKeepRepresentationWhenMixed() {
+    array.add(1).add(2L << 40).add(2.5).add(Json.value(3.14f)).add(true);
+    assertEquals("[1,2199023255552,2.5,3.14,true]", array.toString());
+    array.remove(4).remove(3).remove(2);
+    assertEquals("[1,2199023255552]", array.toString());
+    array.set(0, -0.0).set(1, 1e7);
+    assertEquals("[-0,1.0E7]", array.toString());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void equalsTrueForEqualNumbersInDifferentStorage() {
+    JsonArray numbers = Json.array(1, 2, 3);
+    JsonArray values = new JsonArray().add(Json.NULL).add(Json.value(2)).add(Json.value(3)).set(0, 1);
+    assertEquals(numbers, values);
+    assertEquals(values, numbers);
+    assertEquals(numbers.hashCode(), values.hashCode());
+  }
+
   @Test
   public void isArray() {
     assertTrue(array.isArray());
@@ -528,6 +652,90 @@ public class JsonArrayTest {
     assertFalse(array("yogurt", "coconut").equals(array("coconut", "yogurt")));
   }
 
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void estimatedRetainedSizeOfEmptyArray() {
+    assertEquals(24, new JsonArray().estimatedRetainedSize());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void estimatedRetainedSizeCountsElements() {
+    assertEquals(24 + 24 + 24, Json.parse("[1, 2]").estimatedRetainedSize());
+    assertEquals(24 + 24 + 24 + 64, Json.parse("[\"foo\", null]").estimatedRetainedSize());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void estimatedRetainedSizeOfOtherRepresentations() {
+    JsonArray array = new JsonArray().add("foo").add(new JsonObject().add("a", 23));
+    long size = array.estimatedRetainedSize();
+    assertTrue(JsonArray.unmodifiableArray(array).estimatedRetainedSize() > size);
+    assertTrue(array.freeze().estimatedRetainedSize() > 0);
+    assertTrue(JsonArray.persistentArray(array).estimatedRetainedSize() > size);
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void streamContainsValuesInOrder() {
+    array.add(1).add("a").add(true);
+    assertEquals(Arrays.asList(Json.value(1), Json.value("a"), Json.TRUE), array.stream().collect(Collectors.toList()));
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void parallelStreamProcessesAllValues() {
+    for (int i = 0; i < ArrayStorage.CHUNKED_THRESHOLD * 2; i++) {
+      array.add(i);
+    }
+    array.add("a");
+    long expected = (long)ArrayStorage.CHUNKED_THRESHOLD * 2 * (ArrayStorage.CHUNKED_THRESHOLD * 2 - 1) / 2;
+    assertTrue(array.parallelStream().isParallel());
+    assertEquals(expected, array.parallelStream().filter(new Predicate<JsonValue>() {
+      public boolean test(JsonValue value) {
+        return value.isNumber();
+      }
+    }).mapToLong(new ToLongFunction<JsonValue>() {
+      public long applyAsLong(JsonValue value) {
+        return value.asLong();
+      }
+    }).sum());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void spliteratorIsSized() {
+    array.add(1).add(2).add(3);
+    Spliterator<JsonValue> spliterator = array.spliterator();
+    assertEquals(3, spliterator.getExactSizeIfKnown());
+    assertTrue(spliterator.hasCharacteristics(Spliterator.SUBSIZED | Spliterator.ORDERED));
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test(expected = ConcurrentModificationException.class)
+  public void spliteratorDetectsModification() {
+    array.add("a").add("b");
+    array.spliterator().forEachRemaining(new Consumer<JsonValue>() {
+      public void accept(JsonValue value) {
+        array.add("c");
+      }
+    });
+  }
+
   @Test
   public void hashCodeEqualsForEqualArrays() {
     assertTrue(array().hashCode() == array().hashCode());
@@ -540,6 +748,44 @@ public class JsonArrayTest {
     assertFalse(array("yogurt").hashCode() == array("coconut").hashCode());
   }
 
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void hashCodeIsCachedWithMutableNestedValues() {
+    final int[] calls = new int[1];
+    JsonValue counted = new JsonString("yogurt") {
+      @Override
+      public int hashCode() {
+        calls[0]++;
+        return super.hashCode();
+      }
+    };
+    JsonArray nested = new JsonArray().add(counted);
+    JsonArray array = new JsonArray().add(nested).add(counted).add(new JsonObject().add("a", 1));
+    int hashCode = array.hashCode();
+    assertEquals(2, calls[0]);
+    assertEquals(hashCode, array.hashCode());
+    assertEquals(2, calls[0]);
+    nested.add(1);
+    assertEquals(Json.parse("[[\"yogurt\",1],\"yogurt\",{\"a\":1}]").hashCode(), array.hashCode());
+    assertEquals(4, calls[0]);
+    nested.remove(1);
+    assertEquals(hashCode, array.hashCode());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void hashCodeReflectsChangesOfWrappedList() {
+    List<Object> list = new ArrayList<Object>(Arrays.<Object>asList(1, "yogurt"));
+    JsonArray array = JsonArray.wrap(list);
+    assertEquals(Json.parse("[1,\"yogurt\"]").hashCode(), array.hashCode());
+    list.set(1, "coconut");
+    assertEquals(Json.parse("[1,\"coconut\"]").hashCode(), array.hashCode());
+  }
+
   @Test
   public void equalsFalseForSubclass() {
     assertFalse(array.equals(new JsonArray(array) {}));
@@ -558,6 +804,230 @@ public class JsonArrayTest {
     assertEquals(92, deserializedArray.get(0).asInt());
   }
 
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void persistentArrayHasSameElements() {
+    JsonArray source = Json.array(1, 2, 3);
+    JsonArray persistent = JsonArray.persistentArray(source);
+    assertEquals(source, persistent);
+    assertEquals(persistent, source);
+    assertEquals(source.hashCode(), persistent.hashCode());
+    assertEquals("[1,2,3]", persistent.toString());
+    assertEquals(2, persistent.getInt(1));
+    assertSame(persistent, JsonArray.persistentArray(persistent));
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void persistentArrayCannotBeModified() {
+    final JsonArray persistent = JsonArray.persistentArray(array("a"));
+    assertException(UnsupportedOperationException.class, new Runnable() {
+      public void run() {
+        persistent.add(1);
+      }
+    });
+    assertException(UnsupportedOperationException.class, new Runnable() {
+      public void run() {
+        persistent.set(0, "b");
+      }
+    });
+    assertException(UnsupportedOperationException.class, new Runnable() {
+      public void run() {
+        persistent.remove(0);
+      }
+    });
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void persistentArrayConvertsNestedValues() {
+    final JsonArray persistent = JsonArray.persistentArray(new JsonArray().add(array("a")));
+    assertException(UnsupportedOperationException.class, new Runnable() {
+      public void run() {
+        persistent.get(0).asArray().add("b");
+      }
+    });
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void withMethodsReturnNewPersistentVersions() {
+    JsonArray original = JsonArray.persistentArray(array("a", "b", "c"));
+    final JsonArray modified = original.with(1, Json.TRUE).withAdded(Json.value("d")).without(0);
+    assertEquals(array("a", "b", "c"), original);
+    assertEquals("[true,\"c\",\"d\"]", modified.toString());
+    assertException(UnsupportedOperationException.class, new Runnable() {
+      public void run() {
+        modified.add(1);
+      }
+    });
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void withMethodsFailWithInvalidIndex() {
+    final JsonArray persistent = JsonArray.persistentArray(array("a"));
+    assertException(IndexOutOfBoundsException.class, "Index: 1, Size: 1", new Runnable() {
+      public void run() {
+        persistent.with(1, Json.TRUE);
+      }
+    });
+    assertException(IndexOutOfBoundsException.class, "Index: -1, Size: 1", new Runnable() {
+      public void run() {
+        persistent.without(-1);
+      }
+    });
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void withMethodsKeepElementOrderOfLargeArrays() {
+    JsonArray expected = new JsonArray();
+    JsonArray persistent = JsonArray.persistentArray(new JsonArray());
+    for (int i = 0; i < 1000; i++) {
+      expected.add(i);
+      persistent = persistent.withAdded(Json.value(i));
+    }
+    for (int i = 900; i >= 0; i -= 7) {
+      expected.remove(i);
+      persistent = persistent.without(i);
+    }
+    expected.set(10, true);
+    persistent = persistent.with(10, Json.TRUE);
+    assertEquals(expected, persistent);
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void withMethodsCopyModifiableArray() {
+    JsonArray original = array("a", "b");
+    JsonArray copy = original.with(0, Json.TRUE).withAdded(Json.NULL).without(1);
+    assertEquals(array("a", "b"), original);
+    assertEquals("[true,null]", copy.toString());
+    copy.add(1);
+    assertEquals(3, copy.size());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void copyOfPersistentArrayIsModifiable() {
+    JsonArray copy = new JsonArray(JsonArray.persistentArray(array("a")));
+    copy.add("b");
+    assertEquals(array("a", "b"), copy);
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void persistentArrayCanBeSerializedAndDeserialized() throws Exception {
+    JsonArray persistent = JsonArray.persistentArray(array("a", "b"));
+    JsonArray deserialized = serializeAndDeserialize(persistent);
+    assertEquals(persistent, deserialized);
+    assertEquals(array("a", "b", "c"), deserialized.withAdded(Json.value("c")));
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void freezeHasSameElements() {
+    JsonArray source = new JsonArray().add(1).add("a").add(new JsonArray().add(true));
+    JsonArray frozen = source.freeze();
+    assertEquals(source, frozen);
+    assertEquals(frozen, source);
+    assertEquals(source.hashCode(), frozen.hashCode());
+    assertEquals("[1,\"a\",[true]]", frozen.toString());
+    assertSame(frozen, frozen.freeze());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void freezeKeepsPrimitiveStorage() {
+    JsonArray frozen = Json.array(1, 2, 3).freeze();
+    assertTrue(frozen.storage() instanceof ArrayStorage.IntStorage);
+    assertEquals(3, frozen.getInt(2));
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void frozenArrayCannotBeModified() {
+    final JsonArray source = new JsonArray().add(new JsonArray());
+    final JsonArray frozen = source.freeze();
+    source.get(0).asArray().add(1);
+    assertEquals("[[]]", frozen.toString());
+    assertException(UnsupportedOperationException.class, new Runnable() {
+      public void run() {
+        frozen.add(1);
+      }
+    });
+    assertException(UnsupportedOperationException.class, new Runnable() {
+      public void run() {
+        frozen.get(0).asArray().add(1);
+      }
+    });
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void hashCodeIsCachedUntilModification() {
+    JsonArray array = array("a");
+    int hashCode = array.hashCode();
+    assertEquals(hashCode, array.cachedHashCode());
+    array.add("b");
+    assertEquals(0, array.cachedHashCode());
+    assertEquals(array("a", "b").hashCode(), array.hashCode());
+    array.set(1, 2).remove(0);
+    assertEquals(Json.array(2).hashCode(), array.hashCode());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void hashCodeReflectsModificationOfNestedValues() {
+    JsonArray nested = array("a");
+    JsonArray array = new JsonArray().add(nested);
+    int hashCode = array.hashCode();
+    assertEquals(0, array.cachedHashCode());
+    nested.add("b");
+    assertFalse(hashCode == array.hashCode());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void unmodifiableArrayHashCodeReflectsChanges() {
+    JsonArray array = array("a");
+    JsonArray unmodifiable = JsonArray.unmodifiableArray(array);
+    unmodifiable.hashCode();
+    array.add("b");
+    assertEquals(array.hashCode(), unmodifiable.hashCode());
+  }
+
   private static JsonArray array(String... values) {
     JsonArray array = new JsonArray();
     for (String value : values) {
@@ -565,4 +1035,100 @@ public class JsonArrayTest {
     }
     return array;
   }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void asListReflectsChangesOfArray() {
+    JsonArray array = new JsonArray().add(1).add(1L << 40);
+    List<Object> list = array.asList();
+    assertEquals(Arrays.<Object>asList(1, 1L << 40), list);
+    array.add(1.5).add("foo").add(true).add(Json.NULL);
+    assertEquals(Arrays.<Object>asList(1, 1L << 40, 1.5, "foo", true, null), list);
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void asListBoxesPrimitiveElements() {
+    JsonArray ints = Json.parse("[1,2]").asArray();
+    JsonArray longs = Json.parse("[1,12345678901]").asArray();
+    JsonArray doubles = Json.parse("[1.5,2]").asArray();
+    assertTrue(ints.storage() instanceof ArrayStorage.IntStorage);
+    assertTrue(longs.storage() instanceof ArrayStorage.LongStorage);
+    assertEquals(Arrays.<Object>asList(1, 2), ints.asList());
+    assertEquals(Arrays.<Object>asList(1, 12345678901L), longs.asList());
+    assertEquals(Arrays.<Object>asList(1.5, 2), doubles.asList());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void asListWritesThroughToArray() {
+    JsonArray array = new JsonArray().add(1).add(2);
+    List<Object> list = array.asList();
+    assertEquals(1, list.set(0, "foo"));
+    list.add(Arrays.asList(3));
+    assertEquals("[\"foo\",2,[3]]", array.toString());
+    assertEquals(2, list.remove(1));
+    assertEquals("[\"foo\",[3]]", array.toString());
+    list.clear();
+    assertTrue(array.isEmpty());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void asListFailsToInsert() {
+    final List<Object> list = new JsonArray().add(1).asList();
+    assertException(UnsupportedOperationException.class, "Elements can only be added to the end", new Runnable() {
+      public void run() {
+        list.add(0, 2);
+      }
+    });
+    assertException(IndexOutOfBoundsException.class, new Runnable() {
+      public void run() {
+        list.get(1);
+      }
+    });
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void wrapReflectsChangesOfList() {
+    List<Object> list = new ArrayList<Object>();
+    list.add(1);
+    JsonArray array = JsonArray.wrap(list);
+    assertEquals(new JsonArray().add(1), array);
+    int hashCode = array.hashCode();
+    list.add(Arrays.asList("a", null));
+    assertEquals("[1,[\"a\",null]]", array.toString());
+    assertEquals(Json.parse("[1,[\"a\",null]]"), array);
+    assertTrue(hashCode != array.hashCode());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void wrapIsReadOnly() {
+    final JsonArray array = JsonArray.wrap(Arrays.asList(1, 2));
+    assertException(UnsupportedOperationException.class, new Runnable() {
+      public void run() {
+        array.add(3);
+      }
+    });
+    assertException(UnsupportedOperationException.class, new Runnable() {
+      public void run() {
+        array.set(0, 3);
+      }
+    });
+    assertEquals(new JsonArray().add(1).add(2).add(3), new JsonArray(array).add(3));
+  }
 }
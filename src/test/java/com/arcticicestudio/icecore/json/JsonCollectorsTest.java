@@ -0,0 +1,255 @@
+/*
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+title      JSON Collectors Test                            +
+project    icecore-json                                    +
+version    0.8.0-frost.1                                   +
+repository https://github.com/arcticicestudio/icecore-json +
+author     Arctic Ice Studio                               +
+email      development@arcticicestudio.com                 +
+copyright  Copyright (C) 2016                              +
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+*/
+package com.arcticicestudio.icecore.json;
+
+import static com.arcticicestudio.icecore.json.TestUtil.assertException;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+/**
+ * Tests the JSON collectors class {@link JsonCollectors}.
+ *
+ * @author Arctic Ice Studio &lt;development@arcticicestudio.com&gt;
+ * @since 0.8.0
+ */
+public class JsonCollectorsTest {
+
+  private static final int COUNT = 10000;
+
+  private static final ToIntFunction<Integer> INT = new ToIntFunction<Integer>() {
+    @Override
+    public int applyAsInt(Integer value) {
+      return value;
+    }
+  };
+
+  private static final Function<Integer, String> NAME = new Function<Integer, String>() {
+    @Override
+    public String apply(Integer value) {
+      return "m" + value;
+    }
+  };
+
+  private static final Function<Integer, JsonValue> VALUE = new Function<Integer, JsonValue>() {
+    @Override
+    public JsonValue apply(Integer value) {
+      return Json.value(value);
+    }
+  };
+
+  @Test
+  public void toArrayCollectsEmptyStream() {
+    JsonArray array = Stream.<JsonValue>empty().collect(JsonCollectors.toArray());
+    assertEquals(new JsonArray(), array);
+  }
+
+  @Test
+  public void toArrayCollectsValuesInOrder() {
+    JsonArray array = Stream.of(Json.value("a"), Json.TRUE, Json.NULL).collect(JsonCollectors.toArray());
+    assertEquals("[\"a\",true,null]", array.toString());
+  }
+
+  @Test
+  public void toArrayCollectsParallelStreamInOrder() {
+    List<JsonValue> values = new ArrayList<JsonValue>();
+    JsonArray expected = new JsonArray();
+    for (int i = 0; i < COUNT; i++) {
+      values.add(Json.value("v" + i));
+      expected.add("v" + i);
+    }
+    assertEquals(expected, values.parallelStream().collect(JsonCollectors.toArray()));
+  }
+
+  @Test
+  public void toArrayUsesPrimitiveStorageForNumbers() {
+    JsonArray array = Stream.of(Json.value(1), Json.value(2)).collect(JsonCollectors.toArray());
+    assertTrue(array.storage() instanceof ArrayStorage.IntStorage);
+  }
+
+  @Test
+  public void toArrayFailsWithNullValue() {
+    assertException(NullPointerException.class, "value is null", new Runnable() {
+      public void run() {
+        Stream.of(Json.TRUE, null).collect(JsonCollectors.toArray());
+      }
+    });
+  }
+
+  @Test
+  public void toIntArrayCollectsParallelStreamInOrder() {
+    JsonArray array = integers().parallelStream().collect(JsonCollectors.toIntArray(INT));
+    assertEquals(expectedArray(), array);
+    assertTrue(array.storage() instanceof ArrayStorage.IntStorage);
+  }
+
+  @Test
+  public void toIntArrayResultIsModifiable() {
+    JsonArray array = Stream.of(1, 2).collect(JsonCollectors.toIntArray(INT));
+    array.add(3).add("foo");
+    assertEquals("[1,2,3,\"foo\"]", array.toString());
+  }
+
+  @Test
+  public void toIntArrayCollectsEmptyStream() {
+    assertEquals(new JsonArray(), Stream.<Integer>empty().collect(JsonCollectors.toIntArray(INT)));
+  }
+
+  @Test
+  public void toLongArrayCollectsParallelStreamInOrder() {
+    JsonArray array = integers().parallelStream().collect(JsonCollectors.toLongArray(new ToLongFunction<Integer>() {
+      @Override
+      public long applyAsLong(Integer value) {
+        return value;
+      }
+    }));
+    assertEquals(expectedArray(), array);
+    assertTrue(array.storage() instanceof ArrayStorage.LongStorage);
+  }
+
+  @Test
+  public void toDoubleArrayCollectsParallelStreamInOrder() {
+    JsonArray array = integers().parallelStream().collect(JsonCollectors.toDoubleArray(
+      new ToDoubleFunction<Integer>() {
+        @Override
+        public double applyAsDouble(Integer value) {
+          return value + 0.5;
+        }
+      }));
+    assertEquals(COUNT, array.size());
+    for (int i = 0; i < COUNT; i++) {
+      assertEquals(Json.value(i + 0.5), array.get(i));
+    }
+    assertTrue(array.storage() instanceof ArrayStorage.DoubleStorage);
+  }
+
+  @Test
+  public void toDoubleArrayFailsWithNaN() {
+    assertException(IllegalArgumentException.class, "Infinite and NaN values not permitted in JSON", new Runnable() {
+      public void run() {
+        Stream.of(1).collect(JsonCollectors.toDoubleArray(new ToDoubleFunction<Integer>() {
+          @Override
+          public double applyAsDouble(Integer value) {
+            return Double.NaN;
+          }
+        }));
+      }
+    });
+  }
+
+  @Test
+  public void primitiveCollectorsFailWithNullMapper() {
+    assertException(NullPointerException.class, "mapper is null", new Runnable() {
+      public void run() {
+        JsonCollectors.toIntArray(null);
+      }
+    });
+    assertException(NullPointerException.class, "mapper is null", new Runnable() {
+      public void run() {
+        JsonCollectors.toLongArray(null);
+      }
+    });
+    assertException(NullPointerException.class, "mapper is null", new Runnable() {
+      public void run() {
+        JsonCollectors.toDoubleArray(null);
+      }
+    });
+  }
+
+  @Test
+  public void toObjectCollectsEmptyStream() {
+    assertEquals(new JsonObject(), Stream.<Integer>empty().collect(JsonCollectors.toObject(NAME, VALUE)));
+  }
+
+  @Test
+  public void toObjectCollectsParallelStreamInOrder() {
+    JsonObject expected = new JsonObject();
+    for (int i = 0; i < COUNT; i++) {
+      expected.add("m" + i, i);
+    }
+    JsonObject object = integers().parallelStream().collect(JsonCollectors.toObject(NAME, VALUE));
+    assertEquals(expected, object);
+    assertEquals(Json.value(4711), object.get("m4711"));
+  }
+
+  @Test
+  public void toObjectResultIsModifiable() {
+    JsonObject object = Stream.of(1, 2).collect(JsonCollectors.toObject(NAME, VALUE));
+    object.add("m3", 3).set("m1", "foo");
+    assertEquals("{\"m1\":\"foo\",\"m2\":2,\"m3\":3}", object.toString());
+  }
+
+  @Test
+  public void toObjectKeepsDuplicateNames() {
+    JsonObject object = Stream.of(1, 2).collect(JsonCollectors.toObject(new Function<Integer, String>() {
+      @Override
+      public String apply(Integer value) {
+        return "a";
+      }
+    }, VALUE));
+    assertEquals("{\"a\":1,\"a\":2}", object.toString());
+    assertEquals(Json.value(2), object.get("a"));
+  }
+
+  @Test
+  public void toObjectFailsWithNullArguments() {
+    assertException(NullPointerException.class, "nameMapper is null", new Runnable() {
+      public void run() {
+        JsonCollectors.toObject(null, VALUE);
+      }
+    });
+    assertException(NullPointerException.class, "valueMapper is null", new Runnable() {
+      public void run() {
+        JsonCollectors.toObject(NAME, null);
+      }
+    });
+  }
+
+  @Test
+  public void toObjectFailsWithNullName() {
+    assertException(NullPointerException.class, "name is null", new Runnable() {
+      public void run() {
+        Stream.of(1).collect(JsonCollectors.toObject(new Function<Integer, String>() {
+          @Override
+          public String apply(Integer value) {
+            return null;
+          }
+        }, VALUE));
+      }
+    });
+  }
+
+  private static List<Integer> integers() {
+    List<Integer> integers = new ArrayList<Integer>();
+    for (int i = 0; i < COUNT; i++) {
+      integers.add(i);
+    }
+    return integers;
+  }
+
+  private static JsonArray expectedArray() {
+    JsonArray array = new JsonArray();
+    for (int i = 0; i < COUNT; i++) {
+      array.add(i);
+    }
+    return array;
+  }
+}
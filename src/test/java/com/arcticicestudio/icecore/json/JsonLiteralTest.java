@@ -150,6 +150,16 @@ public class JsonLiteralTest {
     assertTrue(serializeAndDeserialize(FALSE).isFalse());
   }
 
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void estimatedRetainedSizeIsZeroForSharedLiterals() {
+    assertEquals(0, NULL.estimatedRetainedSize());
+    assertEquals(0, TRUE.estimatedRetainedSize());
+    assertEquals(0, FALSE.estimatedRetainedSize());
+  }
+
   @Test
   public void sameAfterDeserialization() throws Exception {
     JsonArray array = new JsonArray().add(NULL).add(NULL);
@@ -165,6 +165,15 @@ public class JsonNumberTest {
     assertFalse(new JsonNumber("92").hashCode() == new JsonNumber("42").hashCode());
   }
 
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void estimatedRetainedSizeCountsCharacters() {
+    assertEquals(64, new JsonNumber("23").estimatedRetainedSize());
+    assertEquals(72, new JsonNumber("-4.2e+10").estimatedRetainedSize());
+  }
+
   @Test
   public void canBeSerializedAndDeserialized() throws Exception {
     JsonNumber number = new JsonNumber("3.14");
@@ -26,11 +26,29 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.ConcurrentModificationException;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
-
+import java.util.Random;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+import com.arcticicestudio.icecore.json.JsonObject.Cursor;
 import com.arcticicestudio.icecore.json.JsonObject.HashIndexTable;
 import com.arcticicestudio.icecore.json.JsonObject.Member;
 import org.mockito.InOrder;
@@ -96,6 +114,19 @@ public class JsonObjectTest {
     unmodifiableObject.add("yogurt", 92);
   }
 
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void unmodifiableObjectEqualsBackingObject() {
+    object.add("yogurt", 92);
+    JsonObject unmodifiableObject = JsonObject.unmodifiableObject(object);
+    assertEquals(object, unmodifiableObject);
+    assertEquals(unmodifiableObject, object);
+    assertEquals(object.hashCode(), unmodifiableObject.hashCode());
+    assertEquals("{\"yogurt\":92}", unmodifiableObject.toString());
+  }
+
   @Test
   public void isEmptyTrueAfterCreation() {
     assertTrue(object.isEmpty());
@@ -233,6 +264,86 @@ public class JsonObjectTest {
     iterator.next();
   }
 
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void nameAndValueReturnMemberAtIndex() {
+    object.add("a", true).add("b", 23);
+    assertEquals("b", object.name(1));
+    assertEquals(Json.value(23), object.value(1));
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void nameFailsWithInvalidIndex() {
+    object.name(0);
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void forEachPassesMembersInDocumentOrder() {
+    object.add("a", true).add("b", 23);
+    final StringBuilder builder = new StringBuilder();
+    object.forEach(new BiConsumer<String, JsonValue>() {
+      public void accept(String name, JsonValue value) {
+        builder.append(name).append('=').append(value).append(';');
+      }
+    });
+    assertEquals("a=true;b=23;", builder.toString());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void cursorTraversesMembersInDocumentOrder() {
+    object.add("a", true).add("b", 23);
+    Cursor cursor = object.cursor();
+    assertTrue(cursor.next());
+    assertEquals(0, cursor.getIndex());
+    assertEquals("a", cursor.getName());
+    assertEquals(Json.TRUE, cursor.getValue());
+    assertTrue(cursor.next());
+    assertEquals("b", cursor.getName());
+    assertEquals(Json.value(23), cursor.getValue());
+    assertFalse(cursor.next());
+    assertFalse(cursor.next());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void cursorCanBeResetToOtherObject() {
+    object.add("a", true);
+    Cursor cursor = object.cursor();
+    while (cursor.next()) {
+      continue;
+    }
+    assertSame(cursor, cursor.reset(new JsonObject().add("b", false)));
+    assertTrue(cursor.next());
+    assertEquals("b", cursor.getName());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void cursorFailsWhenNotPositionedOnMember() {
+    object.add("a", true);
+    final Cursor cursor = object.cursor();
+    assertException(IllegalStateException.class, "Cursor is not positioned on a member", new Runnable() {
+      public void run() {
+        cursor.getName();
+      }
+    });
+  }
+
   @Test
   public void getFailsWithNullName() {
     assertException(NullPointerException.class, "name is null", new Runnable() {
@@ -630,6 +741,175 @@ public class JsonObjectTest {
     assertEquals("{\"a\":92}", object.toString());
   }
 
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void removeAllFailsWithNull() {
+    assertException(NullPointerException.class, "names is null", new Runnable() {
+      public void run() {
+        object.removeAll(null);
+      }
+    });
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void removeAllRemovesAllMatchingMembers() {
+    object.add("a", 1).add("b", 2).add("a", 3).add("c", 4).add("d", 5);
+    assertSame(object, object.removeAll(Arrays.asList("a", "d", "x")));
+    assertEquals("{\"b\":2,\"c\":4}", object.toString());
+    assertEquals(0, object.indexOf("b"));
+    assertEquals(1, object.indexOf("c"));
+    assertEquals(-1, object.indexOf("a"));
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void removeAllDoesNotModifyObjectWithoutMatchingMember() {
+    object.add("a", 1);
+    object.removeAll(Collections.singleton("b"));
+    assertEquals("{\"a\":1}", object.toString());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void removeAllOnLargeObject() {
+    List<String> removed = new ArrayList<String>();
+    for (int i = 0; i < 2000; i++) {
+      object.add("name-" + i, i);
+      if (i % 3 == 0) {
+        removed.add("name-" + i);
+      }
+    }
+    object.removeAll(removed);
+    assertEquals(1333, object.size());
+    for (int i = 0; i < 2000; i++) {
+      assertEquals(i % 3 == 0 ? null : Json.value(i), object.get("name-" + i));
+    }
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void retainAllRemovesAllOtherMembers() {
+    object.add("a", 1).add("b", 2).add("a", 3).add("c", 4);
+    assertSame(object, object.retainAll(Arrays.asList("a", "x")));
+    assertEquals("{\"a\":1,\"a\":3}", object.toString());
+    assertEquals(1, object.indexOf("a"));
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void retainAllFailsWithNull() {
+    assertException(NullPointerException.class, "names is null", new Runnable() {
+      public void run() {
+        object.retainAll(null);
+      }
+    });
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void removeIfRemovesMatchingMembers() {
+    object.add("a", 1).add("b", "x").add("c", 3);
+    assertSame(object, object.removeIf(new BiPredicate<String, JsonValue>() {
+      public boolean test(String name, JsonValue value) {
+        return value.isNumber();
+      }
+    }));
+    assertEquals("{\"b\":\"x\"}", object.toString());
+    assertEquals(0, object.indexOf("b"));
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void removeIfDoesNotModifyObjectIfPredicateFails() {
+    object.add("a", 1).add("b", 2);
+    assertException(IllegalStateException.class, new Runnable() {
+      public void run() {
+        object.removeIf(new BiPredicate<String, JsonValue>() {
+          public boolean test(String name, JsonValue value) {
+            if ("b".equals(name)) {
+              throw new IllegalStateException();
+            }
+            return true;
+          }
+        });
+      }
+    });
+    assertEquals("{\"a\":1,\"b\":2}", object.toString());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void removeIfFailsWithNull() {
+    assertException(NullPointerException.class, "filter is null", new Runnable() {
+      public void run() {
+        object.removeIf(null);
+      }
+    });
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void setAllReplacesAndAppendsMembers() {
+    object.add("a", 1).add("b", 2);
+    Map<String, JsonValue> members = new LinkedHashMap<String, JsonValue>();
+    members.put("b", Json.TRUE);
+    members.put("c", Json.FALSE);
+    assertSame(object, object.setAll(members));
+    assertEquals("{\"a\":1,\"b\":true,\"c\":false}", object.toString());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void setAllFailsWithNullValueWithoutModification() {
+    final Map<String, JsonValue> members = new LinkedHashMap<String, JsonValue>();
+    members.put("a", Json.TRUE);
+    members.put("b", null);
+    assertException(NullPointerException.class, "value is null", new Runnable() {
+      public void run() {
+        object.setAll(members);
+      }
+    });
+    assertTrue(object.isEmpty());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void unmodifiableObjectPreventsBulkModification() {
+    object.add("a", 1);
+    final JsonObject unmodifiableObject = JsonObject.unmodifiableObject(object);
+    assertException(UnsupportedOperationException.class, new Runnable() {
+      public void run() {
+        unmodifiableObject.removeAll(Collections.singleton("a"));
+      }
+    });
+    assertEquals("{\"a\":1}", object.toString());
+  }
+
   @Test
   public void mergeFailsWithNull() {
     assertException(NullPointerException.class, "object is null", new Runnable() {
@@ -750,6 +1030,92 @@ public class JsonObjectTest {
     assertFalse(jsonObject.equals(new JsonObject(jsonObject) {}));
   }
 
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void estimatedRetainedSizeOfEmptyObject() {
+    assertEquals(24, new JsonObject().estimatedRetainedSize());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void estimatedRetainedSizeCountsValuesButNotSharedNames() {
+    JsonObject object = Json.parse("{\"a\": \"foo\", \"b\": null}").asObject();
+    assertEquals(24 + 24 + 64, object.estimatedRetainedSize());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void estimatedRetainedSizeCountsOwnedNamesAndIndex() {
+    JsonObject object = new JsonObject();
+    for (int i = 0; i < 10; i++) {
+      object.add("n" + i, i);
+    }
+    long shared = object.estimatedRetainedSize();
+    object.remove("n0");
+    assertTrue(object.estimatedRetainedSize() > shared);
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void estimatedRetainedSizeOfOtherRepresentations() {
+    JsonObject object = new JsonObject().add("a", "foo").add("b", new JsonArray().add(23));
+    long size = object.estimatedRetainedSize();
+    assertTrue(JsonObject.unmodifiableObject(object).estimatedRetainedSize() > size);
+    assertTrue(object.freeze().estimatedRetainedSize() > size);
+    assertTrue(JsonObject.persistentObject(object).estimatedRetainedSize() > size);
+    assertTrue(JsonObject.concurrentObject(object).estimatedRetainedSize() > size);
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void streamContainsMembersInOrder() {
+    object.add("a", 1).add("b", 2).add("c", 3);
+    assertEquals(Arrays.asList("a", "b", "c"), object.stream().map(new Function<Member, String>() {
+      public String apply(Member member) {
+        return member.getName();
+      }
+    }).collect(Collectors.toList()));
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void parallelStreamProcessesAllMembers() {
+    for (int i = 0; i < 1000; i++) {
+      object.add("n" + i, i);
+    }
+    assertTrue(object.parallelStream().isParallel());
+    assertEquals(999 * 1000 / 2, object.parallelStream().mapToInt(new ToIntFunction<Member>() {
+      public int applyAsInt(Member member) {
+        return member.getValue().asInt();
+      }
+    }).sum());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void spliteratorIsSizedAndSplitsByIndex() {
+    object.add("a", 1).add("b", 2).add("c", 3);
+    Spliterator<Member> second = JsonObject.persistentObject(object).spliterator();
+    Spliterator<Member> first = second.trySplit();
+    assertEquals(1, first.getExactSizeIfKnown());
+    assertEquals(2, second.getExactSizeIfKnown());
+    assertTrue(first.hasCharacteristics(Spliterator.SUBSIZED | Spliterator.ORDERED));
+  }
+
   @Test
   public void hashCodeEqualsForEqualObjects() {
     assertTrue(object().hashCode() == object().hashCode());
@@ -800,7 +1166,6 @@ public class JsonObjectTest {
   @Test
   public void indexOfReturnsIndexOfLastMemberForBigObject() {
     object.add("a", true);
-    /* The hash index table does not return a value for indexes above 255 */
     for (int i = 0; i < 256; i++) {
       object.add("x-" + i, 0);
     }
@@ -808,87 +1173,224 @@ public class JsonObjectTest {
     assertEquals(257, object.indexOf("a"));
   }
 
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void indexOfWorksAcrossIndexThreshold() {
+    for (int i = 0; i <= ObjectShape.INDEX_THRESHOLD + 1; i++) {
+      object.add("a", i).add("b-" + i, i);
+      assertEquals(i * 2, object.indexOf("a"));
+      assertEquals(i * 2 + 1, object.indexOf("b-" + i));
+    }
+    for (int i = ObjectShape.INDEX_THRESHOLD + 1; i >= 0; i--) {
+      assertEquals(i, object.get("a").asInt());
+      object.remove("a");
+      assertEquals(i, object.get("b-" + i).asInt());
+    }
+    assertEquals(-1, object.indexOf("a"));
+  }
+
+  /**
+   * @since 0.8.0
+   */
   @Test
-  public void hashIndexTableCopyConstructor() {
-    HashIndexTable original = new HashIndexTable();
-    original.add("name", 92);
-    HashIndexTable copy = new HashIndexTable(original);
-    assertEquals(92, copy.get("name"));
+  public void trimToSizeKeepsMembers() {
+    object.add("a", 1).add("b", 2).add("c", 3);
+    object.trimToSize();
+    object.add("d", 4);
+    assertEquals("{\"a\":1,\"b\":2,\"c\":3,\"d\":4}", object.toString());
   }
 
   @Test
   public void hashIndexTableAdd() {
-    HashIndexTable indexTable = new HashIndexTable();
-    indexTable.add("name-0", 0);
-    indexTable.add("name-1", 1);
-    indexTable.add("name-fe", 0xfe);
-    indexTable.add("name-ff", 0xff);
+    List<String> names = names("name-0", "name-1", "name-fe", "name-ff", "name-100");
+    HashIndexTable indexTable = new HashIndexTable(names);
+    for (int i = 0; i < names.size(); i++) {
+      indexTable.add(names.get(i), i);
+    }
     assertEquals(0, indexTable.get("name-0"));
     assertEquals(1, indexTable.get("name-1"));
-    assertEquals(0xfe, indexTable.get("name-fe"));
-    assertEquals(-1, indexTable.get("name-ff"));
+    assertEquals(2, indexTable.get("name-fe"));
+    assertEquals(3, indexTable.get("name-ff"));
+    assertEquals(4, indexTable.get("name-100"));
+    assertEquals(-1, indexTable.get("name-2"));
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void hashIndexTableAddGrowsBeyond0xff() {
+    List<String> names = new ArrayList<String>();
+    HashIndexTable indexTable = new HashIndexTable(names);
+    for (int i = 0; i < 5000; i++) {
+      names.add("name-" + i);
+      indexTable.add("name-" + i, i);
+    }
+    for (int i = 0; i < 5000; i++) {
+      assertEquals(i, indexTable.get("name-" + i));
+    }
+    assertEquals(-1, indexTable.get("name-5000"));
   }
 
   @Test
   public void hashIndexTableAddOverwritesPreviousValue() {
-    HashIndexTable indexTable = new HashIndexTable();
-    indexTable.add("name", 92);
-    indexTable.add("name", 42);
-    assertEquals(42, indexTable.get("name"));
+    List<String> names = names("name", "name");
+    HashIndexTable indexTable = new HashIndexTable(names);
+    indexTable.add("name", 0);
+    indexTable.add("name", 1);
+    assertEquals(1, indexTable.get("name"));
   }
 
+  /**
+   * @since 0.8.0
+   */
   @Test
-  public void hashIndexTableAddClearsPreviousValueIfIndexExceeds0xff() {
-    HashIndexTable indexTable = new HashIndexTable();
-    indexTable.add("name", 92);
-    indexTable.add("name", 300);
-    assertEquals(-1, indexTable.get("name"));
+  public void hashIndexTableHandlesNamesWithEqualHashCodes() {
+    List<String> names = names("Aa", "BB", "AaAa", "BBBB", "AaBB", "BBAa");
+    HashIndexTable indexTable = new HashIndexTable(names);
+    for (int i = 0; i < names.size(); i++) {
+      indexTable.add(names.get(i), i);
+    }
+    for (int i = 0; i < names.size(); i++) {
+      assertEquals(i, indexTable.get(names.get(i)));
+    }
   }
 
   @Test
   public void hashIndexTableRemove() {
-    HashIndexTable indexTable = new HashIndexTable();
-    indexTable.add("name", 92);
-    indexTable.remove(92);
+    List<String> names = names("name");
+    HashIndexTable indexTable = new HashIndexTable(names);
+    indexTable.add("name", 0);
+    indexTable.remove(0);
+    names.remove(0);
     assertEquals(-1, indexTable.get("name"));
   }
 
   @Test
   public void hashIndexTableRemoveUpdatesSubsequentElements() {
-    HashIndexTable indexTable = new HashIndexTable();
-    indexTable.add("yogurt", 92);
-    indexTable.add("coconut", 42);
-    indexTable.remove(92);
-    assertEquals(42, indexTable.get("coconut"));
+    List<String> names = names("yogurt", "coconut");
+    HashIndexTable indexTable = new HashIndexTable(names);
+    indexTable.add("yogurt", 0);
+    indexTable.add("coconut", 1);
+    indexTable.remove(0);
+    names.remove(0);
+    assertEquals(0, indexTable.get("coconut"));
   }
 
   @Test
   public void hashIndexTableRemoveDoesNotChangePrecedingElements() {
-    HashIndexTable indexTable = new HashIndexTable();
-    indexTable.add("yogurt", 23);
-    indexTable.add("coconut", 42);
-    indexTable.remove(42);
-    assertEquals(23, indexTable.get("yogurt"));
+    List<String> names = names("yogurt", "coconut");
+    HashIndexTable indexTable = new HashIndexTable(names);
+    indexTable.add("yogurt", 0);
+    indexTable.add("coconut", 1);
+    indexTable.remove(1);
+    names.remove(1);
+    assertEquals(0, indexTable.get("yogurt"));
   }
 
+  /**
+   * @since 0.8.0
+   */
   @Test
-  public void canBeSerializedAndDeserialized() throws Exception {
-    object.add("yogurt", 92).add("coconut", new JsonObject().add("a", 3.14d).add("b", true));
-    assertEquals(object, serializeAndDeserialize(object));
+  public void hashIndexTableRemoveRestoresPrecedingMemberWithSameName() {
+    List<String> names = names("a", "b", "a", "c");
+    HashIndexTable indexTable = new HashIndexTable(names);
+    for (int i = 0; i < names.size(); i++) {
+      indexTable.add(names.get(i), i);
+    }
+    indexTable.remove(2);
+    names.remove(2);
+    assertEquals(0, indexTable.get("a"));
+    assertEquals(1, indexTable.get("b"));
+    assertEquals(2, indexTable.get("c"));
   }
 
+  /**
+   * @since 0.8.0
+   */
   @Test
-  public void deserializedObjectCanBeAccessed() throws Exception {
-    object.add("yogurt", 92);
-    JsonObject deserializedObject = serializeAndDeserialize(object);
-    assertEquals(92, deserializedObject.get("yogurt").asInt());
+  public void hashIndexTableRemoveKeepsAllOtherMembersAccessible() {
+    List<String> names = new ArrayList<String>();
+    HashIndexTable indexTable = new HashIndexTable(names);
+    for (int i = 0; i < 1000; i++) {
+      names.add("name-" + i);
+      indexTable.add("name-" + i, i);
+    }
+    for (int i = 0; i < 500; i++) {
+      int index = names.indexOf("name-" + i * 2);
+      indexTable.remove(index);
+      names.remove(index);
+    }
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(i % 2 == 0 ? -1 : i / 2, indexTable.get("name-" + i));
+    }
   }
 
+  /**
+   * @since 0.8.0
+   */
   @Test
-  public void memberReturnsNameAndValue() {
-    Member member = new Member("a", Json.TRUE);
-    assertEquals("a", member.getName());
-    assertEquals(Json.TRUE, member.getValue());
+  public void hashIndexTableRemoveRelinksDuplicateNames() {
+    List<String> names = names("a", "b", "a", "a", "c");
+    HashIndexTable indexTable = new HashIndexTable(names);
+    for (int i = 0; i < names.size(); i++) {
+      indexTable.add(names.get(i), i);
+    }
+    indexTable.remove(2);
+    names.remove(2);
+    assertEquals(2, indexTable.get("a"));
+    indexTable.remove(2);
+    names.remove(2);
+    assertEquals(0, indexTable.get("a"));
+    assertEquals(2, indexTable.get("c"));
+    indexTable.remove(0);
+    names.remove(0);
+    assertEquals(-1, indexTable.get("a"));
+    assertEquals(0, indexTable.get("b"));
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void hashIndexTableMatchesLastIndexOfAfterRemovals() {
+    List<String> names = new ArrayList<String>();
+    HashIndexTable indexTable = new HashIndexTable(names);
+    Random random = new Random(42);
+    for (int i = 0; i < 400; i++) {
+      names.add("name-" + random.nextInt(50));
+      indexTable.add(names.get(i), i);
+    }
+    while (!names.isEmpty()) {
+      int index = random.nextInt(names.size());
+      indexTable.remove(index);
+      names.remove(index);
+      for (int i = 0; i < 50; i++) {
+        assertEquals(names.lastIndexOf("name-" + i), indexTable.get("name-" + i));
+      }
+    }
+  }
+
+  @Test
+  public void canBeSerializedAndDeserialized() throws Exception {
+    object.add("yogurt", 92).add("coconut", new JsonObject().add("a", 3.14d).add("b", true));
+    assertEquals(object, serializeAndDeserialize(object));
+  }
+
+  @Test
+  public void deserializedObjectCanBeAccessed() throws Exception {
+    object.add("yogurt", 92);
+    JsonObject deserializedObject = serializeAndDeserialize(object);
+    assertEquals(92, deserializedObject.get("yogurt").asInt());
+  }
+
+  @Test
+  public void memberReturnsNameAndValue() {
+    Member member = new Member("a", Json.TRUE);
+    assertEquals("a", member.getName());
+    assertEquals(Json.TRUE, member.getValue());
   }
 
   @Test
@@ -935,6 +1437,865 @@ public class JsonObjectTest {
     assertFalse(member.hashCode() == new Member("a", Json.FALSE).hashCode());
   }
 
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void persistentObjectHasSameMembers() {
+    JsonObject source = object("a", "1", "b", "2", "c", "3");
+    JsonObject persistent = JsonObject.persistentObject(source);
+    assertEquals(source, persistent);
+    assertEquals(persistent, source);
+    assertEquals(source.hashCode(), persistent.hashCode());
+    assertEquals(source.toString(), persistent.toString());
+    assertEquals(Arrays.asList("a", "b", "c"), persistent.names());
+    assertEquals(1, persistent.indexOf("b"));
+    assertEquals(Json.value("3"), persistent.get("c"));
+    assertSame(persistent, JsonObject.persistentObject(persistent));
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void persistentObjectDoesNotReflectChanges() {
+    JsonObject source = object("a", "1");
+    JsonObject persistent = JsonObject.persistentObject(source);
+    source.add("b", 2);
+    assertEquals(1, persistent.size());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void persistentObjectConvertsNestedValues() {
+    JsonObject nested = object("x", "1");
+    final JsonObject persistent = JsonObject.persistentObject(new JsonObject().add("nested", nested));
+    nested.add("y", 2);
+    assertEquals(object("x", "1"), persistent.get("nested"));
+    assertException(UnsupportedOperationException.class, new Runnable() {
+      public void run() {
+        persistent.get("nested").asObject().add("z", 3);
+      }
+    });
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void persistentObjectCannotBeModified() {
+    final JsonObject persistent = JsonObject.persistentObject(object("a", "1"));
+    assertException(UnsupportedOperationException.class, new Runnable() {
+      public void run() {
+        persistent.add("b", 2);
+      }
+    });
+    assertException(UnsupportedOperationException.class, new Runnable() {
+      public void run() {
+        persistent.set("a", 2);
+      }
+    });
+    assertException(UnsupportedOperationException.class, new Runnable() {
+      public void run() {
+        persistent.remove("a");
+      }
+    });
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void persistentObjectReducesDuplicateNames() {
+    JsonObject persistent = JsonObject.persistentObject(object("a", "1", "b", "2", "a", "3"));
+    assertEquals(object("a", "3", "b", "2"), persistent);
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void withReturnsNewPersistentVersion() {
+    JsonObject original = JsonObject.persistentObject(object("a", "1", "b", "2"));
+    JsonObject replaced = original.with("a", Json.value(3));
+    final JsonObject added = replaced.with("c", Json.TRUE);
+    assertEquals("{\"a\":\"1\",\"b\":\"2\"}", original.toString());
+    assertEquals("{\"a\":3,\"b\":\"2\"}", replaced.toString());
+    assertEquals("{\"a\":3,\"b\":\"2\",\"c\":true}", added.toString());
+    assertException(UnsupportedOperationException.class, new Runnable() {
+      public void run() {
+        added.add("d", 4);
+      }
+    });
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void withoutReturnsNewPersistentVersion() {
+    JsonObject original = JsonObject.persistentObject(object("a", "1", "b", "2", "c", "3"));
+    JsonObject removed = original.without("b");
+    assertEquals(object("a", "1", "b", "2", "c", "3"), original);
+    assertEquals(object("a", "1", "c", "3"), removed);
+    assertEquals(1, removed.indexOf("c"));
+    assertEquals(Json.value("3"), removed.value(1));
+    assertSame(removed, removed.without("b"));
+    assertEquals(object("a", "1", "c", "3", "b", "4"), removed.with("b", Json.value("4")));
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void withAndWithoutKeepMemberOrderOfLargeObjects() {
+    JsonObject expected = new JsonObject();
+    JsonObject persistent = JsonObject.persistentObject(new JsonObject());
+    for (int i = 0; i < 1000; i++) {
+      expected.add("m" + i, i);
+      persistent = persistent.with("m" + i, Json.value(i));
+    }
+    for (int i = 0; i < 1000; i += 3) {
+      expected.remove("m" + i);
+      persistent = persistent.without("m" + i);
+    }
+    assertEquals(expected, persistent);
+    assertEquals(expected.indexOf("m500"), persistent.indexOf("m500"));
+    assertEquals(expected.name(400), persistent.name(400));
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void withAndWithoutCopyModifiableObject() {
+    JsonObject original = object("a", "1");
+    JsonObject copy = original.with("b", Json.TRUE).without("a");
+    assertEquals(object("a", "1"), original);
+    assertEquals(new JsonObject().add("b", true), copy);
+    copy.add("c", 3);
+    assertEquals(2, copy.size());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void copyOfPersistentObjectIsModifiable() {
+    JsonObject copy = new JsonObject(JsonObject.persistentObject(object("a", "1", "b", "2")));
+    copy.add("c", "3");
+    assertEquals(object("a", "1", "b", "2", "c", "3"), copy);
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void persistentObjectCanBeSerializedAndDeserialized() throws Exception {
+    JsonObject persistent = JsonObject.persistentObject(object("a", "1", "b", "2"));
+    JsonObject deserialized = serializeAndDeserialize(persistent);
+    assertEquals(persistent, deserialized);
+    assertEquals(object("a", "1", "b", "2", "c", "3"), deserialized.with("c", Json.value("3")));
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void freezeHasSameMembers() {
+    JsonObject source = object("a", "1", "b", "2", "a", "3");
+    JsonObject frozen = source.freeze();
+    assertEquals(source, frozen);
+    assertEquals(frozen, source);
+    assertEquals(source.hashCode(), frozen.hashCode());
+    assertEquals(source.toString(), frozen.toString());
+    assertEquals(Arrays.asList("a", "b", "a"), frozen.names());
+    assertEquals(Json.value("3"), frozen.get("a"));
+    assertEquals(2, frozen.indexOf("a"));
+    assertNull(frozen.get("c"));
+    assertSame(frozen, frozen.freeze());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void freezeLooksUpManyNames() {
+    JsonObject source = new JsonObject().add("Aa", 1).add("BB", 2);
+    for (int i = 0; i < 300; i++) {
+      source.add("name" + i, i);
+    }
+    JsonObject frozen = source.freeze();
+    for (String name : source.names()) {
+      assertEquals(source.get(name), frozen.get(name));
+    }
+    assertNull(frozen.get("name300"));
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void freezeFreezesNestedValues() {
+    JsonObject nested = object("x", "1");
+    final JsonObject frozen = new JsonObject().add("nested", nested).freeze();
+    nested.add("y", 2);
+    assertEquals(object("x", "1"), frozen.get("nested"));
+    assertException(UnsupportedOperationException.class, new Runnable() {
+      public void run() {
+        frozen.get("nested").asObject().add("z", 3);
+      }
+    });
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void frozenObjectCannotBeModified() {
+    final JsonObject frozen = object("a", "1").freeze();
+    assertException(UnsupportedOperationException.class, new Runnable() {
+      public void run() {
+        frozen.add("b", 2);
+      }
+    });
+    assertException(UnsupportedOperationException.class, new Runnable() {
+      public void run() {
+        frozen.remove("a");
+      }
+    });
+    JsonObject copy = new JsonObject(frozen).add("b", 2);
+    assertEquals(object("a", "1").add("b", 2), copy);
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void frozenObjectsWithDifferentMembersAreNotEqual() {
+    assertNotEquals(object("a", "1").freeze(), object("a", "2").freeze());
+    assertEquals(object("a", "1").freeze(), object("a", "1").freeze());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void frozenObjectCanBeSerializedAndDeserialized() throws Exception {
+    JsonObject frozen = object("a", "1", "b", "2").freeze();
+    JsonObject deserialized = serializeAndDeserialize(frozen);
+    assertEquals(frozen, deserialized);
+    assertEquals(Json.value("2"), deserialized.get("b"));
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void concurrentObjectSupportsModifications() {
+    JsonObject concurrent = JsonObject.concurrentObject(object("a", "1", "b", "2"));
+    concurrent.add("c", 3).set("a", 4).remove("b");
+    assertEquals(new JsonObject().add("a", 4).add("c", 3), concurrent);
+    assertEquals("{\"a\":4,\"c\":3}", concurrent.toString());
+    assertEquals(1, concurrent.indexOf("c"));
+    concurrent.add("a", 5);
+    assertEquals(2, concurrent.size());
+    assertEquals(Json.value(5), concurrent.get("a"));
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void concurrentObjectSupportsBulkModifications() {
+    JsonObject concurrent = JsonObject.concurrentObject(object("a", "1", "b", "2", "c", "3"));
+    concurrent.removeAll(Arrays.asList("a"));
+    assertEquals(object("b", "2", "c", "3"), concurrent);
+    concurrent.retainAll(Arrays.asList("c"));
+    assertEquals(object("c", "3"), concurrent);
+    concurrent.merge(object("d", "4")).setAll(Collections.singletonMap("c", Json.value(5)));
+    assertEquals(new JsonObject().add("c", 5).add("d", "4"), concurrent);
+    concurrent.removeIf(new BiPredicate<String, JsonValue>() {
+      public boolean test(String name, JsonValue value) {
+        return value.isNumber();
+      }
+    });
+    assertEquals(object("d", "4"), concurrent);
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void concurrentObjectIteratesOverSnapshot() {
+    JsonObject concurrent = JsonObject.concurrentObject(object("a", "1", "b", "2"));
+    Iterator<Member> iterator = concurrent.iterator();
+    JsonObject snapshot = JsonObject.persistentObject(concurrent);
+    concurrent.remove("a").add("c", 3);
+    assertEquals("a", iterator.next().getName());
+    assertEquals("b", iterator.next().getName());
+    assertFalse(iterator.hasNext());
+    assertEquals(object("a", "1", "b", "2"), snapshot);
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void concurrentObjectStoresPersistentValues() {
+    JsonObject nested = object("x", "1");
+    final JsonObject concurrent = JsonObject.concurrentObject(new JsonObject()).add("nested", nested);
+    nested.add("y", 2);
+    assertEquals(object("x", "1"), concurrent.get("nested"));
+    assertException(UnsupportedOperationException.class, new Runnable() {
+      public void run() {
+        concurrent.get("nested").asObject().add("z", 3);
+      }
+    });
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void concurrentObjectKeepsModificationsOfAllThreads() throws InterruptedException {
+    final JsonObject concurrent = JsonObject.concurrentObject(new JsonObject());
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      final int thread = t;
+      threads[t] = new Thread() {
+        @Override
+        public void run() {
+          for (int i = 0; i < 500; i++) {
+            concurrent.add("t" + thread + "-" + i, i);
+            concurrent.toString();
+          }
+        }
+      };
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(2000, concurrent.size());
+    assertEquals(Json.value(499), concurrent.get("t3-499"));
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void updateSetsOrRemovesResult() {
+    JsonObject object = new JsonObject().add("a", 1).add("b", 2);
+    object.update("a", new UnaryOperator<JsonValue>() {
+      public JsonValue apply(JsonValue value) {
+        return Json.value(value.asInt() + 1);
+      }
+    });
+    object.update("c", new UnaryOperator<JsonValue>() {
+      public JsonValue apply(JsonValue value) {
+        return value == null ? Json.TRUE : value;
+      }
+    });
+    object.update("b", new UnaryOperator<JsonValue>() {
+      public JsonValue apply(JsonValue value) {
+        return null;
+      }
+    });
+    assertEquals("{\"a\":2,\"c\":true}", object.toString());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void updateFailsOnReadOnlyObjects() {
+    final UnaryOperator<JsonValue> function = new UnaryOperator<JsonValue>() {
+      public JsonValue apply(JsonValue value) {
+        return Json.TRUE;
+      }
+    };
+    assertException(UnsupportedOperationException.class, new Runnable() {
+      public void run() {
+        JsonObject.unmodifiableObject(new JsonObject()).update("a", function);
+      }
+    });
+    assertException(UnsupportedOperationException.class, new Runnable() {
+      public void run() {
+        new JsonObject().freeze().update("a", function);
+      }
+    });
+    assertException(UnsupportedOperationException.class, new Runnable() {
+      public void run() {
+        JsonObject.persistentObject(new JsonObject()).update("a", function);
+      }
+    });
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void concurrentObjectNestedValuesAreImmutable() {
+    final JsonObject concurrent = JsonObject.concurrentObject(new JsonObject().add("b", new JsonObject()));
+    assertException(UnsupportedOperationException.class, new Runnable() {
+      public void run() {
+        concurrent.get("b").asObject().add("x", 1);
+      }
+    });
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void concurrentObjectUpdatesNestedValuesWithoutLosingUpdates() throws InterruptedException {
+    final JsonObject concurrent = JsonObject.concurrentObject(new JsonObject().add("b", new JsonObject()));
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      final String field = "f" + t;
+      threads[t] = new Thread() {
+        @Override
+        public void run() {
+          for (int i = 0; i < 500; i++) {
+            concurrent.update("b", new UnaryOperator<JsonValue>() {
+              public JsonValue apply(JsonValue nested) {
+                JsonValue count = nested.asObject().get(field);
+                return nested.asObject().with(field, Json.value(count == null ? 1 : count.asInt() + 1));
+              }
+            });
+          }
+        }
+      };
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    JsonObject nested = concurrent.get("b").asObject();
+    for (int t = 0; t < threads.length; t++) {
+      assertEquals(500, nested.get("f" + t).asInt());
+    }
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void concurrentObjectEqualsOnlyStatesItHad() throws InterruptedException {
+    final JsonObject concurrent = JsonObject.concurrentObject(object("a", "1", "b", "2", "c", "3"));
+    final AtomicBoolean done = new AtomicBoolean();
+    Thread writer = new Thread() {
+      @Override
+      public void run() {
+        while (!done.get()) {
+          concurrent.add("x", "4");
+          concurrent.remove("x");
+        }
+      }
+    };
+    writer.start();
+    try {
+      JsonObject other = object("a", "1", "b", "2", "c", "3", "d", "4");
+      for (int i = 0; i < 10000; i++) {
+        assertFalse(concurrent.equals(other));
+        assertFalse(other.equals(concurrent));
+      }
+    } finally {
+      done.set(true);
+      writer.join();
+    }
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void concurrentObjectFreezesConsistentSnapshot() throws InterruptedException {
+    final JsonObject concurrent = JsonObject.concurrentObject(object("a", "1", "b", "2", "c", "3"));
+    final AtomicBoolean done = new AtomicBoolean();
+    Thread writer = new Thread() {
+      @Override
+      public void run() {
+        while (!done.get()) {
+          concurrent.add("x", 4);
+          concurrent.remove("x");
+        }
+      }
+    };
+    writer.start();
+    try {
+      JsonObject small = object("a", "1", "b", "2", "c", "3");
+      JsonObject large = object("a", "1", "b", "2", "c", "3").add("x", 4);
+      for (int i = 0; i < 10000; i++) {
+        JsonObject frozen = concurrent.freeze();
+        assertTrue(frozen.equals(small) || frozen.equals(large));
+      }
+    } finally {
+      done.set(true);
+      writer.join();
+    }
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void hashCodeIsCachedUntilModification() {
+    JsonObject object = object("a", "1");
+    int hashCode = object.hashCode();
+    assertEquals(hashCode, object.cachedHashCode());
+    object.set("a", "2");
+    assertEquals(0, object.cachedHashCode());
+    assertNotEquals(hashCode, object.hashCode());
+    object.remove("a");
+    assertEquals(new JsonObject().hashCode(), object.hashCode());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void hashCodeReflectsModificationOfNestedValues() {
+    JsonObject nested = object("x", "1");
+    JsonObject object = new JsonObject().add("nested", nested);
+    int hashCode = object.hashCode();
+    assertEquals(0, object.cachedHashCode());
+    nested.set("x", "2");
+    assertNotEquals(hashCode, object.hashCode());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void hashCodeIsCachedWithMutableNestedValues() {
+    final int[] calls = new int[1];
+    JsonValue counted = new JsonString("foo") {
+      @Override
+      public int hashCode() {
+        calls[0]++;
+        return super.hashCode();
+      }
+    };
+    JsonObject nested = new JsonObject().add("x", counted);
+    JsonObject object = new JsonObject().add("a", nested).add("b", counted).add("c", new JsonArray().add(1).add(2));
+    int hashCode = object.hashCode();
+    assertEquals(2, calls[0]);
+    assertEquals(hashCode, object.hashCode());
+    assertEquals(2, calls[0]);
+    nested.set("x", 1);
+    assertEquals(Json.parse("{\"a\":{\"x\":1},\"b\":\"foo\",\"c\":[1,2]}").hashCode(), object.hashCode());
+    assertEquals(3, calls[0]);
+    nested.set("x", "foo");
+    assertEquals(hashCode, object.hashCode());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void hashCodeReflectsModificationOfDeeplyNestedValues() {
+    JsonObject object = Json.parse("{\"a\":{\"x\":1},\"b\":[1,{\"y\":[2]}]}").asObject();
+    int hashCode = object.hashCode();
+    assertEquals(hashCode, object.hashCode());
+    object.get("b").asArray().get(1).asObject().get("y").asArray().add(3);
+    assertEquals(Json.parse("{\"a\":{\"x\":1},\"b\":[1,{\"y\":[2,3]}]}").hashCode(), object.hashCode());
+    object.get("a").asObject().remove("x");
+    assertEquals(Json.parse("{\"a\":{},\"b\":[1,{\"y\":[2,3]}]}").hashCode(), object.hashCode());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void hashCodeIsCachedForImmutableNestedValues() {
+    JsonObject object = new JsonObject().add("nested", object("x", "1").freeze());
+    assertEquals(object.hashCode(), object.cachedHashCode());
+    JsonObject persistent = JsonObject.persistentObject(object);
+    assertEquals(persistent.hashCode(), persistent.cachedHashCode());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void equalsFalseForDifferentCachedHashCodes() {
+    JsonObject object = object("a", "1");
+    JsonObject other = object("a", "2");
+    object.hashCode();
+    other.hashCode();
+    assertNotEquals(object, other);
+    assertEquals(object, object("a", "1"));
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void asMapReflectsChangesOfObject() {
+    JsonObject object = new JsonObject().add("a", 1).add("b", "foo");
+    Map<String, Object> map = object.asMap();
+    assertEquals(2, map.size());
+    assertEquals(1, map.get("a"));
+    assertEquals("foo", map.get("b"));
+    object.add("c", true).remove("a");
+    assertEquals(2, map.size());
+    assertNull(map.get("a"));
+    assertEquals(Boolean.TRUE, map.get("c"));
+    assertFalse(map.containsKey("a"));
+    assertFalse(map.containsKey(23));
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void asMapConvertsNestedValuesToViews() {
+    JsonObject object = new JsonObject().add("a", new JsonObject().add("b", new JsonArray().add(1)));
+    Map<?, ?> nested = (Map<?, ?>)object.asMap().get("a");
+    assertEquals(Arrays.<Object>asList(1), nested.get("b"));
+    assertEquals(Collections.singletonMap("a", Collections.singletonMap("b", Arrays.asList(1))), object.asMap());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void asMapWritesThroughToObject() {
+    JsonObject object = new JsonObject().add("a", 1);
+    Map<String, Object> map = object.asMap();
+    assertEquals(1, map.put("a", "foo"));
+    assertNull(map.put("b", Arrays.asList(1, 2)));
+    assertEquals("{\"a\":\"foo\",\"b\":[1,2]}", object.toString());
+    assertEquals("foo", map.remove("a"));
+    assertNull(map.remove("a"));
+    assertEquals("{\"b\":[1,2]}", object.toString());
+    map.entrySet().iterator().next().setValue(3);
+    assertEquals("{\"b\":3}", object.toString());
+    map.clear();
+    assertTrue(object.isEmpty());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void asMapIteratesInDocumentOrder() {
+    JsonObject object = new JsonObject().add("b", 1).add("a", 2);
+    assertEquals(Arrays.asList("b", "a"), new ArrayList<String>(object.asMap().keySet()));
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void asMapIteratorFailsOnModification() {
+    final JsonObject object = new JsonObject().add("a", 1).add("b", 2);
+    final Iterator<String> iterator = object.asMap().keySet().iterator();
+    iterator.next();
+    object.add("c", 3);
+    assertException(ConcurrentModificationException.class, new Runnable() {
+      public void run() {
+        iterator.next();
+      }
+    });
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void asMapExposesLastMemberOfDuplicateNames() {
+    Map<String, Object> map = Json.parse("{\"a\":1,\"b\":2,\"a\":3}").asObject().asMap();
+    assertEquals(2, map.size());
+    assertEquals(Arrays.asList("b", "a"), new ArrayList<String>(map.keySet()));
+    assertEquals(Arrays.<Object>asList(2, 3), new ArrayList<Object>(map.values()));
+    Map<String, Object> expected = new HashMap<String, Object>();
+    expected.put("a", 3);
+    expected.put("b", 2);
+    assertEquals(expected, map);
+    assertEquals(map, new HashMap<String, Object>(map));
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void asMapRemovesAllMembersOfDuplicateName() {
+    JsonObject object = Json.parse("{\"a\":1,\"b\":2,\"a\":3}").asObject();
+    assertEquals(3, object.asMap().remove("a"));
+    assertEquals(new JsonObject().add("b", 2), object);
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void asMapIteratorRemovesThroughObject() {
+    JsonObject object = Json.parse("{\"a\":1,\"b\":2,\"a\":3,\"c\":4,\"d\":5}").asObject();
+    Map<String, Object> map = object.asMap();
+    assertTrue(map.keySet().removeIf(new Predicate<String>() {
+      public boolean test(String name) {
+        return !name.equals("c");
+      }
+    }));
+    assertEquals(new JsonObject().add("c", 4), object);
+    assertTrue(map.values().remove(4));
+    assertTrue(object.isEmpty());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void asMapIteratorRemoveFailsBeforeNext() {
+    final Iterator<String> iterator = new JsonObject().add("a", 1).asMap().keySet().iterator();
+    assertException(IllegalStateException.class, new Runnable() {
+      public void run() {
+        iterator.remove();
+      }
+    });
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void asMapIteratorOfConcurrentObjectRemovesThroughObject() {
+    JsonObject object = JsonObject.concurrentObject(new JsonObject().add("a", 1).add("b", 2).add("c", 3));
+    Iterator<String> iterator = object.asMap().keySet().iterator();
+    while (iterator.hasNext()) {
+      if (!iterator.next().equals("b")) {
+        iterator.remove();
+      }
+    }
+    assertEquals(new JsonObject().add("b", 2), object);
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void asMapOfUnmodifiableObjectFailsToPut() {
+    final Map<String, Object> map = JsonObject.unmodifiableObject(new JsonObject()).asMap();
+    assertException(UnsupportedOperationException.class, new Runnable() {
+      public void run() {
+        map.put("a", 1);
+      }
+    });
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void wrapReflectsChangesOfMap() {
+    Map<String, Object> map = new LinkedHashMap<String, Object>();
+    map.put("a", 1);
+    map.put("b", null);
+    JsonObject object = JsonObject.wrap(map);
+    assertEquals(2, object.size());
+    assertEquals(Json.value(1), object.get("a"));
+    assertEquals(Json.NULL, object.get("b"));
+    assertNull(object.get("c"));
+    assertEquals("b", object.name(1));
+    map.put("c", "foo");
+    assertEquals("{\"a\":1,\"b\":null,\"c\":\"foo\"}", object.toString());
+    assertEquals(Json.value("foo"), object.value(2));
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void wrapWrapsNestedMapsAndLists() {
+    Map<String, Object> map = new LinkedHashMap<String, Object>();
+    map.put("a", Collections.singletonMap("b", Arrays.asList(1, "c")));
+    JsonObject object = JsonObject.wrap(map);
+    assertEquals(Json.value("c"), object.get("a").asObject().get("b").asArray().get(1));
+    assertEquals(Json.parse("{\"a\":{\"b\":[1,\"c\"]}}"), object);
+    assertEquals(object, Json.parse("{\"a\":{\"b\":[1,\"c\"]}}"));
+    assertEquals(Json.parse("{\"a\":{\"b\":[1,\"c\"]}}").hashCode(), object.hashCode());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void wrapIteratesMembers() {
+    Map<String, Object> map = new LinkedHashMap<String, Object>();
+    map.put("a", 1);
+    map.put("b", true);
+    JsonObject object = JsonObject.wrap(map);
+    Iterator<Member> iterator = object.iterator();
+    assertEquals(new Member("a", Json.value(1)), iterator.next());
+    assertEquals(new Member("b", Json.TRUE), iterator.next());
+    assertFalse(iterator.hasNext());
+    assertEquals(Arrays.asList("a", "b"), object.names());
+    assertEquals(new JsonObject().add("a", 1).add("b", true), object.freeze());
+    assertEquals(new JsonObject().add("a", 1).add("b", true), new JsonObject(object));
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void persistentObjectOfWrappedMapTakesSingleSnapshot() {
+    final int[] snapshots = new int[1];
+    Map<String, Object> map = new LinkedHashMap<String, Object>() {
+      @Override
+      public Set<Map.Entry<String, Object>> entrySet() {
+        snapshots[0]++;
+        return super.entrySet();
+      }
+    };
+    for (int i = 0; i < 100; i++) {
+      map.put("m" + i, i);
+    }
+    JsonObject persistent = JsonObject.persistentObject(JsonObject.wrap(map));
+    assertEquals(1, snapshots[0]);
+    assertEquals(100, persistent.size());
+    assertEquals(Json.value(99), persistent.get("m99"));
+    JsonObject concurrent = JsonObject.concurrentObject(JsonObject.unmodifiableObject(JsonObject.wrap(map)));
+    assertEquals(2, snapshots[0]);
+    assertEquals(persistent, concurrent);
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void wrapIsReadOnly() {
+    final JsonObject object = JsonObject.wrap(new LinkedHashMap<String, Object>());
+    assertException(UnsupportedOperationException.class, new Runnable() {
+      public void run() {
+        object.add("a", 1);
+      }
+    });
+    assertException(UnsupportedOperationException.class, new Runnable() {
+      public void run() {
+        object.remove("a");
+      }
+    });
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void wrapFailsWithUnsupportedNames() {
+    final Map<Object, Object> map = new LinkedHashMap<Object, Object>();
+    map.put(23, 1);
+    assertException(IllegalArgumentException.class, "Unsupported name type: java.lang.Integer", new Runnable() {
+      public void run() {
+        JsonObject.wrap(map).toString();
+      }
+    });
+  }
+
   private static JsonObject object(String... namesAndValues) {
     JsonObject object = new JsonObject();
     for (int i = 0; i < namesAndValues.length; i += 2) {
@@ -942,4 +2303,8 @@ public class JsonObjectTest {
     }
     return object;
   }
+
+  private static List<String> names(String... names) {
+    return new ArrayList<String>(Arrays.asList(names));
+  }
 }
@@ -18,6 +18,8 @@ import static com.arcticicestudio.icecore.json.Json.parse;
 import static com.arcticicestudio.icecore.json.TestUtil.assertException;
 import static org.hamcrest.core.StringStartsWith.startsWith;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
@@ -25,6 +27,8 @@ import static org.junit.Assert.assertTrue;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 
 import com.arcticicestudio.icecore.json.Json.DefaultHandler;
 import com.arcticicestudio.icecore.json.TestUtil.RunnableEx;
@@ -299,6 +303,261 @@ public class JsonParserTest {
     assertEquals("[3.141592653589]", defHandler.getValue().toString());
   }
 
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void parseValueCreatesSameValueAsDefaultHandler() throws IOException {
+    String input = "{\"a\": [23, -4.2e+1, true, false, null], \"lorem\": \"ipsum \\\"dolor\\\" sit\\u0020amet\", "
+      + "\"b\": {\"c\": {}, \"d\": []}}";
+    DefaultHandler defHandler = new DefaultHandler();
+    new JsonParser(defHandler).parse(input);
+    for (int bufferSize = 1; bufferSize < input.length() + 1; bufferSize++) {
+      JsonValue value = new JsonParser().parseValue(new StringReader(input), bufferSize);
+      assertEquals(defHandler.getValue(), value);
+    }
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void parseValueReusesLiteralConstants() {
+    JsonArray array = new JsonParser().parseValue("[null, true, false]").asArray();
+    assertSame(Json.NULL, array.get(0));
+    assertSame(Json.TRUE, array.get(1));
+    assertSame(Json.FALSE, array.get(2));
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void parseValueReusesNamesOfSameShapedSiblingObjects() {
+    JsonArray array = new JsonParser().parseValue("[{\"id\": 1, \"name\": \"a\"}, {\"id\": 2, \"name\": \"b\"}]")
+      .asArray();
+    JsonObject first = array.get(0).asObject();
+    JsonObject second = array.get(1).asObject();
+    assertSame(first.names().get(0), second.names().get(0));
+    assertSame(first.names().get(1), second.names().get(1));
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void parseValueSharesShapeOfSameShapedSiblingObjects() {
+    JsonArray array = new JsonParser().parseValue("[{\"id\": 1, \"a\\\"b\": 2}, {\"id\": 3, \"a\\\"b\": 4}]").asArray();
+    JsonObject first = array.get(0).asObject();
+    JsonObject second = array.get(1).asObject();
+    assertSame(first.shape(), second.shape());
+    second.remove("id");
+    assertNotSame(first.shape(), second.shape());
+    assertEquals("{\"id\":1,\"a\\\"b\":2}", first.toString());
+    assertEquals("{\"a\\\"b\":4}", second.toString());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void parseValueHandlesMispredictedNames() throws IOException {
+    String input = "[{\"a\": 1, \"b\": 2}, {\"a\": 1, \"bc\": 2}, {\"b\": 2, \"a\": 1, \"c\": 3}, {\"a\": 1}, {},"
+      + " {\"a\\\"\": 1, \"b\\\\\": 2}, {\"a\\\"\": 1, \"b\\\\\": 2}, {\"a\\u0022\": 1, \"\\u0062\": 2}, 23]";
+    DefaultHandler defHandler = new DefaultHandler();
+    new JsonParser(defHandler).parse(input);
+    for (int bufferSize = 1; bufferSize < input.length() + 1; bufferSize++) {
+      JsonValue value = new JsonParser().parseValue(new StringReader(input), bufferSize);
+      assertEquals(defHandler.getValue(), value);
+    }
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void parseValueRejectsInvalidNamesOfSameShapedSiblingObjects() {
+    ParseException exception = assertException(ParseException.class, new Runnable() {
+      public void run() {
+        new JsonParser().parseValue("[{\"a\": 1}, {\"a: 1}]");
+      }
+    });
+    assertEquals("Unexpected end of input at 1:20", exception.getMessage());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void parseValueStoresNumericArraysAsPrimitives() {
+    JsonArray array = new JsonParser().parseValue("[[1, -2], [3, 4000000000], [0.5, 1], [1.50, 2]]").asArray();
+    assertTrue(array.get(0).asArray().storage() instanceof ArrayStorage.IntStorage);
+    assertTrue(array.get(1).asArray().storage() instanceof ArrayStorage.LongStorage);
+    assertTrue(array.get(2).asArray().storage() instanceof ArrayStorage.DoubleStorage);
+    assertTrue(array.get(3).asArray().storage() instanceof ArrayStorage.GenericStorage);
+    assertEquals("[[1,-2],[3,4000000000],[0.5,1],[1.50,2]]", array.toString());
+    assertEquals(parse("[[1,-2],[3,4000000000],[0.5,1],[1.50,2]]"), array);
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void parseValueStoresHugeArraysInChunks() {
+    StringBuilder builder = new StringBuilder("[[");
+    for (int i = 0; i <= ArrayStorage.CHUNKED_THRESHOLD; i++) {
+      builder.append("\"").append(i).append("\",");
+    }
+    builder.append("true],1]");
+    JsonArray array = new JsonParser().parseValue(builder.toString()).asArray();
+    JsonArray nested = array.get(0).asArray();
+    assertTrue(nested.storage() instanceof ArrayStorage.ChunkedStorage);
+    assertEquals(ArrayStorage.CHUNKED_THRESHOLD + 2, nested.size());
+    assertEquals(Json.value("0"), nested.get(0));
+    assertEquals(Json.TRUE, nested.get(ArrayStorage.CHUNKED_THRESHOLD + 1));
+    assertEquals(Json.value(1), array.get(1));
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void parseValueCreatesModifiableNestedObjects() {
+    JsonObject object = new JsonParser().parseValue("{\"a\": {\"b\": 1, \"c\": {}}, \"d\": [{\"e\": 2}]}").asObject();
+    object.get("a").asObject().add("f", 3).get("c").asObject().add("g", 4);
+    object.get("d").asArray().get(0).asObject().remove("e");
+    object.add("h", 5);
+    assertEquals("{\"a\":{\"b\":1,\"c\":{\"g\":4},\"f\":3},\"d\":[{}],\"h\":5}", object.toString());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void parseReportsOrdinalsOfRegisteredNames() throws IOException {
+    String input = "{\"id\": 1, \"other\": [2], \"n\\u0061me\": \"a\", \"email\": {\"id\": 3}}";
+    for (int bufferSize = 1; bufferSize < input.length() + 1; bufferSize++) {
+      NameHandler nameHandler = new NameHandler(NameTable.of("id", "name", "email"), false);
+      new JsonParser(nameHandler).parse(new StringReader(input), bufferSize);
+      assertEquals("id:0 other:-1 name:1 email:2 id:0 ", nameHandler.log.toString());
+    }
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void parseReportsKnownNamesWithTableInstance() {
+    NameTable names = NameTable.of("id");
+    NameHandler nameHandler = new NameHandler(names, false);
+    new JsonParser(nameHandler).parse("{\"id\": 1}");
+    assertSame(names.name(0), nameHandler.lastName);
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void parseSkipsMembersWithUnknownNames() throws IOException {
+    String input = "{\"id\": 1, \"other\": [2, {\"id\": 3}], \"x\\u0061\": {}, \"email\": \"e\"}";
+    for (int bufferSize = 1; bufferSize < input.length() + 1; bufferSize++) {
+      NameHandler nameHandler = new NameHandler(NameTable.of("id", "name", "email"), true);
+      new JsonParser(nameHandler).parse(new StringReader(input), bufferSize);
+      assertEquals("id:0 email:2 ", nameHandler.log.toString());
+      assertEquals(2, nameHandler.values);
+    }
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void parseRejectsInvalidValuesOfSkippedMembers() {
+    final NameHandler nameHandler = new NameHandler(NameTable.of("id"), true);
+    ParseException exception = assertException(ParseException.class, new Runnable() {
+      public void run() {
+        new JsonParser(nameHandler).parse("{\"other\": [1,]}");
+      }
+    });
+    assertEquals("Expected value at 1:14", exception.getMessage());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void parseAbortsWhenCancelledOnBufferRefill() {
+    final int[] checks = new int[1];
+    parser.setCancellation(new BooleanSupplier() {
+      public boolean getAsBoolean() {
+        return ++checks[0] == 2;
+      }
+    });
+    ParseCancelledException exception = assertException(ParseCancelledException.class, new RunnableEx() {
+      public void run() throws IOException {
+        parser.parse(new StringReader("[\"lorem\", \"ipsum\"]"), 4);
+      }
+    });
+    assertEquals(new Location(7, 1, 8), exception.getLocation());
+    assertEquals("Parsing cancelled at 1:8", exception.getMessage());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void parseAbortsWhenCancelledOnContainers() {
+    StringBuilder builder = new StringBuilder("[");
+    for (int i = 0; i < 1000; i++) {
+      builder.append("[],");
+    }
+    final String input = builder.append("[]]").toString();
+    final int[] checks = new int[1];
+    parser.setCancellation(new BooleanSupplier() {
+      public boolean getAsBoolean() {
+        checks[0]++;
+        return true;
+      }
+    });
+    ParseCancelledException exception = assertException(ParseCancelledException.class, new RunnableEx() {
+      public void run() throws IOException {
+        parser.parse(new StringReader(input), input.length());
+      }
+    });
+    assertEquals(1, checks[0]);
+    assertTrue(exception.getLocation().offset > 0);
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void parseCompletesWithoutCancellation() throws IOException {
+    parser.setCancellation(new BooleanSupplier() {
+      public boolean getAsBoolean() {
+        return false;
+      }
+    });
+    parser.parse(new StringReader("[\"lorem\", \"ipsum\"]"), 2);
+    parser.setCancellation(null);
+    parser.parse(new StringReader("[\"lorem\", \"ipsum\"]"), 2);
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void parseAbortsWhenTimeoutElapsed() {
+    final BooleanSupplier timeout = JsonParser.timeout(0, TimeUnit.NANOSECONDS);
+    assertException(ParseCancelledException.class, new RunnableEx() {
+      public void run() throws IOException {
+        Json.parse(new StringReader("[\"lorem\", \"ipsum\", \"dolor\", \"sit\", \"amet\"]"), timeout);
+      }
+    });
+    assertTrue(timeout.getAsBoolean());
+    assertFalse(JsonParser.timeout(1, TimeUnit.HOURS).getAsBoolean());
+  }
+
   @Test
   public void parseHandlesPositionsCorrectlyWhenInputExceedsBufferSize() {
     final String input = "{\n  \"a\": 23,\n  \"b\": 42,\n}";
@@ -760,6 +1019,31 @@ public class JsonParserTest {
     return builder.toString();
   }
 
+  /**
+   * @since 0.8.0
+   */
+  static class NameHandler extends JsonHandler<Object, Object> {
+
+    final StringBuilder log = new StringBuilder();
+    String lastName;
+    int values;
+
+    NameHandler(NameTable names, boolean skipUnknownNames) {
+      registerNames(names, skipUnknownNames);
+    }
+
+    @Override
+    public void endObjectName(Object object, String name, int ordinal) {
+      log.append(name).append(':').append(ordinal).append(' ');
+      lastName = name;
+    }
+
+    @Override
+    public void endObjectValue(Object object, String name) {
+      values++;
+    }
+  }
+
   /**
    * @since 0.8.0
    */
@@ -109,6 +109,15 @@ public class JsonStringTest {
     assertFalse(new JsonString("yogurt").hashCode() == new JsonString("coconut").hashCode());
   }
 
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void estimatedRetainedSizeCountsCharacters() {
+    assertEquals(64, new JsonString("foo").estimatedRetainedSize());
+    assertEquals(72, new JsonString("yogurt").estimatedRetainedSize());
+  }
+
   @Test
   public void canBeSerializedAndDeserialized() throws Exception {
     JsonString string = new JsonString("yogurt");
@@ -21,6 +21,10 @@ import org.junit.Test;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import com.arcticicestudio.icecore.json.TestUtil.RunnableEx;
 
@@ -243,6 +247,16 @@ public class JsonTest {
     assertEquals(new JsonObject(), Json.object());
   }
 
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void weigherReturnsEstimatedRetainedSize() {
+    JsonValue value = Json.parse("[\"foo\", {\"a\": 23}]");
+    assertEquals(value.estimatedRetainedSize(), Json.weigher().applyAsInt("key", value));
+    assertEquals(0, Json.weigher().applyAsInt("key", Json.NULL));
+  }
+
   @Test
   public void parseString() {
     assertEquals(Json.value(23), Json.parse("23"));
@@ -271,4 +285,233 @@ public class JsonTest {
       }
     });
   }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void parseStringWithStringCache() {
+    StringCache cache = new StringCache();
+    JsonArray array = Json.parse("[\"EUR\", \"EUR\", \"a\\u0062\", \"ab\"]", cache).asArray();
+    assertEquals(Json.array("EUR", "EUR", "ab", "ab"), array);
+    assertSame(array.get(0), array.get(1));
+    assertSame(array.get(2), array.get(3));
+    assertSame(array.get(0), Json.parse("{\"currency\": \"EUR\"}", cache).asObject().get("currency"));
+    assertEquals(3, cache.hitCount());
+    assertEquals(2, cache.missCount());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void parseStringWithStringCacheFailsWithNull() {
+    TestUtil.assertException(NullPointerException.class, "string is null", new Runnable() {
+      public void run() {
+        Json.parse((String)null, new StringCache());
+      }
+    });
+    TestUtil.assertException(NullPointerException.class, "stringCache is null", new Runnable() {
+      public void run() {
+        Json.parse("23", (StringCache)null);
+      }
+    });
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void parseReaderWithStringCache() throws IOException {
+    StringCache cache = new StringCache();
+    JsonArray array = Json.parse(new StringReader("[\"EUR\", \"EUR\"]"), cache).asArray();
+    assertSame(array.get(0), array.get(1));
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void parseReaderWithStringCacheFailsWithNull() {
+    TestUtil.assertException(NullPointerException.class, "reader is null", new RunnableEx() {
+      public void run() throws IOException {
+        Json.parse((Reader)null, new StringCache());
+      }
+    });
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void parseDeduplicatedString() {
+    String json = "[{\"a\": \"x\", \"b\": [1, 2]}, {\"a\": \"x\", \"b\": [1, 2]}, \"x\"]";
+    JsonArray array = Json.parseDeduplicated(json).asArray();
+    assertEquals(Json.parse(json), array);
+    assertSame(array.get(0), array.get(1));
+    assertSame(array.get(0).asObject().get("a"), array.get(2));
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void parseDeduplicatedStringFreezesSharedValues() {
+    final JsonObject object = Json.parseDeduplicated("{\"a\": 23}").asObject();
+    TestUtil.assertException(UnsupportedOperationException.class, new Runnable() {
+      public void run() {
+        object.add("b", 42);
+      }
+    });
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void parseDeduplicatedStringFailsWithNull() {
+    TestUtil.assertException(NullPointerException.class, "string is null", new Runnable() {
+      public void run() {
+        Json.parseDeduplicated((String)null);
+      }
+    });
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void parseDeduplicatedReader() throws IOException {
+    JsonArray array = Json.parseDeduplicated(new StringReader("[[true], [true]]")).asArray();
+    assertEquals(Json.parse("[[true], [true]]"), array);
+    assertSame(array.get(0), array.get(1));
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void parseDeduplicatedReaderFailsWithNull() {
+    TestUtil.assertException(NullPointerException.class, "reader is null", new RunnableEx() {
+      public void run() throws IOException {
+        Json.parseDeduplicated((Reader)null);
+      }
+    });
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void validateString() {
+    Json.validate("{\"a\": [23, -4.2e+1, true, false, null, \"b\\u00e4\\n\"], \"c\": {}}");
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void validateStringFailsWithNull() {
+    TestUtil.assertException(NullPointerException.class, "string is null", new Runnable() {
+      public void run() {
+        Json.validate((String)null);
+      }
+    });
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void validateReader() throws IOException {
+    Json.validate(new StringReader("[\"lorem ipsum dolor sit amet\", 23]"));
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void validateReaderFailsWithNull() {
+    TestUtil.assertException(NullPointerException.class, "reader is null", new RunnableEx() {
+      public void run() throws IOException {
+        Json.validate((Reader)null);
+      }
+    });
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void validateReportsSameLocationAsParse() {
+    String[] inputs = {"", "[1,]", "{\"a\":}", "{\"a\" 1}", "[\"a\nb\"]", "\"\\x\"", "\"\\u12g4\"", "-", "1.",
+      "1e", "nul", "[1] x", "{\n  \"a\": 23,\n}", "\"abc"};
+    for (final String input : inputs) {
+      ParseException parseException = TestUtil.assertException(ParseException.class, new Runnable() {
+        public void run() {
+          Json.parse(input);
+        }
+      });
+      ParseException validateException = TestUtil.assertException(ParseException.class, new Runnable() {
+        public void run() {
+          Json.validate(input);
+        }
+      });
+      assertEquals(input, parseException.getMessage(), validateException.getMessage());
+      assertEquals(input, parseException.getLocation(), validateException.getLocation());
+    }
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void validateFailsOnTooDeeplyNestedArray() {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < 1001; i++) {
+      builder.append('[');
+    }
+    final String input = builder.toString();
+    ParseException exception = TestUtil.assertException(ParseException.class, new Runnable() {
+      public void run() {
+        Json.validate(input);
+      }
+    });
+    assertEquals("Nesting too deep at 1:1002", exception.getMessage());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void wrapMap() {
+    Map<String, Object> map = new LinkedHashMap<String, Object>();
+    map.put("a", Arrays.asList(1, true));
+    assertEquals("{\"a\":[1,true]}", Json.wrap(map).toString());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void wrapList() {
+    assertEquals("[\"a\",null]", Json.wrap(Arrays.asList("a", null)).toString());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void wrapFailsWithNull() {
+    assertException(NullPointerException.class, "map is null", new Runnable() {
+      public void run() {
+        Json.wrap((Map<String, ?>)null);
+      }
+    });
+    assertException(NullPointerException.class, "list is null", new Runnable() {
+      public void run() {
+        Json.wrap((List<?>)null);
+      }
+    });
+  }
 }
@@ -0,0 +1,171 @@
+/*
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+title      JSON Traversal Test                             +
+project    icecore-json                                    +
+version    0.8.0-frost.1                                   +
+repository https://github.com/arcticicestudio/icecore-json +
+author     Arctic Ice Studio                               +
+email      development@arcticicestudio.com                 +
+copyright  Copyright (C) 2016                              +
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+*/
+package com.arcticicestudio.icecore.json;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests the JSON traversal class {@link JsonTraversal}.
+ *
+ * @author Arctic Ice Studio &lt;development@arcticicestudio.com&gt;
+ * @since 0.8.0
+ */
+public class JsonTraversalTest {
+
+  @Test
+  public void traverseVisitsLeafValue() {
+    RecordingVisitor visitor = new RecordingVisitor();
+    new JsonTraversal(visitor).traverse(Json.value(23));
+    assertEquals("[value 23]", visitor.events.toString());
+  }
+
+  @Test
+  public void traverseVisitsValuesInDocumentOrder() {
+    RecordingVisitor visitor = new RecordingVisitor();
+    new JsonTraversal(visitor).traverse(Json.parse("{\"a\": [1, true], \"b\": {}, \"c\": \"d\"}"));
+    assertEquals("[enterObject, enterMember a, enterArray, enterElement 0, value 1, enterElement 1, value true, "
+                 + "leaveArray, enterMember b, enterObject, leaveObject, enterMember c, value d, leaveObject]",
+                 visitor.events.toString());
+  }
+
+  @Test
+  public void traversePrunesContainers() {
+    RecordingVisitor visitor = new RecordingVisitor() {
+      @Override
+      public boolean enterArray(JsonArray array) {
+        super.enterArray(array);
+        return false;
+      }
+    };
+    new JsonTraversal(visitor).traverse(Json.parse("{\"a\": [1, [2]], \"b\": 3}"));
+    assertEquals("[enterObject, enterMember a, enterArray, enterMember b, value 3, leaveObject]",
+                 visitor.events.toString());
+  }
+
+  @Test
+  public void traversePrunesMembersAndElements() {
+    RecordingVisitor visitor = new RecordingVisitor() {
+      @Override
+      public boolean enterMember(String name, JsonValue value) {
+        super.enterMember(name, value);
+        return !name.equals("secret");
+      }
+
+      @Override
+      public boolean enterElement(int index, JsonValue value) {
+        super.enterElement(index, value);
+        return index != 0;
+      }
+    };
+    new JsonTraversal(visitor).traverse(Json.parse("[{\"secret\": {\"x\": 1}}, 2]"));
+    assertEquals("[enterArray, enterElement 0, enterElement 1, value 2, leaveArray]", visitor.events.toString());
+    visitor.events.clear();
+    new JsonTraversal(visitor).traverse(Json.parse("{\"secret\": {\"x\": 1}, \"b\": 2}"));
+    assertEquals("[enterObject, enterMember secret, enterMember b, value 2, leaveObject]", visitor.events.toString());
+  }
+
+  @Test
+  public void traverseVisitsDeeplyNestedValues() {
+    JsonArray root = new JsonArray();
+    JsonArray array = root;
+    for (int i = 0; i < 100000; i++) {
+      JsonArray nested = new JsonArray();
+      array.add(new JsonObject().add("a", nested));
+      array = nested;
+    }
+    array.add(23);
+    final int[] counts = new int[3];
+    new JsonTraversal(new JsonVisitor() {
+      @Override
+      public void leaveArray(JsonArray array) {
+        counts[0]++;
+      }
+
+      @Override
+      public void leaveObject(JsonObject object) {
+        counts[1]++;
+      }
+
+      @Override
+      public void visitValue(JsonValue value) {
+        counts[2] += value.asInt();
+      }
+    }).traverse(root);
+    assertEquals(100001, counts[0]);
+    assertEquals(100000, counts[1]);
+    assertEquals(23, counts[2]);
+  }
+
+  @Test
+  public void traverseVisitsSnapshotOfConcurrentObject() {
+    final JsonObject object = JsonObject.concurrentObject(new JsonObject().add("a", 1).add("b", 2));
+    RecordingVisitor visitor = new RecordingVisitor() {
+      @Override
+      public boolean enterMember(String name, JsonValue value) {
+        object.remove("b");
+        return super.enterMember(name, value);
+      }
+    };
+    new JsonTraversal(visitor).traverse(object);
+    assertEquals("[enterObject, enterMember a, value 1, enterMember b, value 2, leaveObject]",
+                 visitor.events.toString());
+  }
+
+  private static class RecordingVisitor extends JsonVisitor {
+
+    final List<String> events = new ArrayList<String>();
+
+    @Override
+    public boolean enterObject(JsonObject object) {
+      events.add("enterObject");
+      return true;
+    }
+
+    @Override
+    public void leaveObject(JsonObject object) {
+      events.add("leaveObject");
+    }
+
+    @Override
+    public boolean enterArray(JsonArray array) {
+      events.add("enterArray");
+      return true;
+    }
+
+    @Override
+    public void leaveArray(JsonArray array) {
+      events.add("leaveArray");
+    }
+
+    @Override
+    public boolean enterMember(String name, JsonValue value) {
+      events.add("enterMember " + name);
+      return true;
+    }
+
+    @Override
+    public boolean enterElement(int index, JsonValue value) {
+      events.add("enterElement " + index);
+      return true;
+    }
+
+    @Override
+    public void visitValue(JsonValue value) {
+      events.add("value " + value);
+    }
+  }
+}
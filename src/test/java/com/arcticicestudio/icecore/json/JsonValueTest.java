@@ -14,6 +14,8 @@ package com.arcticicestudio.icecore.json;
 import static com.arcticicestudio.icecore.json.TestUtil.assertException;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
@@ -83,6 +85,18 @@ public class JsonValueTest {
     verify(writer, never()).close();
   }
 
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void freezeReturnsImmutableValuesThemselves() {
+    JsonValue string = Json.value("a");
+    JsonValue number = Json.value(23);
+    assertSame(string, string.freeze());
+    assertSame(number, number.freeze());
+    assertSame(Json.NULL, Json.NULL.freeze());
+  }
+
   @Test
   public void asObjectFailsOnIncompatibleType() {
     assertException(UnsupportedOperationException.class, "Not an object: null", new Runnable() {
@@ -155,9 +169,83 @@ public class JsonValueTest {
     });
   }
 
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void acceptVisitsAllValues() {
+    final StringBuilder visited = new StringBuilder();
+    Json.parse("{\"a\": [1, {\"b\": null}]}").accept(new JsonVisitor() {
+      @Override
+      public boolean enterMember(String name, JsonValue value) {
+        visited.append(name);
+        return true;
+      }
+
+      @Override
+      public void visitValue(JsonValue value) {
+        visited.append(value);
+      }
+    });
+    assertEquals("a1bnull", visited.toString());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void acceptFailsWithNull() {
+    assertException(NullPointerException.class, "visitor is null", new Runnable() {
+      public void run() {
+        Json.NULL.accept(null);
+      }
+    });
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void getTypeReturnsTypeOfValue() {
+    assertSame(JsonType.OBJECT, new JsonObject().getType());
+    assertSame(JsonType.OBJECT, JsonObject.unmodifiableObject(new JsonObject()).getType());
+    assertSame(JsonType.OBJECT, new JsonObject().freeze().getType());
+    assertSame(JsonType.ARRAY, new JsonArray().getType());
+    assertSame(JsonType.ARRAY, JsonArray.persistentArray(new JsonArray()).getType());
+    assertSame(JsonType.STRING, Json.value("foo").getType());
+    assertSame(JsonType.NUMBER, Json.value(23).getType());
+    assertSame(JsonType.BOOLEAN, Json.TRUE.getType());
+    assertSame(JsonType.BOOLEAN, Json.FALSE.getType());
+    assertSame(JsonType.NULL, Json.NULL.getType());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void getTypeIsPreservedByDeserialization() throws Exception {
+    assertSame(JsonType.STRING, TestUtil.serializeAndDeserialize(Json.value("foo")).getType());
+    assertSame(JsonType.OBJECT, TestUtil.serializeAndDeserialize(new JsonObject().add("a", 23)).getType());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void equalComparesByTypeFirst() {
+    assertTrue(JsonValue.equal(Json.value("23"), new JsonString("23")));
+    assertFalse(JsonValue.equal(Json.value("23"), Json.value(23)));
+    assertTrue(JsonValue.equal(Json.value(23), new JsonNumber("23")));
+    assertFalse(JsonValue.equal(Json.TRUE, Json.FALSE));
+    assertTrue(JsonValue.equal(Json.TRUE, new JsonLiteral("true")));
+    assertFalse(JsonValue.equal(new JsonString("a"), new JsonString("b")));
+    assertTrue(JsonValue.equal(new JsonArray().add(1), new JsonArray().add(1)));
+    assertFalse(JsonValue.equal(new JsonArray(), new JsonObject()));
+  }
+
   @Test
   public void isJsonValueReturnsFalseForIncompatibleType() {
-    JsonValue jsonValue = new JsonValue() {
+    JsonValue jsonValue = new JsonValue(null) {
       @Override
       void write(JsonWriter writer) throws IOException {}
     };
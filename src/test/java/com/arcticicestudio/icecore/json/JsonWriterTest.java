@@ -155,6 +155,55 @@ public class JsonWriterTest {
     assertEquals("\"x\\\\\"", output.toString());
   }
 
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void writeTreeWritesNestedValuesInOrder() throws IOException {
+    JsonValue value = Json.parse("{\"a\": [1, 2.5, [], {}], \"b\": {\"c\": [\"d\", true, null]}, \"e\": [[3]]}");
+    writer.writeTree(value);
+    assertEquals("{\"a\":[1,2.5,[],{}],\"b\":{\"c\":[\"d\",true,null]},\"e\":[[3]]}", output.toString());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void writeTreeWritesPersistentFrozenAndConcurrentValues() throws IOException {
+    JsonObject object = new JsonObject().add("a", new JsonArray().add(1).add("b"))
+                                        .add("c", new JsonObject().add("d", 2));
+    String expected = object.toString();
+    assertEquals(expected, JsonObject.persistentObject(object).toString());
+    assertEquals(expected, object.freeze().toString());
+    assertEquals(expected, JsonObject.concurrentObject(object).toString());
+    assertEquals(expected, JsonObject.unmodifiableObject(object).toString());
+  }
+
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void writeTreeWritesDeeplyNestedValues() throws IOException {
+    int depth = 100000;
+    JsonArray root = new JsonArray();
+    JsonArray array = root;
+    for (int i = 1; i < depth; i++) {
+      JsonArray nested = new JsonArray();
+      array.add(new JsonObject().add("a", nested));
+      array = nested;
+    }
+    writer.writeTree(root);
+    StringBuilder expected = new StringBuilder();
+    for (int i = 1; i < depth; i++) {
+      expected.append("[{\"a\":");
+    }
+    expected.append("[]");
+    for (int i = 1; i < depth; i++) {
+      expected.append("}]");
+    }
+    assertEquals(expected.toString(), output.toString());
+  }
+
   private static String string(char... chars) {
     return String.valueOf(chars);
   }
@@ -0,0 +1,123 @@
+/*
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+title      Name Table Test                                 +
+project    icecore-json                                    +
+version    0.8.0-frost.1                                   +
+repository https://github.com/arcticicestudio/icecore-json +
+author     Arctic Ice Studio                               +
+email      development@arcticicestudio.com                 +
+copyright  Copyright (C) 2016                              +
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+*/
+package com.arcticicestudio.icecore.json;
+
+import static com.arcticicestudio.icecore.json.TestUtil.assertException;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Tests the name table class {@link NameTable}.
+ *
+ * @author Arctic Ice Studio &lt;development@arcticicestudio.com&gt;
+ * @since 0.8.0
+ */
+public class NameTableTest {
+
+  @Test
+  public void ofFailsWithNull() {
+    assertException(NullPointerException.class, "names is null", new Runnable() {
+      public void run() {
+        NameTable.of((String[])null);
+      }
+    });
+  }
+
+  @Test
+  public void ofFailsWithNullName() {
+    assertException(NullPointerException.class, "name is null", new Runnable() {
+      public void run() {
+        NameTable.of("a", null);
+      }
+    });
+  }
+
+  @Test
+  public void ofFailsWithDuplicateNames() {
+    assertException(IllegalArgumentException.class, "Duplicate name: a", new Runnable() {
+      public void run() {
+        NameTable.of("a", "b", "a");
+      }
+    });
+  }
+
+  @Test
+  public void ordinalReturnsPositionOfName() {
+    NameTable table = NameTable.of("id", "name", "email", "address", "phone");
+    assertEquals(0, table.ordinal("id"));
+    assertEquals(2, table.ordinal("email"));
+    assertEquals(4, table.ordinal("phone"));
+  }
+
+  @Test
+  public void ordinalReturnsMinusOneForUnknownName() {
+    NameTable table = NameTable.of("id", "name");
+    assertEquals(-1, table.ordinal("ids"));
+    assertEquals(-1, table.ordinal(""));
+  }
+
+  @Test
+  public void ordinalFailsWithNull() {
+    assertException(NullPointerException.class, "name is null", new Runnable() {
+      public void run() {
+        NameTable.of("a").ordinal(null);
+      }
+    });
+  }
+
+  @Test
+  public void ordinalOfCharsMatchesOrdinalOfString() {
+    NameTable table = NameTable.of("id", "name", "email");
+    char[] chars = "[email,nam]".toCharArray();
+    assertEquals(2, table.ordinal(chars, 1, 5, "email".hashCode()));
+    assertEquals(-1, table.ordinal(chars, 7, 3, "nam".hashCode()));
+  }
+
+  @Test
+  public void ordinalHandlesNamesWithEqualHashCodes() {
+    NameTable table = NameTable.of("Aa", "BB", "AaAa", "BBBB", "AaBB");
+    assertEquals(0, table.ordinal("Aa"));
+    assertEquals(1, table.ordinal("BB"));
+    assertEquals(2, table.ordinal("AaAa"));
+    assertEquals(3, table.ordinal("BBBB"));
+    assertEquals(4, table.ordinal("AaBB"));
+    assertEquals(-1, table.ordinal("BBAa"));
+    assertEquals(1, table.ordinal("BB".toCharArray(), 0, 2, "BB".hashCode()));
+  }
+
+  @Test
+  public void ordinalHandlesManyNames() {
+    String[] names = new String[500];
+    for (int i = 0; i < names.length; i++) {
+      names[i] = "name-" + i;
+    }
+    NameTable table = NameTable.of(names);
+    for (int i = 0; i < names.length; i++) {
+      assertEquals(i, table.ordinal(names[i]));
+    }
+  }
+
+  @Test
+  public void emptyTable() {
+    NameTable table = NameTable.of();
+    assertEquals(0, table.size());
+    assertEquals(-1, table.ordinal("a"));
+  }
+
+  @Test
+  public void nameReturnsNameForOrdinal() {
+    NameTable table = NameTable.of("id", "name");
+    assertEquals("name", table.name(1));
+    assertEquals(2, table.size());
+  }
+}
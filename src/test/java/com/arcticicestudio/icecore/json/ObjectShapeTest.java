@@ -0,0 +1,178 @@
+/*
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+title      JSON Object Shape Test                          +
+project    icecore-json                                    +
+version    0.8.0-frost.1                                   +
+repository https://github.com/arcticicestudio/icecore-json +
+author     Arctic Ice Studio                               +
+email      development@arcticicestudio.com                 +
+copyright  Copyright (C) 2016                              +
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+*/
+package com.arcticicestudio.icecore.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.BitSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the JSON object shape class {@link ObjectShape}.
+ *
+ * @author Arctic Ice Studio &lt;development@arcticicestudio.com&gt;
+ * @since 0.8.0
+ */
+public class ObjectShapeTest {
+
+  private ObjectShape root;
+
+  @Before
+  public void setUp() {
+    root = new ObjectShape();
+  }
+
+  @Test
+  public void addReturnsSameShapeForSameNames() {
+    ObjectShape shape = root.add("id").add("name");
+    assertTrue(shape.isShared());
+    assertSame(shape, root.add("id").add(new String("name")));
+    assertEquals(2, shape.size());
+    assertEquals("id", shape.name(0));
+    assertEquals("name", shape.name(1));
+  }
+
+  @Test
+  public void addReturnsDifferentShapeForDifferentOrder() {
+    assertNotSame(root.add("id").add("name"), root.add("name").add("id"));
+  }
+
+  @Test
+  public void addDoesNotModifySharedShape() {
+    ObjectShape shape = root.add("id");
+    shape.add("name");
+    assertEquals(1, shape.size());
+    assertEquals(0, root.size());
+  }
+
+  @Test
+  public void addCreatesOwnedShapeBeyondTransitionLimit() {
+    for (int i = 0; i < ObjectShape.MAX_TRANSITIONS; i++) {
+      assertTrue(root.add("name-" + i).isShared());
+    }
+    ObjectShape shape = root.add("other");
+    assertFalse(shape.isShared());
+    assertSame(shape, shape.add("another"));
+    assertEquals(2, shape.size());
+    assertTrue(root.add("name-0").isShared());
+  }
+
+  @Test
+  public void addSharesTransitionsCreatedConcurrently() throws InterruptedException {
+    final int names = ObjectShape.MAX_TRANSITIONS;
+    final ObjectShape[][] shapes = new ObjectShape[4][names];
+    Thread[] threads = new Thread[shapes.length];
+    for (int t = 0; t < threads.length; t++) {
+      final ObjectShape[] added = shapes[t];
+      threads[t] = new Thread() {
+        @Override
+        public void run() {
+          for (int i = 0; i < names; i++) {
+            added[i] = root.add("name-" + i);
+          }
+        }
+      };
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    for (int i = 0; i < names; i++) {
+      assertTrue(shapes[0][i].isShared());
+      for (int t = 1; t < shapes.length; t++) {
+        assertSame(shapes[0][i], shapes[t][i]);
+      }
+    }
+    assertFalse(root.add("other").isShared());
+  }
+
+  @Test
+  public void addCreatesOwnedShapeBeyondMaxSharedSize() {
+    ObjectShape shape = root;
+    for (int i = 0; i < ObjectShape.MAX_SHARED_SIZE; i++) {
+      shape = shape.add("name-" + i);
+      assertTrue(shape.isShared());
+    }
+    shape = shape.add("other");
+    assertFalse(shape.isShared());
+    assertEquals(ObjectShape.MAX_SHARED_SIZE, shape.indexOf("other"));
+  }
+
+  @Test
+  public void indexOfReturnsLastIndexAcrossIndexThreshold() {
+    ObjectShape shape = root;
+    for (int i = 0; i <= ObjectShape.INDEX_THRESHOLD; i++) {
+      shape = shape.add("a").add("b-" + i);
+      assertEquals(i * 2, shape.indexOf("a"));
+      assertEquals(i * 2 + 1, shape.indexOf("b-" + i));
+      assertEquals(-1, shape.indexOf("c"));
+    }
+  }
+
+  @Test
+  public void removeCopiesSharedShape() {
+    ObjectShape shape = root.add("a").add("b").add("c");
+    ObjectShape removed = shape.remove(1);
+    assertFalse(removed.isShared());
+    assertEquals(2, removed.size());
+    assertEquals(1, removed.indexOf("c"));
+    assertEquals(3, shape.size());
+    assertEquals(1, shape.indexOf("b"));
+  }
+
+  @Test
+  public void removeModifiesOwnedShape() {
+    ObjectShape shape = root.add("a").add("b").remove(0);
+    assertSame(shape, shape.remove(0));
+    assertEquals(0, shape.size());
+  }
+
+  @Test
+  public void removeAllCopiesSharedShape() {
+    ObjectShape shape = root.add("a").add("b").add("c");
+    BitSet removed = new BitSet();
+    removed.set(0);
+    removed.set(2);
+    ObjectShape kept = shape.removeAll(removed);
+    assertFalse(kept.isShared());
+    assertEquals(1, kept.size());
+    assertEquals("b", kept.name(0));
+    assertEquals(3, shape.size());
+  }
+
+  @Test
+  public void shareCopiesOwnedShape() {
+    ObjectShape shape = root.add("a").add("b").remove(0);
+    ObjectShape copy = shape.share();
+    assertNotSame(shape, copy);
+    shape.add("c");
+    assertEquals(1, copy.size());
+    assertSame(root, root.share());
+  }
+
+  @Test
+  public void ofReturnsSharedShapeForNames() {
+    Object[] members = {"x", Json.NULL, "y", Json.NULL};
+    ObjectShape shape = ObjectShape.of(members, 0, 2);
+    assertTrue(shape.isShared());
+    assertSame(shape, ObjectShape.of(members, 0, 2));
+    assertTrue(shape.hasNames(members, 0, 2));
+    assertFalse(shape.hasNames(members, 0, 1));
+    assertTrue(shape.hasNames(new Object[] {new String("x"), Json.NULL, "y", Json.NULL}, 0, 2));
+  }
+}
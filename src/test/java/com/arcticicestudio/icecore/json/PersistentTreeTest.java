@@ -0,0 +1,110 @@
+/*
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+title      JSON Persistent Tree Test                       +
+project    icecore-json                                    +
+version    0.8.0-frost.1                                   +
+repository https://github.com/arcticicestudio/icecore-json +
+author     Arctic Ice Studio                               +
+email      development@arcticicestudio.com                 +
+copyright  Copyright (C) 2016                              +
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+*/
+package com.arcticicestudio.icecore.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests the JSON persistent tree class {@link PersistentTree}.
+ *
+ * @author Arctic Ice Studio &lt;development@arcticicestudio.com&gt;
+ * @since 0.8.0
+ */
+public class PersistentTreeTest {
+
+  @Test
+  public void emptyTreeHasNoElements() {
+    assertEquals(0, PersistentTree.EMPTY.size());
+    assertEquals(-1, PersistentTree.EMPTY.indexOf(0));
+    assertFalse(PersistentTree.EMPTY.iterator().hasNext());
+  }
+
+  @Test
+  public void addAppendsElements() {
+    PersistentTree tree = tree(100);
+    assertEquals(100, tree.size());
+    for (int i = 0; i < 100; i++) {
+      assertEquals(i, tree.get(i));
+    }
+  }
+
+  @Test
+  public void modificationsDoNotChangeOriginalTree() {
+    PersistentTree tree = tree(10);
+    tree.set(3, "a").remove(5).add(10, 10);
+    assertEquals(toList(tree(10)), toList(tree));
+  }
+
+  @Test
+  public void setReplacesElementAndKeepsKey() {
+    PersistentTree tree = tree(10).set(3, "a");
+    assertEquals("a", tree.get(3));
+    assertEquals(3, tree.indexOf(3));
+  }
+
+  @Test
+  public void indexOfFindsKeysAfterRemoval() {
+    PersistentTree tree = tree(10).remove(2).remove(0);
+    assertEquals(-1, tree.indexOf(2));
+    assertEquals(0, tree.indexOf(1));
+    assertEquals(7, tree.indexOf(9));
+  }
+
+  @Test
+  public void randomModificationsMatchList() {
+    Random random = new Random(23);
+    List<Object> expected = new ArrayList<Object>();
+    PersistentTree tree = PersistentTree.EMPTY;
+    for (int i = 0; i < 5000; i++) {
+      int operation = random.nextInt(4);
+      if (operation == 0 && !expected.isEmpty()) {
+        int index = random.nextInt(expected.size());
+        expected.remove(index);
+        tree = tree.remove(index);
+      } else if (operation == 1 && !expected.isEmpty()) {
+        int index = random.nextInt(expected.size());
+        expected.set(index, -i);
+        tree = tree.set(index, -i);
+      } else {
+        expected.add(i);
+        tree = tree.add(i, i);
+      }
+    }
+    assertEquals(expected, toList(tree));
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.get(i), tree.get(i));
+    }
+  }
+
+  private static PersistentTree tree(int size) {
+    PersistentTree tree = PersistentTree.EMPTY;
+    for (int i = 0; i < size; i++) {
+      tree = tree.add(i, i);
+    }
+    return tree;
+  }
+
+  private static List<Object> toList(PersistentTree tree) {
+    List<Object> list = new ArrayList<Object>();
+    for (Object element : tree) {
+      list.add(element);
+    }
+    return list;
+  }
+}
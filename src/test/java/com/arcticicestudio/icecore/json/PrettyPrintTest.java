@@ -68,6 +68,23 @@ public class PrettyPrintTest {
     assertEquals("[\n  23,\n  [\n    42\n  ]\n]", output.toString());
   }
 
+  /**
+   * @since 0.8.0
+   */
+  @Test
+  public void indentWithSpacesDeeplyNestedArray() throws IOException {
+    JsonArray root = new JsonArray();
+    JsonArray array = root;
+    for (int i = 0; i < 10000; i++) {
+      JsonArray nested = new JsonArray();
+      array.add(nested);
+      array = nested;
+    }
+    array.add(23);
+    root.writeTo(output, indentWithSpaces(0));
+    assertEquals(10001 * 2 + 1, output.toString().split("\n").length);
+  }
+
   @Test
   public void indentWithSpacesObject() throws IOException {
     new JsonObject().add("a", 23).add("b", 42).writeTo(output, indentWithSpaces(2));
@@ -0,0 +1,90 @@
+/*
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+title      JSON String Cache Test                          +
+project    icecore-json                                    +
+version    0.8.0-frost.1                                   +
+repository https://github.com/arcticicestudio/icecore-json +
+author     Arctic Ice Studio                               +
+email      development@arcticicestudio.com                 +
+copyright  Copyright (C) 2016                              +
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+*/
+package com.arcticicestudio.icecore.json;
+
+import static com.arcticicestudio.icecore.json.TestUtil.assertException;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+/**
+ * Tests the JSON string cache class {@link StringCache}.
+ *
+ * @author Arctic Ice Studio &lt;development@arcticicestudio.com&gt;
+ * @since 0.8.0
+ */
+public class StringCacheTest {
+
+  @Test
+  public void constructorUsesDefaults() {
+    StringCache cache = new StringCache();
+    assertEquals(StringCache.DEFAULT_CAPACITY, cache.capacity());
+    assertEquals(StringCache.DEFAULT_MAX_LENGTH, cache.maxLength());
+  }
+
+  @Test
+  public void constructorRoundsCapacityUpToPowerOfTwo() {
+    assertEquals(1, new StringCache(1, 8).capacity());
+    assertEquals(64, new StringCache(33, 8).capacity());
+  }
+
+  @Test
+  public void constructorFailsWithInvalidArguments() {
+    assertException(IllegalArgumentException.class, "capacity is not positive: 0", new Runnable() {
+      public void run() {
+        new StringCache(0, 8);
+      }
+    });
+    assertException(IllegalArgumentException.class, "maxLength is negative: -1", new Runnable() {
+      public void run() {
+        new StringCache(8, -1);
+      }
+    });
+  }
+
+  @Test
+  public void valueReturnsCachedValue() {
+    StringCache cache = new StringCache();
+    JsonValue value = cache.value("foo");
+    assertEquals(new JsonString("foo"), value);
+    assertSame(value, cache.value(new String("foo")));
+    assertSame(value, cache.value("xfoox".toCharArray(), 1, 3, "foo".hashCode()));
+    assertEquals(2, cache.hitCount());
+    assertEquals(1, cache.missCount());
+  }
+
+  @Test
+  public void valueDoesNotCacheLongStrings() {
+    StringCache cache = new StringCache(8, 2);
+    assertNotSame(cache.value("foo"), cache.value("foo"));
+    assertEquals(0, cache.hitCount());
+    assertEquals(0, cache.missCount());
+  }
+
+  @Test
+  public void valueKeepsFrequentValues() {
+    StringCache cache = new StringCache(1, 8);
+    JsonValue value = cache.value("a");
+    cache.value("a");
+    cache.value("a");
+    cache.value("b");
+    cache.value("c");
+    assertSame(value, cache.value("a"));
+    cache.value("b");
+    cache.value("c");
+    cache.value("d");
+    cache.value("e");
+    assertNotSame(value, cache.value("a"));
+  }
+}
@@ -0,0 +1,77 @@
+/*
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+title      JSON Value Deduplicator Test                    +
+project    icecore-json                                    +
+version    0.8.0-frost.1                                   +
+repository https://github.com/arcticicestudio/icecore-json +
+author     Arctic Ice Studio                               +
+email      development@arcticicestudio.com                 +
+copyright  Copyright (C) 2016                              +
+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+*/
+package com.arcticicestudio.icecore.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests the JSON value deduplicator class {@link ValueDeduplicator}.
+ *
+ * @author Arctic Ice Studio &lt;development@arcticicestudio.com&gt;
+ * @since 0.8.0
+ */
+public class ValueDeduplicatorTest {
+
+  private final ValueDeduplicator deduplicator = new ValueDeduplicator();
+
+  @Test
+  public void stringReturnsSameInstanceForEqualStrings() {
+    JsonValue value = deduplicator.string("foo");
+    assertEquals(new JsonString("foo"), value);
+    assertSame(value, deduplicator.string(new String("foo")));
+  }
+
+  @Test
+  public void numberReturnsSameInstanceForEqualNumbers() {
+    JsonValue value = deduplicator.number("23");
+    assertEquals(new JsonNumber("23"), value);
+    assertSame(value, deduplicator.number(new String("23")));
+  }
+
+  @Test
+  public void numberDoesNotReturnStringWithSameText() {
+    deduplicator.string("23");
+    assertTrue(deduplicator.number("23").isNumber());
+    assertTrue(deduplicator.string("23").isString());
+  }
+
+  @Test
+  public void subtreeReturnsSameFrozenInstanceForEqualSubtrees() {
+    JsonValue value = deduplicator.subtree(new JsonObject().add("a", 23).add("b", "x"));
+    assertSame(value, deduplicator.subtree(new JsonObject().add("a", 23).add("b", "x")));
+    assertTrue(value.isImmutable());
+  }
+
+  @Test
+  public void subtreeDoesNotShareLargeSubtrees() {
+    JsonArray array = new JsonArray();
+    for (int i = 0; i <= ValueDeduplicator.MAX_SUBTREE_SIZE; i++) {
+      array.add("a");
+    }
+    assertSame(array, deduplicator.subtree(array));
+    assertNotSame(array, deduplicator.subtree(new JsonArray(array)));
+  }
+
+  @Test
+  public void subtreeDoesNotShareSubtreesWithModifiableChildren() {
+    JsonObject object = new JsonObject().add("a", new JsonArray().add(new JsonArray()));
+    JsonValue value = deduplicator.subtree(object);
+    assertSame(object, value);
+    assertFalse(value.isImmutable());
+  }
+}